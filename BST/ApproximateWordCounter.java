@@ -0,0 +1,287 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Approximate word frequency counter for inputs too large to
+    keep one tree node per unique word. Memory is fixed up front:
+      - a Count-Min sketch estimates the frequency of any word,
+      - Space-Saving keeps the K heaviest words (heavy hitters)
+        with their counts, for the top words and traversals,
+      - a HyperLogLog estimates the number of unique words.
+    Only the total word count is exact. ApproximationReport
+    measures the error against the exact tree.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+
+class ApproximateWordCounter implements WordCounter {
+
+    // Memory charged per Space-Saving entry (node, map entry and word), used to
+    // split a memory budget
+    private static final int BYTES_PER_HEAVY_HITTER = 128;
+
+    // HyperLogLog registers: 2^14 of them give about 0.8% standard error
+    private static final int REGISTER_BITS = 14;
+
+    // Seed that decorrelates the HyperLogLog hash from the sketch's hash
+    private static final long REGISTER_SEED = 0x9E3779B97F4A7C15L;
+
+    // A monitored word; 'error' is how much of its count may belong to the
+    // words it replaced
+    private static class Counter extends TreeNode {
+        int error;
+
+        Counter(String word) {
+            super(word);
+        }
+    }
+
+    // (1) Frequency estimates for every word
+    // (2) Space-Saving: at most 'capacity' monitored words, kept in a frequency
+    // index so the least frequent one is found in O(1)
+    // (3) HyperLogLog registers for the unique word estimate
+    // (4) Exact total of all words inserted
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final HashMap<String, Counter> monitored = new HashMap<>();
+    private final FrequencyIndex heavyHitters = new FrequencyIndex();
+    private final byte[] registers = new byte[1 << REGISTER_BITS];
+    private long totalWords;
+
+    // Creates a counter whose estimates are at most epsilon * N too high with
+    // probability 1 - delta (N = total words), keeping the 'capacity' heaviest
+    // words for topK() and the traversals
+    public ApproximateWordCounter(double epsilon, double delta, int capacity) {
+        this(new CountMinSketch(epsilon, delta), capacity);
+    }
+
+    private ApproximateWordCounter(CountMinSketch sketch, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+
+    // Creates the most accurate counter that fits in about 'memoryBytes': the
+    // heavy hitters and the HyperLogLog get their share first, the sketch gets
+    // the rest
+    public static ApproximateWordCounter withMemoryBudget(long memoryBytes, double delta, int capacity) {
+        int depth = CountMinSketch.rowsFor(delta);
+        long sketchBytes = memoryBytes - (long) capacity * BYTES_PER_HEAVY_HITTER - (1 << REGISTER_BITS);
+        long width = sketchBytes / (8L * depth);
+        if (capacity < 1 || width < 1) {
+            throw new IllegalArgumentException("Memory budget of " + memoryBytes + " bytes is too small for "
+                    + capacity + " heavy hitters");
+        }
+        return new ApproximateWordCounter(new CountMinSketch((int) Math.min(width, Integer.MAX_VALUE / depth), depth),
+                capacity);
+    }
+
+    // Inserts one occurrence of a word
+    @Override
+    public void insert(String word) {
+        insert(word, 1);
+    }
+
+    // Inserts a word that occurred 'count' times at once
+    @Override
+    public void insert(String word, int count) {
+        // (1) Update the sketch and the exact total
+        // (2) Record the word's hash in the HyperLogLog
+        // (3) Update Space-Saving
+
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        long hash = CountMinSketch.hash(word);
+        sketch.add(hash, count);
+        totalWords += count;
+        addToRegisters(hash);
+        addToHeavyHitters(word, count);
+    }
+
+    // Space-Saving update
+    private void addToHeavyHitters(String word, int count) {
+        // (1) A monitored word has its count raised
+        // (2) While there is room, a new word is monitored with its count
+        // (3) Otherwise the new word takes over the least frequent entry and
+        // inherits its count as error: the true count is at least count - error
+
+        Counter counter = monitored.get(word);
+        if (counter != null) {
+            counter.frequency = saturatedAdd(counter.frequency, count);
+            heavyHitters.increase(counter);
+        } else if (monitored.size() < capacity) {
+            counter = new Counter(word);
+            counter.frequency = count;
+            monitored.put(word, counter);
+            heavyHitters.add(counter);
+        } else {
+            counter = (Counter) heavyHitters.leastFrequent();
+            monitored.remove(counter.word);
+            counter.word = word;
+            counter.error = counter.frequency;
+            counter.frequency = saturatedAdd(counter.frequency, count);
+            monitored.put(word, counter);
+            heavyHitters.increase(counter);
+        }
+    }
+
+    // Adds two counts, stopping at Integer.MAX_VALUE instead of overflowing
+    private static int saturatedAdd(int a, int b) {
+        return (int) Math.min((long) a + b, Integer.MAX_VALUE);
+    }
+
+    // HyperLogLog update: the top bits pick a register, which keeps the longest
+    // run of leading zeros seen in the remaining bits
+    private void addToRegisters(long hash) {
+        long mixed = CountMinSketch.mix(hash ^ REGISTER_SEED);
+        int register = (int) (mixed >>> (64 - REGISTER_BITS));
+        long rest = (mixed << REGISTER_BITS) | (1L << (REGISTER_BITS - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[register] < rank) {
+            registers[register] = rank;
+        }
+    }
+
+    // Returns the estimated frequency of a word: never lower than the true
+    // count, and at most errorBound() higher with probability 1 - delta
+    @Override
+    public int searchWord(String word) {
+        // Both structures give upper bounds, so the smaller one is used: a
+        // monitored word's Space-Saving count, or for an unmonitored word the
+        // smallest monitored count (0 while Space-Saving has room, since every
+        // word seen so far is then monitored)
+
+        Counter counter = monitored.get(word);
+        long bound;
+        if (counter != null) {
+            bound = counter.frequency;
+        } else if (monitored.size() < capacity) {
+            bound = 0;
+        } else {
+            bound = heavyHitters.leastFrequent().frequency;
+        }
+        return (int) Math.min(bound, Math.min(sketch.estimate(CountMinSketch.hash(word)), Integer.MAX_VALUE));
+    }
+
+    // Largest amount by which searchWord() overestimates, with probability
+    // 1 - delta: epsilon * N
+    public long errorBound() {
+        return (long) Math.ceil(sketch.epsilon() * totalWords);
+    }
+
+    // Returns the traversal output of the heavy hitters only
+    @Override
+    public String getTraversalOutput(int type) {
+        return heavyHitterTree().getTraversalOutput(type);
+    }
+
+    // Writes the traversal output of the heavy hitters only
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        heavyHitterTree().writeTraversal(type, out);
+    }
+
+    // Builds a balanced tree of the heavy hitters with their estimated counts
+    BinarySearchTree heavyHitterTree() {
+        String[] words = monitored.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>(words.length);
+        for (String word : words) {
+            counts.add(Map.entry(word, Math.max(1, searchWord(word))));
+        }
+        return BinarySearchTree.fromSorted(counts, true);
+    }
+
+    // Returns the exact total number of words, including duplicates
+    @Override
+    public long getTotalWords() {
+        return totalWords;
+    }
+
+    // Returns the estimated number of unique words (HyperLogLog)
+    @Override
+    public int getUniqueWords() {
+        // (1) Harmonic mean of 2^register over all registers
+        // (2) For small counts use linear counting on the empty registers instead
+
+        int m = registers.length;
+        double sum = 0;
+        int empty = 0;
+        for (byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                empty++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / m) * m * (double) m / sum;
+        if (estimate <= 2.5 * m && empty > 0) {
+            estimate = m * Math.log((double) m / empty);
+        }
+        return (int) Math.min(Math.round(estimate), Integer.MAX_VALUE);
+    }
+
+    // Returns the heaviest word with its estimated count
+    @Override
+    public String getMostFrequentWord() {
+        List<Map.Entry<String, Integer>> top = topK(1);
+        if (top.isEmpty()) {
+            return "No words in the tree.";
+        }
+        return top.get(0).getKey() + " (" + top.get(0).getValue() + " times)";
+    }
+
+    // There is no tree in approximate mode, so the height is always -1
+    @Override
+    public int getTreeHeight() {
+        return -1;
+    }
+
+    // Returns up to k of the heaviest words (at most the Space-Saving capacity)
+    // with their estimated frequencies, most frequent first
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        // (1) Estimate every monitored word; a Space-Saving count alone can be
+        // inflated by the words its entry replaced
+        // (2) Sort by estimate (stable, so ties keep the Space-Saving order) and
+        // keep the first k
+
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(monitored.size());
+        for (TreeNode node : heavyHitters.top(capacity)) {
+            result.add(Map.entry(node.word, searchWord(node.word)));
+        }
+        result.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+
+    // Guaranteed lower bound of a heavy hitter's true count (0 if unmonitored)
+    public int guaranteedCount(String word) {
+        Counter counter = monitored.get(word);
+        return counter == null ? 0 : counter.frequency - counter.error;
+    }
+
+    // Approximate memory held by the counter, in bytes
+    public long memoryBytes() {
+        return sketch.memoryBytes() + registers.length + (long) capacity * BYTES_PER_HEAVY_HITTER;
+    }
+
+    // Relative error bound epsilon of the sketch
+    public double epsilon() {
+        return sketch.epsilon();
+    }
+
+    // Probability delta that an estimate exceeds errorBound()
+    public double delta() {
+        return sketch.delta();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for ApproximateWordCounter: on a skewed
+    stream, Count-Min estimates are never too low and rarely
+    more than epsilon * N too high, Space-Saving keeps every
+    word more frequent than N / capacity with bounds around its
+    true count, and the unique word estimate is close.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApproximateWordCounterTest {
+
+    // Exact counts of the last stream fed to a counter
+    private final HashMap<String, Integer> exact = new HashMap<>();
+
+    /**
+     * Feeds 'words' words skewed towards small IDs (a few words are frequent,
+     * most are rare) to the counter and to the exact counts
+     */
+    private void feed(ApproximateWordCounter counter, int words, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < words; i++) {
+            int id = (int) Math.pow(random.nextInt(1 << 14), 2) >> 14;
+            String word = "word" + id + "x" + random.nextInt(3);
+            counter.insert(word);
+            exact.merge(word, 1, Integer::sum);
+        }
+    }
+
+    @Test
+    public void testCountMinErrorBound() {
+        // With delta = 1% at most about 1% of the words may exceed the bound
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.001, 0.01, 100);
+        feed(counter, 200_000, 1);
+        assertEquals(200_000, counter.getTotalWords());
+        assertEquals(200, counter.errorBound());
+
+        int tooHigh = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            int estimate = counter.searchWord(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate - entry.getValue() > counter.errorBound()) {
+                tooHigh++;
+            }
+        }
+        assertTrue(tooHigh <= exact.size() / 100, tooHigh + " of " + exact.size());
+    }
+
+    @Test
+    public void testSpaceSavingBounds() {
+        // Every word seen more than N / capacity times is monitored, and each
+        // monitored word's true count lies between its guaranteed count and its
+        // estimate
+        int capacity = 1000;
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.001, 0.01, capacity);
+        feed(counter, 100_000, 2);
+        Set<String> monitored = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : counter.topK(capacity)) {
+            monitored.add(entry.getKey());
+            int count = exact.get(entry.getKey());
+            assertTrue(counter.guaranteedCount(entry.getKey()) <= count, entry.getKey());
+            assertTrue(entry.getValue() >= count, entry.getKey());
+        }
+        assertEquals(capacity, monitored.size());
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            if (entry.getValue() > 100_000 / capacity) {
+                assertTrue(monitored.contains(entry.getKey()), entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    public void testTopWordsMatchExactCounts() {
+        // The ten heaviest words are each seen more than N / capacity times
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.001, 0.01, 2000);
+        feed(counter, 200_000, 3);
+        List<Map.Entry<String, Integer>> expected = new ArrayList<>(exact.entrySet());
+        expected.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<Map.Entry<String, Integer>> top = counter.topK(10);
+        assertEquals(10, top.size());
+        // The i-th estimate is within the error bound of the i-th true count
+        for (int i = 0; i < 10; i++) {
+            long difference = top.get(i).getValue() - expected.get(i).getValue();
+            assertTrue(Math.abs(difference) <= counter.errorBound(), i + ": " + top.get(i));
+        }
+        // Near ties may swap places, but no rare word gets in
+        for (Map.Entry<String, Integer> entry : top) {
+            assertTrue(exact.get(entry.getKey()) >= expected.get(9).getValue() - counter.errorBound(),
+                    entry.getKey());
+        }
+    }
+
+    @Test
+    public void testUniqueWordEstimate() {
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.01, 0.01, 10);
+        feed(counter, 200_000, 4);
+        double error = Math.abs(counter.getUniqueWords() - exact.size()) / (double) exact.size();
+        assertTrue(error < 0.05, counter.getUniqueWords() + " vs " + exact.size());
+    }
+
+    @Test
+    public void testExactWhileCapacityHasRoom() {
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.1, 0.1, 10);
+        counter.insert("error", 3);
+        counter.insert("warn");
+        counter.insert("error");
+        assertEquals(4, counter.searchWord("error"));
+        assertEquals(1, counter.searchWord("warn"));
+        assertEquals(0, counter.searchWord("info"));
+        assertEquals(4, counter.guaranteedCount("error"));
+        assertEquals("error (4 times)", counter.getMostFrequentWord());
+        assertEquals(2, counter.getUniqueWords());
+        assertEquals(-1, counter.getTreeHeight());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        ApproximateWordCounter counter = ApproximateWordCounter.withMemoryBudget(1 << 20, 0.01, 100);
+        assertTrue(counter.memoryBytes() <= 1 << 20);
+        assertTrue(counter.epsilon() < 0.001);
+        assertTrue(counter.delta() <= 0.01);
+        assertThrows(IllegalArgumentException.class,
+                () -> ApproximateWordCounter.withMemoryBudget(1 << 10, 0.01, 100));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateWordCounter(0, 0.01, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateWordCounter(0.01, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateWordCounter(0.01, 0.01, 0));
+        ApproximateWordCounter counter = new ApproximateWordCounter(0.01, 0.01, 10);
+        assertThrows(IllegalArgumentException.class, () -> counter.insert("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> counter.topK(-1));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Counts a text file both exactly (BinarySearchTree) and
+    approximately (ApproximateWordCounter) and reports how far
+    the approximate answers are off:
+        java ApproximationReport <file> [epsilon] [delta] [heavy hitters]
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+
+public class ApproximationReport {
+
+    public static void main(String[] args) throws IOException {
+        // (1) Read the arguments, with defaults for the error bounds
+        // (2) Feed every word of the file to both counters
+        // (3) Print the comparison
+
+        if (args.length < 1) {
+            System.out.println("Usage: java ApproximationReport <file> [epsilon] [delta] [heavy hitters]");
+            return;
+        }
+        double epsilon = args.length > 1 ? Double.parseDouble(args[1]) : 1e-5;
+        double delta = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        BinarySearchTree exact = new BinarySearchTree(true);
+        ApproximateWordCounter approximate = new ApproximateWordCounter(epsilon, delta, capacity);
+        WordTokenizer.tokenize(args[0], word -> {
+            exact.insert(word);
+            approximate.insert(word);
+        });
+
+        print(exact, approximate, System.out);
+    }
+
+    // Prints the error of 'approximate' against 'exact', which counted the same
+    // words
+    static void print(BinarySearchTree exact, ApproximateWordCounter approximate, PrintStream out) {
+        // (1) Totals and the unique word estimate
+        // (2) searchWord() error over every word of the input, and how many words
+        // stay within the promised bound
+        // (3) Top words: how many of the exact top K were found, and the largest
+        // relative count error among them
+
+        out.printf("Sketch: epsilon %.2e, delta %.2e, about %,d bytes%n", approximate.epsilon(), approximate.delta(),
+                approximate.memoryBytes());
+        out.printf("Total words:  exact %,d, approximate %,d%n", exact.getTotalWords(), approximate.getTotalWords());
+        out.printf("Unique words: exact %,d, estimated %,d (%+.2f%%)%n", exact.getUniqueWords(),
+                approximate.getUniqueWords(),
+                100.0 * (approximate.getUniqueWords() - exact.getUniqueWords()) / Math.max(1, exact.getUniqueWords()));
+
+        long bound = approximate.errorBound();
+        long errorSum = 0;
+        long maxError = 0;
+        long withinBound = 0;
+        long words = 0;
+        for (Iterator<TreeNode> nodes = exact.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            TreeNode node = nodes.next();
+            long error = approximate.searchWord(node.word) - (long) node.frequency;
+            if (error < 0) {
+                throw new IllegalStateException("Underestimated '" + node.word + "': " + error);
+            }
+            errorSum += error;
+            maxError = Math.max(maxError, error);
+            if (error <= bound) {
+                withinBound++;
+            }
+            words++;
+        }
+        out.printf("searchWord error: mean %.3f, max %,d; bound epsilon * N = %,d holds for %.4f%% of words%n",
+                words == 0 ? 0.0 : (double) errorSum / words, maxError, bound,
+                words == 0 ? 100.0 : 100.0 * withinBound / words);
+
+        int k = Math.min(100, exact.getUniqueWords());
+        Set<String> exactTop = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : exact.topK(k)) {
+            exactTop.add(entry.getKey());
+        }
+        int found = 0;
+        double maxRelativeError = 0;
+        for (Map.Entry<String, Integer> entry : approximate.topK(k)) {
+            if (exactTop.contains(entry.getKey())) {
+                found++;
+            }
+            int trueCount = exact.searchWord(entry.getKey());
+            maxRelativeError = Math.max(maxRelativeError,
+                    (entry.getValue() - trueCount) / (double) Math.max(1, trueCount));
+        }
+        out.printf("Top %d words: %d found (recall %.1f%%), max relative count error %.4f%%%n", k, found,
+                k == 0 ? 100.0 : 100.0 * found / k, 100 * maxRelativeError);
+    }
+}
@@ -0,0 +1,1374 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Binary search tree of words and their frequencies. It keeps
+    its statistics up to date on every insert and remove, can
+    balance itself (AVL), answers rank, range, prefix and top-K
+    queries, and can be saved to, loaded from or merged with
+    other trees.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// TODO #2
+// Binary Search Tree implementation for storing and analyzing words
+class BinarySearchTree implements WordCounter, TieBreaking {
+    // (1) Root of the BST
+    // (2) Total words inserted (including duplicates)
+    // (3) Count of unique words
+    // (4) Stores the node with the highest frequency
+    // (5) Height of the tree, kept up to date on every insert
+    // (6) Whether the tree rebalances itself (AVL) after each insert
+    // (7) Optional hash cache mapping hot words to their nodes (null when off)
+    // (8) Optional metrics (null when off, which costs one null check per insert
+    // or search)
+    // Removing a node can lower the height of a plain tree; the height is then
+    // recomputed lazily, the next time it is asked for.
+    // All statistics are maintained incrementally, so every getter is O(1),
+    // apart from that one height recount.
+
+    private TreeNode root;
+    private long totalWords;
+    private int uniqueWords;
+    private TreeNode mostFrequentNode;
+    private int treeHeight = -1;
+    private boolean treeHeightStale;
+    private final FrequencyIndex frequencyIndex = new FrequencyIndex();
+
+    // Number of structural changes (new nodes, rotations), used to detect
+    // traversals running during an insert
+    private int modCount;
+    private final boolean balanced;
+    private final HotWordCache cache;
+    private TreeMetrics metrics;
+
+    // Reusable stack of ancestors visited by the current insert
+    private TreeNode[] path = new TreeNode[32];
+
+    // Creates a plain (unbalanced) BST
+    public BinarySearchTree() {
+        this(false);
+    }
+
+    // Creates a BST, optionally self-balancing (AVL) so that sorted input keeps
+    // the height at O(log n) instead of degrading into a linked list
+    public BinarySearchTree(boolean balanced) {
+        this(balanced, 0);
+    }
+
+    // Creates a BST with a hash cache of about 'cacheCapacity' hot words in front
+    // of it (0 for none). A cached word is counted or looked up in O(1) without
+    // walking the tree, which pays off on real text where a few hundred stop
+    // words make up half of all occurrences.
+    public BinarySearchTree(boolean balanced, int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("cacheCapacity must not be negative: " + cacheCapacity);
+        }
+        this.balanced = balanced;
+        this.cache = cacheCapacity == 0 ? null : new HotWordCache(cacheCapacity);
+    }
+
+    // Creates a BST around nodes that are already linked (e.g. read back from a
+    // snapshot) and computes the statistics, sizes and heights with one walk;
+    // O(n) including the frequency index, whatever the spread of the counts
+    BinarySearchTree(TreeNode root, boolean balanced) {
+        // (1) Visit the nodes in post-order, so children come before their parent
+        // (2) Recompute each node's height and subtree size from its children
+        // (3) Add up the counts
+        // (4) Register all nodes in the frequency index at once, which groups them
+        // by frequency instead of searching a bucket for each node
+
+        this.balanced = balanced;
+        this.cache = null;
+        this.root = root;
+
+        TreeNode[] indexed = new TreeNode[16];
+        TraversalIterator nodes = new TraversalIterator(POST_ORDER);
+        while (nodes.hasNext()) {
+            TreeNode node = nodes.next();
+            updateHeight(node);
+            totalWords += node.frequency;
+            if (uniqueWords == indexed.length) {
+                indexed = Arrays.copyOf(indexed, uniqueWords * 2);
+            }
+            indexed[uniqueWords++] = node;
+
+            if (mostFrequentNode == null || node.frequency > mostFrequentNode.frequency) {
+                mostFrequentNode = node;
+            }
+        }
+        frequencyIndex.addAll(indexed, 0, uniqueWords);
+        treeHeight = height(root);
+    }
+
+    // Writes the tree to a binary snapshot file that loadSnapshot() (or
+    // WordSnapshot.open() for a read-only, memory-mapped view) can read back
+    public void saveSnapshot(Path file) throws IOException {
+        WordSnapshot.write(this, file);
+    }
+
+    // Reads a snapshot written by saveSnapshot() back into a tree of the same
+    // shape, without comparing or rebalancing
+    public static BinarySearchTree loadSnapshot(Path file) throws IOException {
+        return WordSnapshot.open(file).toTree();
+    }
+
+    // Merges two trees into a new tree holding the summed counts, in O(n + m):
+    // both are read in order like two sorted lists, and the result is linked
+    // into a minimum-height tree. Neither input is changed. Used to reduce
+    // per-file or per-machine partial counts into one tree whose totals equal a
+    // single pass over all the input.
+    public static BinarySearchTree merge(BinarySearchTree first, BinarySearchTree second) {
+        // (1) Walk both trees in order side by side; a word found in both gets the
+        // sum of its counts
+        // (2) Link the merged nodes into a minimum-height tree, which also satisfies
+        // the AVL property, and let the tree compute its statistics
+        // (3) The order in which words reached their counts is lost, so ties for the
+        // most frequent word go to the first tree's most frequent word, then to
+        // the second's, then to the alphabetically first
+
+        TreeNode[] merged = new TreeNode[first.uniqueWords + second.uniqueWords];
+        int count = 0;
+        int maxFrequency = 0;
+        String firstMax = null;
+
+        Iterator<TreeNode> left = first.nodeIterator(IN_ORDER);
+        Iterator<TreeNode> right = second.nodeIterator(IN_ORDER);
+        TreeNode a = left.hasNext() ? left.next() : null;
+        TreeNode b = right.hasNext() ? right.next() : null;
+        while (a != null || b != null) {
+            int comparison = a == null ? 1 : b == null ? -1 : a.word.compareTo(b.word);
+            TreeNode node = new TreeNode(comparison <= 0 ? a.word : b.word);
+            node.frequency = comparison < 0 ? a.frequency
+                    : comparison > 0 ? b.frequency : Math.addExact(a.frequency, b.frequency);
+            if (comparison <= 0) {
+                a = left.hasNext() ? left.next() : null;
+            }
+            if (comparison >= 0) {
+                b = right.hasNext() ? right.next() : null;
+            }
+
+            merged[count++] = node;
+            if (node.frequency > maxFrequency) {
+                maxFrequency = node.frequency;
+                firstMax = node.word;
+            }
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(linkBalanced(merged, 0, count),
+                first.balanced || second.balanced);
+        for (String word : new String[] { firstMax, second.getMostFrequentKey(), first.getMostFrequentKey() }) {
+            if (word != null) {
+                tree.preferMostFrequent(word);
+            }
+        }
+        return tree;
+    }
+
+    // Returns an independent, minimum-height copy of the tree with the same
+    // counts and most frequent word, in O(n); e.g. a snapshot to hand to readers
+    // while this tree keeps counting
+    public BinarySearchTree copy() {
+        return merge(this, new BinarySearchTree(balanced));
+    }
+
+    // Builds a minimum-height tree from a list of words in any order, e.g. a
+    // sorted word list that would turn insert() into a linked list. Runs of
+    // equal words in sorted input are collapsed as they arrive (O(n)); unsorted
+    // input is counted in a hash map and only its distinct words are sorted.
+    // The height is ceil(log2(n + 1)) - 1 for n unique words. 'balanced'
+    // applies to later inserts.
+    public static BinarySearchTree fromWords(Iterable<String> words, boolean balanced) {
+        BulkLoader loader = new BulkLoader();
+        for (String word : words) {
+            loader.add(word);
+        }
+        return loader.build(balanced);
+    }
+
+    // Collects words one at a time for fromWords(), keeping one entry per
+    // distinct word rather than the words themselves, so a text can be
+    // streamed into it from the tokenizer in O(unique words) of memory
+    static class BulkLoader {
+        // (1) Distinct words so far with their counts and the position of their
+        // last occurrence, in order while the input is sorted
+        // (2) Counts of all words once the input was out of order (null before)
+        // (3) Number of words added
+
+        private String[] distinct = new String[16];
+        private long[] counts = new long[16];
+        private long[] lastSeen = new long[16];
+        private int size;
+        private HashMap<String, long[]> unsorted;
+        private long position;
+
+        // Adds the next word of the input
+        void add(String word) {
+            // (1) While the words arrive in order, collapse each run of equal words
+            // into one entry
+            // (2) At the first word out of order, move the entries into a hash map and
+            // count the remaining words there
+
+            if (unsorted == null) {
+                int comparison = size == 0 ? 1 : word.compareTo(distinct[size - 1]);
+                if (comparison == 0) {
+                    counts[size - 1]++;
+                    lastSeen[size - 1] = position++;
+                    return;
+                }
+                if (comparison > 0) {
+                    if (size == distinct.length) {
+                        distinct = Arrays.copyOf(distinct, size * 2);
+                        counts = Arrays.copyOf(counts, size * 2);
+                        lastSeen = Arrays.copyOf(lastSeen, size * 2);
+                    }
+                    distinct[size] = word;
+                    counts[size] = 1;
+                    lastSeen[size++] = position++;
+                    return;
+                }
+                unsorted = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    unsorted.put(distinct[i], new long[] { counts[i], lastSeen[i] });
+                }
+            }
+            long[] entry = unsorted.computeIfAbsent(word, w -> new long[2]);
+            entry[0]++;
+            entry[1] = position++;
+        }
+
+        // Builds the tree from the words added so far
+        BinarySearchTree build(boolean balanced) {
+            // (1) Sort the distinct words of unsorted input
+            // (2) Create one node per word and link them into a minimum-height tree
+            // (3) Ties for the most frequent word go to the word whose last occurrence
+            // comes first (the one that reached the count first), as with insert()
+
+            if (unsorted != null) {
+                distinct = unsorted.keySet().toArray(new String[0]);
+                Arrays.sort(distinct);
+                size = distinct.length;
+                counts = new long[size];
+                lastSeen = new long[size];
+                for (int i = 0; i < size; i++) {
+                    long[] entry = unsorted.get(distinct[i]);
+                    counts[i] = entry[0];
+                    lastSeen[i] = entry[1];
+                }
+                unsorted = null;
+            }
+
+            TreeNode[] nodes = new TreeNode[size];
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                nodes[i] = new TreeNode(distinct[i]);
+                nodes[i].frequency = Math.toIntExact(counts[i]);
+                if (best < 0 || counts[i] > counts[best]
+                        || (counts[i] == counts[best] && lastSeen[i] < lastSeen[best])) {
+                    best = i;
+                }
+            }
+
+            BinarySearchTree tree = new BinarySearchTree(linkBalanced(nodes, 0, size), balanced);
+            if (best >= 0) {
+                tree.preferMostFrequent(distinct[best]);
+            }
+            return tree;
+        }
+    }
+
+    // Builds a minimum-height tree in O(n) from (word, count) pairs that are
+    // already sorted by word, e.g. read back from another counter's in-order
+    // traversal. Equal neighbouring words are collapsed into one node with the
+    // summed count. Ties for the most frequent word go to the alphabetically
+    // first word.
+    public static BinarySearchTree fromSorted(Iterable<? extends Map.Entry<String, Integer>> counts,
+            boolean balanced) {
+        // (1) Check the order and the counts while creating the nodes
+        // (2) Link the nodes into a minimum-height tree
+
+        TreeNode[] nodes = new TreeNode[16];
+        int size = 0;
+        String mostFrequent = null;
+        int maxFrequency = 0;
+        for (Map.Entry<String, Integer> entry : counts) {
+            String word = entry.getKey();
+            int count = entry.getValue();
+            if (count < 1) {
+                throw new IllegalArgumentException("count must be positive: " + word + " " + count);
+            }
+
+            TreeNode previous = size == 0 ? null : nodes[size - 1];
+            int comparison = previous == null ? 1 : word.compareTo(previous.word);
+            if (comparison < 0) {
+                throw new IllegalArgumentException("Words are not sorted: '" + word + "' after '" + previous.word + "'");
+            }
+            if (comparison == 0) {
+                previous.frequency = Math.addExact(previous.frequency, count);
+            } else {
+                if (size == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, size * 2);
+                }
+                previous = new TreeNode(word);
+                previous.frequency = count;
+                nodes[size++] = previous;
+            }
+            if (previous.frequency > maxFrequency) {
+                maxFrequency = previous.frequency;
+                mostFrequent = previous.word;
+            }
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(linkBalanced(nodes, 0, size), balanced);
+        if (mostFrequent != null) {
+            tree.preferMostFrequent(mostFrequent);
+        }
+        return tree;
+    }
+
+    // Links the sorted nodes[from .. to) into a minimum-height subtree (the
+    // middle node becomes the root) and returns its root
+    static TreeNode linkBalanced(TreeNode[] nodes, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        TreeNode node = nodes[middle];
+        node.left = linkBalanced(nodes, from, middle);
+        node.right = linkBalanced(nodes, middle + 1, to);
+        return node;
+    }
+
+    // Root node, for the snapshot writer
+    TreeNode getRoot() {
+        return root;
+    }
+
+    // Most frequent word without its count (null when empty)
+    String getMostFrequentKey() {
+        return mostFrequentNode == null ? null : mostFrequentNode.word;
+    }
+
+    // Whether this tree rebalances itself
+    boolean isBalanced() {
+        return balanced;
+    }
+
+    // Iterator over the nodes themselves in the given traversal order
+    Iterator<TreeNode> nodeIterator(int type) {
+        checkTraversalType(type);
+        return new TraversalIterator(type);
+    }
+
+    // Inserts a word into the Binary Search Tree (BST)
+    public void insert(String word) {
+        // (1) Calls the iterative function to insert the word, starting from the root
+        // node
+
+        insertIterative(word, 1);
+
+    }
+
+    // Inserts a word that occurred 'count' times at once (used when merging
+    // counts that were collected elsewhere, e.g. by parallel ingest shards)
+    public void insert(String word, int count) {
+        // (1) Reject non-positive counts, which would create empty nodes
+
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        insertIterative(word, count);
+    }
+
+    // TODO #3
+    // Helper function to iteratively insert a word into the BST. An explicit
+    // path stack replaces the call stack, so degenerate (sorted) input can no
+    // longer overflow the thread stack.
+    private void insertIterative(String word, int count) {
+        // **BST Property**: Smaller words go to the left subtree, larger words go to
+        // the right.
+
+        // (1) A cached word is counted directly in its node
+        // (2) If the tree is empty, the new word becomes the root
+
+        if (cache != null) {
+            TreeNode cached = cache.get(word);
+            if (metrics != null) {
+                metrics.cacheLookup(cached != null);
+            }
+            if (cached != null) {
+                increaseFrequency(cached, count);
+                if (metrics != null) {
+                    metrics.insert(0);
+                }
+                return;
+            }
+        }
+
+        if (root == null) {
+            root = createNode(word, count);
+            treeHeight = 0;
+            treeHeightStale = false;
+            if (metrics != null) {
+                metrics.insert(0);
+            }
+            return;
+        }
+
+        // (3) Walk down from the root, remembering the path for rebalancing
+        // (4) If word is smaller, continue into the left subtree
+        // (5) Else if word is larger, continue into the right subtree
+        // (6) Else the word already exists, so increase its frequency, cache its node
+        // and stop
+
+        int depth = 0;
+        TreeNode node = root;
+        while (true) {
+            int comparison = word.compareTo(node.word);
+
+            if (comparison == 0) {
+                increaseFrequency(node, count);
+                if (cache != null) {
+                    cache.put(node);
+                }
+                if (metrics != null) {
+                    metrics.insert(depth + 1);
+                }
+                return;
+            }
+
+            pushPath(depth++, node);
+
+            TreeNode child = comparison < 0 ? node.left : node.right;
+            if (child == null) {
+                // (7) Attach a new node where the search fell off the tree
+                if (comparison < 0) {
+                    node.left = createNode(word, count);
+                } else {
+                    node.right = createNode(word, count);
+                }
+                break;
+            }
+            node = child;
+        }
+
+        // (8) Every ancestor's subtree gained one node
+        // (9) In balanced mode, restore the AVL property bottom-up along the path
+        // (10) Update the tree height: the root's stored height when balanced,
+        // otherwise the depth of the new node if it is the deepest so far (a stale
+        // height is an upper bound, so a node below it makes the height exact again)
+
+        for (int i = 0; i < depth; i++) {
+            path[i].size++;
+        }
+        if (metrics != null) {
+            metrics.insert(depth);
+        }
+
+        if (balanced) {
+            rebalancePath(depth);
+            treeHeight = root.height;
+        } else if (depth > treeHeight) {
+            treeHeight = depth;
+            treeHeightStale = false;
+        }
+    }
+
+    // Removes 'count' occurrences of a word and returns how many remain. A word
+    // that drops to zero is deleted from the tree, so memory only holds the
+    // words that are still counted (used by WindowedWordCounter to expire old
+    // input).
+    public int remove(String word, int count) {
+        // (1) Reject non-positive counts
+        // (2) Find the word, remembering the path for rebalancing; a missing word
+        // has nothing to remove
+        // (3) Removing more occurrences than stored is an error
+        // (4) If occurrences remain, only the frequency is lowered
+        // (5) Otherwise the node is deleted and the statistics updated
+
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+
+        int depth = 0;
+        TreeNode node = root;
+        while (node != null) {
+            int comparison = word.compareTo(node.word);
+            if (comparison == 0) {
+                break;
+            }
+            pushPath(depth++, node);
+            node = comparison < 0 ? node.left : node.right;
+        }
+        if (node == null || count > node.frequency) {
+            Arrays.fill(path, 0, depth, null);
+            if (node == null) {
+                return 0;
+            }
+            throw new IllegalArgumentException("Cannot remove " + count + " occurrences of '" + word + "', only "
+                    + node.frequency + " are stored");
+        }
+
+        totalWords -= count;
+        if (count < node.frequency) {
+            Arrays.fill(path, 0, depth, null);
+            node.frequency -= count;
+            frequencyIndex.decrease(node);
+            if (node == mostFrequentNode) {
+                mostFrequentNode = frequencyIndex.mostFrequent();
+            }
+            return node.frequency;
+        }
+
+        uniqueWords--;
+        modCount++;
+        frequencyIndex.remove(node);
+        if (cache != null) {
+            cache.remove(node);
+        }
+        if (node == mostFrequentNode) {
+            mostFrequentNode = frequencyIndex.mostFrequent();
+        }
+        deleteNode(node, depth);
+        return 0;
+    }
+
+    // Unlinks a node whose ancestors are path[0 .. depth), then repairs sizes
+    // (and, when balanced, heights and balance) from the bottom up
+    private void deleteNode(TreeNode node, int depth) {
+        // (1) A node with at most one child is replaced by that child
+        // (2) A node with two children is replaced by its successor (the leftmost
+        // node of its right subtree), which is moved rather than copied: the
+        // frequency index and the cache keep referring to the same node objects
+        // (3) Every node on the path lost one descendant; recompute sizes deepest
+        // first and, in balanced mode, rebalance each (a delete can need a
+        // rotation at every level, so there is no early stop)
+        // (4) Update the tree height
+
+        int top = depth;
+        TreeNode replacement;
+        if (node.left == null || node.right == null) {
+            replacement = node.left != null ? node.left : node.right;
+        } else {
+            pushPath(top++, node);
+            TreeNode parent = node;
+            TreeNode successor = node.right;
+            while (successor.left != null) {
+                pushPath(top++, successor);
+                parent = successor;
+                successor = successor.left;
+            }
+            if (parent == node) {
+                node.right = successor.right;
+            } else {
+                parent.left = successor.right;
+            }
+            successor.left = node.left;
+            successor.right = node.right;
+            path[depth] = successor;
+            replacement = successor;
+        }
+
+        if (depth == 0) {
+            root = replacement;
+        } else if (path[depth - 1].left == node) {
+            path[depth - 1].left = replacement;
+        } else {
+            path[depth - 1].right = replacement;
+        }
+        node.left = null;
+        node.right = null;
+
+        for (int i = top - 1; i >= 0; i--) {
+            TreeNode ancestor = path[i];
+            path[i] = null;
+            if (!balanced) {
+                ancestor.size = size(ancestor.left) + size(ancestor.right) + 1;
+                continue;
+            }
+
+            TreeNode subtree = rebalance(ancestor);
+            if (i == 0) {
+                root = subtree;
+            } else if (path[i - 1].left == ancestor) {
+                path[i - 1].left = subtree;
+            } else {
+                path[i - 1].right = subtree;
+            }
+        }
+
+        if (root == null) {
+            treeHeight = -1;
+            treeHeightStale = false;
+        } else if (balanced) {
+            treeHeight = root.height;
+        } else {
+            treeHeightStale = true;
+        }
+    }
+
+    // Adds 'count' occurrences to an existing word's node and updates the counts
+    private void increaseFrequency(TreeNode node, int count) {
+        node.frequency += count;
+        totalWords += count;
+        frequencyIndex.increase(node);
+
+        if (node.frequency > mostFrequentNode.frequency) {
+            mostFrequentNode = node;
+        }
+    }
+
+    // Creates a node for a word seen for the first time and updates the counts
+    private TreeNode createNode(String word, int count) {
+        uniqueWords++;
+        modCount++;
+        totalWords += count;
+        TreeNode newNode = new TreeNode(word);
+        newNode.frequency = count;
+        frequencyIndex.add(newNode);
+
+        if (mostFrequentNode == null || newNode.frequency > mostFrequentNode.frequency) {
+            mostFrequentNode = newNode;
+        }
+        if (cache != null) {
+            cache.put(newNode);
+        }
+
+        return newNode;
+    }
+
+    // Records a node on the insertion path, growing the reusable path array if
+    // needed
+    private void pushPath(int depth, TreeNode node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, path.length * 2);
+        }
+        path[depth] = node;
+    }
+
+    // Rebalances the ancestors of a freshly inserted node, deepest first
+    private void rebalancePath(int depth) {
+        // (1) Rebalance each ancestor and re-link the returned subtree root
+        // (2) Stop as soon as a subtree's height is unchanged (after an insert a
+        // rotation always restores the previous height)
+
+        for (int i = depth - 1; i >= 0; i--) {
+            TreeNode node = path[i];
+            int before = node.height;
+            TreeNode subtree = rebalance(node);
+
+            if (i == 0) {
+                root = subtree;
+            } else if (path[i - 1].left == node) {
+                path[i - 1].left = subtree;
+            } else {
+                path[i - 1].right = subtree;
+            }
+
+            path[i] = null;
+            if (subtree.height == before) {
+                Arrays.fill(path, 0, i, null);
+                return;
+            }
+        }
+    }
+
+    // Returns the stored height of a node (-1 for an empty subtree)
+    private static int height(TreeNode node) {
+        return node == null ? -1 : node.height;
+    }
+
+    // Returns the number of nodes in a subtree (0 for an empty subtree)
+    private static int size(TreeNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recomputes a node's height and subtree size from its children
+    private static void updateHeight(TreeNode node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    // Restores the AVL property at this node after an insert into (or a delete
+    // from) one of its subtrees
+    private static TreeNode rebalance(TreeNode node) {
+        // (1) Update the node's height and compute its balance factor
+        // (2) Left-heavy: single right rotation, or left-right double rotation
+        // (3) Right-heavy: single left rotation, or right-left double rotation
+
+        updateHeight(node);
+        int balance = height(node.left) - height(node.right);
+
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    // Rotates the subtree right and returns its new root
+    private static TreeNode rotateRight(TreeNode node) {
+        TreeNode pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    // Rotates the subtree left and returns its new root
+    private static TreeNode rotateLeft(TreeNode node) {
+        TreeNode pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    // Traversal types accepted by getTraversalOutput, iterator and writeTraversal
+    public static final int IN_ORDER = 1;
+    public static final int PRE_ORDER = 2;
+    public static final int POST_ORDER = 3;
+
+    // Size of the chunks writeTraversal hands to its Writer
+    private static final int WRITE_CHUNK_CHARS = 8192;
+
+    // TODO #4
+    // Returns the traversal output as a string based on the selected traversal type
+    public String getTraversalOutput(int type) {
+        // (1) Creates a StringBuilder to store the traversal result
+        // (2) Checks the value of 'type' to determine which traversal to perform
+        // (3) Appends each node in the order produced by the traversal iterator
+        // (4) If input is invalid, return an error message
+        // For large trees prefer writeTraversal(), which does not hold the whole
+        // output in memory.
+
+        if (!isTraversalType(type)) {
+            return "Error, Invalid Traversal type.";
+        }
+
+        StringBuilder result = new StringBuilder();
+        TraversalIterator nodes = new TraversalIterator(type);
+        while (nodes.hasNext()) {
+            appendNode(nodes.next(), result);
+        }
+        return result.toString();
+    }
+
+    // Writes the traversal output to 'out' in chunks of bounded size, producing
+    // the same text as getTraversalOutput(type)
+    public void writeTraversal(int type, Writer out) throws IOException {
+        // (1) Reject invalid traversal types
+        // (2) Collect lines in a small buffer and write it out whenever it is full
+        // (3) Write the remainder and flush the writer
+
+        checkTraversalType(type);
+
+        StringBuilder chunk = new StringBuilder(WRITE_CHUNK_CHARS + 64);
+        TraversalIterator nodes = new TraversalIterator(type);
+        while (nodes.hasNext()) {
+            appendNode(nodes.next(), chunk);
+            if (chunk.length() >= WRITE_CHUNK_CHARS) {
+                out.append(chunk);
+                chunk.setLength(0);
+            }
+        }
+        out.append(chunk);
+        out.flush();
+    }
+
+    // Returns a lazy iterator over (word, frequency) pairs in the given traversal
+    // order. Only one root-to-leaf path is held at a time. Inserting a new word
+    // while iterating makes the iterator fail with ConcurrentModificationException.
+    public Iterator<Map.Entry<String, Integer>> iterator(int type) {
+        checkTraversalType(type);
+
+        TraversalIterator nodes = new TraversalIterator(type);
+        return new Iterator<Map.Entry<String, Integer>>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, Integer> next() {
+                TreeNode node = nodes.next();
+                return Map.entry(node.word, node.frequency);
+            }
+        };
+    }
+
+    // Returns a spliterator over (word, frequency) pairs in the given traversal
+    // order; it splits into batches, so parallel streams work too
+    public Spliterator<Map.Entry<String, Integer>> spliterator(int type) {
+        return Spliterators.spliterator(iterator(type), uniqueWords,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    // Returns a lazy stream of (word, frequency) pairs in the given traversal order
+    public Stream<Map.Entry<String, Integer>> stream(int type) {
+        return StreamSupport.stream(spliterator(type), false);
+    }
+
+    // Returns whether 'type' is one of IN_ORDER, PRE_ORDER or POST_ORDER
+    private static boolean isTraversalType(int type) {
+        return type == IN_ORDER || type == PRE_ORDER || type == POST_ORDER;
+    }
+
+    // Throws IllegalArgumentException if 'type' is not a traversal type
+    private static void checkTraversalType(int type) {
+        if (!isTraversalType(type)) {
+            throw new IllegalArgumentException("Error, Invalid Traversal type.");
+        }
+    }
+
+    // Walks the tree one node per call to next(), using an explicit stack
+    private class TraversalIterator implements Iterator<TreeNode> {
+        private final int type;
+        private final int expectedModCount = modCount;
+        private final ArrayDeque<TreeNode> stack = new ArrayDeque<>();
+        private TreeNode cursor;
+        private TreeNode lastVisited;
+
+        TraversalIterator(int type) {
+            this.type = type;
+            if (type == PRE_ORDER) {
+                if (root != null) {
+                    stack.push(root);
+                }
+            } else {
+                cursor = root;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor != null || !stack.isEmpty();
+        }
+
+        @Override
+        public TreeNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            switch (type) {
+                case IN_ORDER:
+                    return nextInOrder();
+                case PRE_ORDER:
+                    return nextPreOrder();
+                default:
+                    return nextPostOrder();
+            }
+        }
+
+        // TODO #5
+        // Next node of an in-order traversal (Left, Root, Right)
+        private TreeNode nextInOrder() {
+            // (1) Push the cursor and keep moving into the left subtree (Left)
+            // (2) Pop a node; it is the next one to output (Root)
+            // (3) Continue with the popped node's right subtree (Right)
+
+            while (cursor != null) {
+                stack.push(cursor);
+                cursor = cursor.left;
+            }
+            TreeNode node = stack.pop();
+            cursor = node.right;
+            return node;
+        }
+
+        // TODO #6
+        // Next node of a pre-order traversal (Root, Left, Right)
+        private TreeNode nextPreOrder() {
+            // (1) Pop a node; it is the next one to output (Root)
+            // (2) Push the right child first so the left subtree is processed first
+            // (Left, then Right)
+
+            TreeNode node = stack.pop();
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+            return node;
+        }
+
+        // TODO #7
+        // Next node of a post-order traversal (Left, Right, Root)
+        private TreeNode nextPostOrder() {
+            // (1) Descend into the left subtree, stacking the nodes passed (Left)
+            // (2) If the top node has an unvisited right subtree, visit it next (Right)
+            // (3) Otherwise pop the node; it is the next one to output (Root)
+
+            while (true) {
+                while (cursor != null) {
+                    stack.push(cursor);
+                    cursor = cursor.left;
+                }
+                TreeNode top = stack.peek();
+                if (top.right != null && top.right != lastVisited) {
+                    cursor = top.right;
+                } else {
+                    stack.pop();
+                    lastVisited = top;
+                    return top;
+                }
+            }
+        }
+    }
+
+    // Appends one "word (frequency)" line to the traversal output
+    private static void appendNode(TreeNode node, StringBuilder result) {
+        result.append(node.word).append(" (").append(node.frequency).append(")\n"); // I used the AI tool Chat GPT
+                                                                                    // to clarify the syntax for
+                                                                                    // apppending formatted strings
+                                                                                    // in Java
+    }
+
+    // TODO #8
+    // Returns the total number of words in the BST, including duplicates
+    public long getTotalWords() {
+        // (1) Return the total maintained by insert and remove
+
+        return totalWords;
+    }
+
+    // TODO #9
+    // Debug check: recomputes every statistic with a full walk of the BST and
+    // throws IllegalStateException if a maintained value disagrees. O(n), so it
+    // is left to the tests; the getters never run it.
+    boolean verifyStatistics() {
+        // (1) Walk all nodes with an explicit stack
+        // (2) Sum the frequencies, count the nodes and find the highest frequency
+        // (3) Recompute the height level by level
+        // (4) Compare each result with the maintained value
+
+        long walkedTotal = 0;
+        int walkedUnique = 0;
+        int maxFrequency = 0;
+
+        ArrayDeque<TreeNode> stack = new ArrayDeque<>();
+        if (root != null) {
+            stack.push(root);
+        }
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            walkedTotal += node.frequency;
+            walkedUnique++;
+            maxFrequency = Math.max(maxFrequency, node.frequency);
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+        }
+
+        int walkedHeight = treeHeightStale ? treeHeight : getHeight(root);
+        int trackedMax = mostFrequentNode == null ? 0 : mostFrequentNode.frequency;
+
+        if (walkedTotal != totalWords || walkedUnique != uniqueWords || walkedUnique != size(root)
+                || walkedHeight != treeHeight
+                || maxFrequency != trackedMax || maxFrequency != frequencyIndex.highestFrequency()) {
+            throw new IllegalStateException("Statistics out of sync: total " + totalWords + " vs " + walkedTotal
+                    + ", unique " + uniqueWords + " vs " + walkedUnique + ", height " + treeHeight + " vs "
+                    + walkedHeight + ", max frequency " + trackedMax + " vs " + maxFrequency);
+        }
+        return true;
+    }
+
+    // TODO #10
+    // Returns the count of unique words stored in the BST
+    public int getUniqueWords() {
+        // (1) Return the total number of unique words
+
+        return uniqueWords;
+    }
+
+    // TODO #11
+    // Returns the most frequent word along with its occurrence count
+    public String getMostFrequentWord() {
+        // (1) Retrieve the word stored in mostFrequentNode
+        // (2) Append the frequency count in the format "word (X times)"
+
+        if (mostFrequentNode != null) {
+            return mostFrequentNode.word + " (" + mostFrequentNode.frequency + " times)";
+        } else {
+            return "No words in the tree."; // If no most frequent word is found (i.e., tree is empty), return a default
+                                            // message
+
+        }
+    }
+
+    // Returns up to k of the most frequent words with their frequencies, most
+    // frequent first; equal frequencies are ordered by who reached them first.
+    // Answered from the frequency index in O(k), without a traversal.
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        // (1) Reject negative sizes
+        // (2) Read the nodes from the highest frequency buckets downwards
+
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>();
+        for (TreeNode node : frequencyIndex.top(k)) {
+            result.add(Map.entry(node.word, node.frequency));
+        }
+        return result;
+    }
+
+    // Returns the words from 'from' to 'to' (both inclusive) in alphabetical
+    // order with their frequencies. Visits O(h + k) nodes for k results.
+    public List<Map.Entry<String, Integer>> rangeQuery(String from, String to) {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>();
+        visitFrom(from, word -> word.compareTo(to) <= 0, node -> result.add(Map.entry(node.word, node.frequency)));
+        return result;
+    }
+
+    // Returns the summed frequency of the words from 'from' to 'to' (both
+    // inclusive)
+    public long rangeCount(String from, String to) {
+        long[] sum = new long[1];
+        visitFrom(from, word -> word.compareTo(to) <= 0, node -> sum[0] += node.frequency);
+        return sum[0];
+    }
+
+    // Returns the words starting with 'prefix' in alphabetical order with their
+    // frequencies. They form one contiguous run starting at the prefix itself.
+    public List<Map.Entry<String, Integer>> prefixQuery(String prefix) {
+        List<Map.Entry<String, Integer>> result = new ArrayList<>();
+        visitFrom(prefix, word -> word.startsWith(prefix), node -> result.add(Map.entry(node.word, node.frequency)));
+        return result;
+    }
+
+    // Returns the summed frequency of the words starting with 'prefix'
+    public long prefixCount(String prefix) {
+        long[] sum = new long[1];
+        visitFrom(prefix, word -> word.startsWith(prefix), node -> sum[0] += node.frequency);
+        return sum[0];
+    }
+
+    // Visits, in order, the nodes whose word is >= 'from', stopping at the first
+    // word that fails 'inRange'
+    private void visitFrom(String from, Predicate<String> inRange, Consumer<TreeNode> visitor) {
+        // (1) Descend to the first word >= from, stacking the nodes still to visit
+        // (ones that are >= from) and skipping the left parts that are smaller
+        // (2) Continue as a normal in-order traversal until a word is out of range
+
+        ArrayDeque<TreeNode> stack = new ArrayDeque<>();
+        TreeNode node = root;
+        while (node != null) {
+            if (node.word.compareTo(from) >= 0) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        while (!stack.isEmpty()) {
+            node = stack.pop();
+            if (!inRange.test(node.word)) {
+                return;
+            }
+            visitor.accept(node);
+            for (TreeNode next = node.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+        }
+    }
+
+    // Returns the number of unique words that sort before 'word' (whether or not
+    // 'word' itself is stored). O(h) thanks to the subtree sizes.
+    public int rank(String word) {
+        // (1) Going right past a node skips its left subtree and the node itself
+        // (2) On a match, only the left subtree is smaller
+
+        int rank = 0;
+        TreeNode node = root;
+        while (node != null) {
+            int comparison = word.compareTo(node.word);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return rank;
+    }
+
+    // Returns the word at position 'index' (0-based) in alphabetical order, so
+    // select(999) is the 1000th word. O(h) thanks to the subtree sizes.
+    public String select(int index) {
+        // (1) Reject positions outside the tree
+        // (2) Compare the position with the size of the left subtree to decide
+        // whether the word is on the left, here, or on the right
+
+        if (index < 0 || index >= uniqueWords) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range for " + uniqueWords + " words");
+        }
+
+        TreeNode node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.word;
+            }
+        }
+    }
+
+    // TODO #12
+    // Returns the height of the BST
+    public int getTreeHeight() {
+        // (1) Return the height maintained by insert (getHeight() recomputes it
+        // for the debug check)
+        // (2) After a delete from a plain tree, recompute it once with a full walk
+
+        if (treeHeightStale) {
+            treeHeight = getHeight(root);
+            treeHeightStale = false;
+        }
+        return treeHeight;
+    }
+
+    // TODO #13
+    // Helper function to calculate the height of the BST iteratively
+    private int getHeight(TreeNode node) {
+        // **Clarification**: Height is measured in edges, not nodes.
+        // ** As per lecture slides: 'Trees - (3) Binary (Part 1) - Levels & Heights'
+        // This means:
+        // - An empty tree has height -1 (since there are no edges).
+        // - A tree with a single node has height 0.
+
+        // (1) Start at height -1 with the root as the only node of the first level
+        // (2) Walk the tree level by level (breadth-first)
+        // (3) Every completed level adds one to the height
+
+        int height = -1;
+        if (node == null) {
+            return height;
+        }
+
+        ArrayDeque<TreeNode> level = new ArrayDeque<>();
+        level.add(node);
+        while (!level.isEmpty()) {
+            for (int i = level.size(); i > 0; i--) {
+                node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+            height++;
+        }
+        return height;
+    }
+
+    // TODO #14
+    // Searches for a word in the BST and returns its frequency
+    public int searchWord(String word) {
+        // (1) Try the hot word cache first, if there is one
+        // (2) Otherwise call the iterative helper function, starting from the root
+        // (3) A missing word has frequency 0
+        // (4) With metrics on, take the counting path instead
+
+        TreeNode node = cache == null ? null : cache.get(word);
+        if (metrics != null) {
+            return searchWordMeasured(word, node);
+        }
+        if (node == null) {
+            node = searchWordIterative(root, word);
+        }
+        return node == null ? 0 : node.frequency;
+    }
+
+    // searchWord() with metrics on: records the cache lookup and the number of
+    // nodes the word is compared with ('cached' is the cache's answer, or null)
+    private int searchWordMeasured(String word, TreeNode cached) {
+        if (cache != null) {
+            metrics.cacheLookup(cached != null);
+        }
+        if (cached != null) {
+            metrics.search(0);
+            return cached.frequency;
+        }
+
+        int comparisons = 0;
+        TreeNode node = root;
+        while (node != null) {
+            comparisons++;
+            int comparison = word.compareTo(node.word);
+            if (comparison == 0) {
+                break;
+            }
+            node = comparison < 0 ? node.left : node.right;
+        }
+        metrics.search(comparisons);
+        return node == null ? 0 : node.frequency;
+    }
+
+    // Turns metrics on (or off with null); one TreeMetrics may be shared by
+    // several trees
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Returns the tree's metrics, or null when they are off
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Returns the node holding a word, or null if it is not in the tree (used by
+    // trees built from TreeNode subclasses, e.g. WordIndex)
+    TreeNode findNode(String word) {
+        return searchWordIterative(root, word);
+    }
+
+    // TODO #15
+    // Helper function to iteratively search for a word's node in the BST
+    private TreeNode searchWordIterative(TreeNode node, String word) {
+        // (1) If node is null, the word is not in the BST
+        // (2) If word matches current node, return it
+        // (3) If word is smaller, continue in the left subtree
+        // (4) If word is larger, continue in the right subtree
+
+        while (node != null) {
+            int comparison = word.compareTo(node.word);
+
+            if (comparison == 0) {
+                return node;
+            }
+
+            node = comparison < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    // Looks up many words at once and returns their frequencies in the order of
+    // 'words'. The probes are sorted and the tree is walked once for all of them:
+    // every node on the union of the search paths is visited a single time, so
+    // the paths' shared prefixes are not re-walked per word.
+    public int[] searchWords(Collection<String> words) {
+        // (1) Sort and deduplicate the probes
+        // (2) Walk the tree with an explicit stack of (node, probe range) entries;
+        // each node splits its probe range into the probes that go left, the probe
+        // that matches it, and the probes that go right
+        // (3) Map every original probe to the frequency found for it
+
+        String[] probes = words.toArray(new String[0]);
+        String[] sorted = probes.clone();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (unique == 0 || !sorted[i].equals(sorted[unique - 1])) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        int[] found = new int[unique];
+
+        TreeNode[] nodes = new TreeNode[64];
+        int[] ranges = new int[128];
+        int top = 0;
+        if (root != null && unique > 0) {
+            nodes[0] = root;
+            ranges[1] = unique;
+            top = 1;
+        }
+        while (top > 0) {
+            top--;
+            TreeNode node = nodes[top];
+            int from = ranges[top * 2];
+            int to = ranges[top * 2 + 1];
+
+            int split = lowerBound(sorted, from, to, node.word);
+            int rightFrom = split;
+            if (split < to && sorted[split].equals(node.word)) {
+                found[split] = node.frequency;
+                rightFrom++;
+            }
+
+            if (top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            if (node.right != null && rightFrom < to) {
+                nodes[top] = node.right;
+                ranges[top * 2] = rightFrom;
+                ranges[top * 2 + 1] = to;
+                top++;
+            }
+            if (node.left != null && from < split) {
+                nodes[top] = node.left;
+                ranges[top * 2] = from;
+                ranges[top * 2 + 1] = split;
+                top++;
+            }
+        }
+
+        int[] result = new int[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            result[i] = found[Arrays.binarySearch(sorted, 0, unique, probes[i])];
+        }
+        return result;
+    }
+
+    // Returns the first index in sorted[from .. to) whose word is >= 'word'
+    private static int lowerBound(String[] sorted, int from, int to, String word) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (sorted[middle].compareTo(word) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    // Reports the given word as the most frequent one if it ties with the current
+    // most frequent word. Counts merged in bulk lose the order in which words
+    // reached their final frequency, so the caller resolves ties itself. The
+    // word then counts as having reached that frequency first, for topK() too.
+    public void preferMostFrequent(String word) {
+        TreeNode node = searchWordIterative(root, word);
+        if (node != null && node.frequency == mostFrequentNode.frequency) {
+            frequencyIndex.moveToFront(node);
+            mostFrequentNode = node;
+        }
+    }
+}
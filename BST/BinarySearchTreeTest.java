@@ -0,0 +1,746 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for BinarySearchTree. Results are checked
+    against a TreeMap holding the same counts, and the tree's
+    structure (order, subtree sizes, heights and AVL balance) is
+    verified after the operations under test.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.io.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinarySearchTreeTest {
+
+    /**
+     * Checks the structure below a node: alphabetical order, subtree sizes and
+     * heights, and (for a balanced tree) the AVL balance
+     *
+     * @param node The root of the subtree to check
+     * @param balanced Whether every node must be AVL-balanced
+     * @return The height of the subtree in edges (-1 for an empty one)
+     */
+    private int checkSubtree(TreeNode node, boolean balanced) {
+        if (node == null) {
+            return -1;
+        }
+        if (node.left != null) {
+            assertTrue(node.left.word.compareTo(node.word) < 0, "left child out of order at " + node.word);
+        }
+        if (node.right != null) {
+            assertTrue(node.right.word.compareTo(node.word) > 0, "right child out of order at " + node.word);
+        }
+        int leftHeight = checkSubtree(node.left, balanced);
+        int rightHeight = checkSubtree(node.right, balanced);
+        int leftSize = node.left == null ? 0 : node.left.size;
+        int rightSize = node.right == null ? 0 : node.right.size;
+        assertEquals(leftSize + rightSize + 1, node.size, "size of " + node.word);
+        if (balanced) {
+            assertTrue(Math.abs(leftHeight - rightHeight) <= 1, "unbalanced at " + node.word);
+            assertEquals(Math.max(leftHeight, rightHeight) + 1, node.height, "height of " + node.word);
+        }
+        return Math.max(leftHeight, rightHeight) + 1;
+    }
+
+    /**
+     * Checks that the tree holds exactly the expected counts and that all of its
+     * maintained statistics agree with them
+     */
+    private void assertMatches(TreeMap<String, Integer> expected, BinarySearchTree tree) {
+        int height = checkSubtree(tree.getRoot(), tree.isBalanced());
+        assertEquals(height, tree.getTreeHeight());
+        assertTrue(tree.verifyStatistics());
+
+        assertEquals(expected.size(), tree.getUniqueWords());
+        long total = 0;
+        int best = 0;
+        for (int count : expected.values()) {
+            total += count;
+            best = Math.max(best, count);
+        }
+        assertEquals(total, tree.getTotalWords());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), tree.searchWord(entry.getKey()), entry.getKey());
+        }
+        if (!expected.isEmpty()) {
+            assertEquals(best, tree.searchWord(tree.getMostFrequentKey()));
+        }
+    }
+
+    /**
+     * Fills a tree and a TreeMap with the same random words
+     */
+    private BinarySearchTree randomTree(TreeMap<String, Integer> expected, Random random, boolean balanced) {
+        BinarySearchTree tree = new BinarySearchTree(balanced);
+        for (int i = 0; i < 2000; i++) {
+            String word = "w" + random.nextInt(300);
+            tree.insert(word);
+            expected.merge(word, 1, Integer::sum);
+        }
+        return tree;
+    }
+
+    //remove()
+    @Test
+    public void testRemoveLowersFrequency() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("apple", 5);
+        assertEquals(3, tree.remove("apple", 2));
+        assertEquals(3, tree.searchWord("apple"));
+        assertEquals(3, tree.getTotalWords());
+        assertEquals(1, tree.getUniqueWords());
+    }
+
+    @Test
+    public void testRemoveLastOccurrenceDeletesWord() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("apple", 2);
+        tree.insert("banana");
+        assertEquals(0, tree.remove("apple", 2));
+        assertEquals(0, tree.searchWord("apple"));
+        assertEquals(1, tree.getUniqueWords());
+        assertEquals("banana (1 times)", tree.getMostFrequentWord());
+    }
+
+    @Test
+    public void testRemoveMissingWord() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("apple");
+        assertEquals(0, tree.remove("pear", 1));
+        assertEquals(1, tree.getTotalWords());
+    }
+
+    @Test
+    public void testRemoveMoreThanStored() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("apple", 2);
+        assertThrows(IllegalArgumentException.class, () -> tree.remove("apple", 3));
+        assertEquals(2, tree.searchWord("apple"));
+    }
+
+    @Test
+    public void testRemoveNonPositiveCount() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("apple");
+        assertThrows(IllegalArgumentException.class, () -> tree.remove("apple", 0));
+    }
+
+    @Test
+    public void testRemoveEveryWord() {
+        BinarySearchTree tree = new BinarySearchTree(true);
+        for (String word : "the quick brown fox jumps over the lazy dog".split(" ")) {
+            tree.insert(word);
+        }
+        for (String word : "the quick brown fox jumps over the lazy dog".split(" ")) {
+            tree.remove(word, 1);
+        }
+        assertNull(tree.getRoot());
+        assertEquals(0, tree.getTotalWords());
+        assertEquals(0, tree.getUniqueWords());
+        assertEquals(-1, tree.getTreeHeight());
+    }
+
+    @Test
+    public void testRemoveNodeWithTwoChildren() {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : new String[] { "m", "f", "t", "c", "h", "p", "w", "n" }) {
+            tree.insert(word);
+        }
+        tree.remove("m", 1);
+        assertEquals("[c, f, h, n, p, t, w]", inOrder(tree).toString());
+        assertEquals("n", tree.getRoot().word);
+        checkSubtree(tree.getRoot(), false);
+    }
+
+    @Test
+    public void testRemoveKeepsAvlBalance() {
+        Random random = new Random(16);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        BinarySearchTree tree = randomTree(expected, random, true);
+        while (!expected.isEmpty()) {
+            String word = "w" + random.nextInt(300);
+            Integer stored = expected.get(word);
+            if (stored == null) {
+                assertEquals(0, tree.remove(word, 1));
+                continue;
+            }
+            int count = 1 + random.nextInt(stored);
+            assertEquals(stored - count, tree.remove(word, count));
+            if (count == stored) {
+                expected.remove(word);
+            } else {
+                expected.put(word, stored - count);
+            }
+            assertMatches(expected, tree);
+        }
+    }
+
+    @Test
+    public void testRemoveFromPlainTree() {
+        Random random = new Random(17);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        BinarySearchTree tree = randomTree(expected, random, false);
+        for (String word : new ArrayList<>(expected.keySet())) {
+            if (random.nextBoolean()) {
+                tree.remove(word, expected.remove(word));
+            }
+        }
+        assertMatches(expected, tree);
+    }
+
+    /**
+     * Words of a tree in alphabetical order
+     */
+    private List<String> inOrder(BinarySearchTree tree) {
+        List<String> words = new ArrayList<>();
+        for (Iterator<TreeNode> nodes = tree.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            words.add(nodes.next().word);
+        }
+        return words;
+    }
+
+    //rank() and select()
+    @Test
+    public void testRankAndSelect() {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : new String[] { "dog", "cat", "emu", "ant", "fox" }) {
+            tree.insert(word);
+        }
+        assertEquals(0, tree.rank("ant"));
+        assertEquals(2, tree.rank("dog"));
+        assertEquals(4, tree.rank("fox"));
+        assertEquals(2, tree.rank("cow"));
+        assertEquals(5, tree.rank("zebra"));
+        assertEquals("ant", tree.select(0));
+        assertEquals("dog", tree.select(2));
+        assertEquals("fox", tree.select(4));
+    }
+
+    @Test
+    public void testSelectOutOfRange() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("ant");
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.select(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> new BinarySearchTree().select(0));
+    }
+
+    @Test
+    public void testRankAndSelectAfterRemovals() {
+        Random random = new Random(10);
+        for (boolean balanced : new boolean[] { false, true }) {
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            BinarySearchTree tree = randomTree(expected, random, balanced);
+            for (int i = 0; i < 100; i++) {
+                String word = "w" + random.nextInt(300);
+                Integer stored = expected.remove(word);
+                if (stored != null) {
+                    tree.remove(word, stored);
+                }
+            }
+
+            List<String> words = new ArrayList<>(expected.keySet());
+            for (int i = 0; i < words.size(); i++) {
+                assertEquals(words.get(i), tree.select(i));
+                assertEquals(i, tree.rank(words.get(i)));
+            }
+            for (int i = 0; i < 300; i++) {
+                String word = "w" + i + "x";
+                assertEquals(expected.headMap(word).size(), tree.rank(word), word);
+            }
+        }
+    }
+
+    //rangeQuery() and prefixQuery()
+    @Test
+    public void testPrefixQuery() {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : "car care cart cat careful dog ca".split(" ")) {
+            tree.insert(word);
+        }
+        tree.insert("care", 2);
+        assertEquals(List.of(Map.entry("car", 1), Map.entry("care", 3), Map.entry("careful", 1), Map.entry("cart", 1)),
+                tree.prefixQuery("car"));
+        assertEquals(6, tree.prefixCount("car"));
+        assertEquals(8, tree.prefixCount("ca"));
+        assertEquals(List.of(), tree.prefixQuery("cow"));
+        assertEquals(0, tree.prefixCount("zebra"));
+        assertEquals(tree.getTotalWords(), tree.prefixCount(""));
+    }
+
+    @Test
+    public void testRangeQuery() {
+        BinarySearchTree tree = new BinarySearchTree(true);
+        for (String word : "ant bee cat dog eel fox gnu".split(" ")) {
+            tree.insert(word);
+        }
+        tree.insert("dog", 4);
+        assertEquals(List.of(Map.entry("cat", 1), Map.entry("dog", 5), Map.entry("eel", 1)),
+                tree.rangeQuery("bz", "eel"));
+        assertEquals(7, tree.rangeCount("bz", "eel"));
+        assertEquals(List.of(), tree.rangeQuery("h", "z"));
+        assertEquals(0, tree.rangeCount("eel", "dog"));
+    }
+
+    @Test
+    public void testPrefixAndRangeAgainstTreeMap() {
+        Random random = new Random(11);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        BinarySearchTree tree = randomTree(expected, random, true);
+        for (String prefix : new String[] { "w", "w1", "w12", "w29", "w3", "w300", "x" }) {
+            List<Map.Entry<String, Integer>> matches = new ArrayList<>();
+            long sum = 0;
+            for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    matches.add(Map.entry(entry.getKey(), entry.getValue()));
+                    sum += entry.getValue();
+                }
+            }
+            assertEquals(matches, tree.prefixQuery(prefix), prefix);
+            assertEquals(sum, tree.prefixCount(prefix), prefix);
+        }
+
+        List<Map.Entry<String, Integer>> range = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : expected.subMap("w15", true, "w2", true).entrySet()) {
+            range.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(range, tree.rangeQuery("w15", "w2"));
+    }
+
+    //topK()
+    @Test
+    public void testTopKOrdersByFrequency() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("cat", 2);
+        tree.insert("ant", 5);
+        tree.insert("dog");
+        tree.insert("emu", 3);
+        assertEquals(List.of(Map.entry("ant", 5), Map.entry("emu", 3), Map.entry("cat", 2)), tree.topK(3));
+    }
+
+    @Test
+    public void testTopKTiesInOrderReached() {
+        // All three reach one in the order a, b, c, but two in the order b, a, c
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : "a b c b a c".split(" ")) {
+            tree.insert(word);
+        }
+        assertEquals(List.of(Map.entry("b", 2), Map.entry("a", 2), Map.entry("c", 2)), tree.topK(3));
+        assertEquals("b (2 times)", tree.getMostFrequentWord());
+    }
+
+    @Test
+    public void testTopKBounds() {
+        BinarySearchTree tree = new BinarySearchTree();
+        assertEquals(List.of(), tree.topK(5));
+        tree.insert("a", 2);
+        tree.insert("b");
+        assertEquals(List.of(), tree.topK(0));
+        assertEquals(List.of(Map.entry("a", 2), Map.entry("b", 1)), tree.topK(10));
+        assertThrows(IllegalArgumentException.class, () -> tree.topK(-1));
+    }
+
+    @Test
+    public void testPreferMostFrequentLeadsTopK() {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : "a b c a b c".split(" ")) {
+            tree.insert(word);
+        }
+        tree.preferMostFrequent("c");
+        assertEquals("c (2 times)", tree.getMostFrequentWord());
+        assertEquals(List.of(Map.entry("c", 2), Map.entry("a", 2), Map.entry("b", 2)), tree.topK(3));
+    }
+
+    @Test
+    public void testTopKAgreesWithMostFrequentWord() {
+        // A word joins the end of its frequency's tie whenever its count changes,
+        // whether it went up or down; the model keeps the time of that change
+        Random random = new Random(7);
+        BinarySearchTree tree = new BinarySearchTree(true);
+        TreeMap<String, Integer> counts = new TreeMap<>();
+        Map<String, Integer> reached = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            String word = "w" + random.nextInt(40);
+            Integer stored = counts.get(word);
+            if (stored != null && random.nextInt(3) == 0) {
+                int count = 1 + random.nextInt(stored);
+                tree.remove(word, count);
+                if (count == stored) {
+                    counts.remove(word);
+                    reached.remove(word);
+                    continue;
+                }
+                counts.put(word, stored - count);
+            } else {
+                tree.insert(word);
+                counts.merge(word, 1, Integer::sum);
+            }
+            reached.put(word, step);
+
+            List<String> expected = new ArrayList<>(counts.keySet());
+            expected.sort(Comparator.comparing((String w) -> -counts.get(w)).thenComparing(reached::get));
+            List<Map.Entry<String, Integer>> top = tree.topK(counts.size());
+            List<String> actual = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : top) {
+                assertEquals(counts.get(entry.getKey()), entry.getValue(), entry.getKey());
+                actual.add(entry.getKey());
+            }
+            assertEquals(expected, actual);
+            if (!top.isEmpty()) {
+                assertEquals(top.get(0).getKey(), tree.getMostFrequentKey());
+                assertEquals(top.get(0).getKey() + " (" + top.get(0).getValue() + " times)",
+                        tree.getMostFrequentWord());
+            }
+        }
+    }
+
+    //balanced mode (AVL)
+    @Test
+    public void testSortedInputStaysLogarithmic() {
+        // A plain tree turns 4095 sorted words into a list; the AVL tree stays
+        // within 1.44 log2(n)
+        int n = 4095;
+        BinarySearchTree balanced = new BinarySearchTree(true);
+        BinarySearchTree plain = new BinarySearchTree(false);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            String word = String.format("w%05d", i);
+            balanced.insert(word);
+            plain.insert(word);
+            expected.put(word, 1);
+        }
+        assertEquals(n - 1, plain.getTreeHeight());
+        assertTrue(balanced.getTreeHeight() <= 1.44 * Math.log(n + 2) / Math.log(2), "height "
+                + balanced.getTreeHeight());
+        assertMatches(expected, balanced);
+    }
+
+    @Test
+    public void testReverseSortedAndZigZagInput() {
+        // Descending words need right rotations, alternating ends double rotations
+        BinarySearchTree descending = new BinarySearchTree(true);
+        BinarySearchTree zigZag = new BinarySearchTree(true);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; i++) {
+            descending.insert(String.format("w%04d", 999 - i));
+            zigZag.insert(String.format("w%04d", i % 2 == 0 ? i / 2 : 999 - i / 2));
+            expected.put(String.format("w%04d", i), 1);
+        }
+        assertMatches(expected, descending);
+        assertMatches(expected, zigZag);
+        assertTrue(descending.getTreeHeight() <= 14);
+        assertTrue(zigZag.getTreeHeight() <= 14);
+    }
+
+    @Test
+    public void testRepeatedWordsDoNotChangeShape() {
+        BinarySearchTree tree = new BinarySearchTree(true);
+        for (String word : "d b f a c e g".split(" ")) {
+            tree.insert(word);
+        }
+        String shape = tree.getTraversalOutput(BinarySearchTree.PRE_ORDER).replaceAll(" \\(\\d+\\)", "");
+        for (int i = 0; i < 100; i++) {
+            tree.insert("a");
+        }
+        assertEquals(shape, tree.getTraversalOutput(BinarySearchTree.PRE_ORDER).replaceAll(" \\(\\d+\\)", ""));
+        assertEquals(2, tree.getTreeHeight());
+        assertEquals("a (101 times)", tree.getMostFrequentWord());
+    }
+
+    //iterator(), stream() and writeTraversal()
+    /**
+     * Formats (word, frequency) pairs the way getTraversalOutput() does
+     */
+    private String format(Iterator<Map.Entry<String, Integer>> entries) {
+        StringBuilder text = new StringBuilder();
+        while (entries.hasNext()) {
+            Map.Entry<String, Integer> entry = entries.next();
+            text.append(entry.getKey()).append(" (").append(entry.getValue()).append(")\n");
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testIteratorsMatchTraversalOutput() throws IOException {
+        // Large enough for writeTraversal to write several chunks
+        Random random = new Random(8);
+        for (boolean balanced : new boolean[] { false, true }) {
+            BinarySearchTree tree = randomTree(new TreeMap<>(), random, balanced);
+            for (int i = 0; i < 2000; i++) {
+                tree.insert("long-word-" + random.nextInt(5000));
+            }
+            for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+                String expected = tree.getTraversalOutput(type);
+                assertTrue(expected.length() > 3 * 8192);
+                assertEquals(expected, format(tree.iterator(type)));
+                assertEquals(expected, format(tree.stream(type).iterator()));
+
+                StringWriter out = new StringWriter();
+                tree.writeTraversal(type, out);
+                assertEquals(expected, out.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testTraversalOrders() {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : "d b f a c".split(" ")) {
+            tree.insert(word);
+        }
+        assertEquals("a (1)\nb (1)\nc (1)\nd (1)\nf (1)\n", tree.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals("d (1)\nb (1)\na (1)\nc (1)\nf (1)\n", tree.getTraversalOutput(BinarySearchTree.PRE_ORDER));
+        assertEquals("a (1)\nc (1)\nb (1)\nf (1)\nd (1)\n", tree.getTraversalOutput(BinarySearchTree.POST_ORDER));
+        assertEquals("", format(new BinarySearchTree().iterator(BinarySearchTree.IN_ORDER)));
+    }
+
+    @Test
+    public void testInvalidTraversalType() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("a");
+        assertEquals("Error, Invalid Traversal type.", tree.getTraversalOutput(4));
+        assertThrows(IllegalArgumentException.class, () -> tree.iterator(0));
+        assertThrows(IllegalArgumentException.class, () -> tree.writeTraversal(4, new StringWriter()));
+    }
+
+    @Test
+    public void testIteratorFailsAfterNewWord() {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.insert("a");
+        tree.insert("b");
+        Iterator<Map.Entry<String, Integer>> entries = tree.iterator(BinarySearchTree.IN_ORDER);
+        entries.next();
+        tree.insert("c");
+        assertThrows(ConcurrentModificationException.class, entries::next);
+    }
+
+    @Test
+    public void testParallelStream() {
+        Random random = new Random(18);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        BinarySearchTree tree = randomTree(expected, random, true);
+        assertEquals(tree.getTotalWords(), tree.stream(BinarySearchTree.IN_ORDER).parallel()
+                .mapToLong(Map.Entry::getValue).sum());
+        assertEquals(new ArrayList<>(expected.entrySet()).toString(),
+                tree.stream(BinarySearchTree.IN_ORDER).collect(Collectors.toList()).toString());
+    }
+
+    //searchWords()
+    @Test
+    public void testSearchWordsMatchesSearchWord() {
+        // Probes in random order, with repeats and missing words, including ones
+        // that sort before, between and after the stored words
+        Random random = new Random(13);
+        for (boolean balanced : new boolean[] { false, true }) {
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            BinarySearchTree tree = randomTree(expected, random, balanced);
+            List<String> probes = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                probes.add(random.nextInt(4) == 0 ? "w" + random.nextInt(300) + "x" : "w" + random.nextInt(400));
+            }
+            probes.add("");
+            probes.add("a");
+            probes.add("zzz");
+
+            int[] counts = tree.searchWords(probes);
+            assertEquals(probes.size(), counts.length);
+            for (int i = 0; i < probes.size(); i++) {
+                assertEquals(expected.getOrDefault(probes.get(i), 0), counts[i], probes.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSearchWordsEdgeCases() {
+        BinarySearchTree tree = new BinarySearchTree();
+        assertArrayEquals(new int[] { 0, 0 }, tree.searchWords(List.of("a", "a")));
+        tree.insert("b", 3);
+        tree.insert("a");
+        assertArrayEquals(new int[0], tree.searchWords(List.of()));
+        assertArrayEquals(new int[] { 3, 1, 3, 0 }, tree.searchWords(List.of("b", "a", "b", "c")));
+    }
+
+    @Test
+    public void testSearchWordsOfOtherCounters() {
+        // The default method of WordCounts, used by the other backends
+        Random random = new Random(14);
+        List<String> probes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            probes.add("w" + random.nextInt(400));
+        }
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        BinarySearchTree tree = randomTree(expected, random, true);
+        CompactWordTree compact = new CompactWordTree(true);
+        RadixWordTree radix = new RadixWordTree();
+        tree.stream(BinarySearchTree.IN_ORDER).forEach(entry -> {
+            compact.insert(entry.getKey(), entry.getValue());
+            radix.insert(entry.getKey(), entry.getValue());
+        });
+        assertArrayEquals(tree.searchWords(probes), compact.searchWords(probes));
+        assertArrayEquals(tree.searchWords(probes), radix.searchWords(probes));
+    }
+
+    //merge() and copy()
+    /**
+     * Counts a list of words into a new tree
+     */
+    private BinarySearchTree count(List<String> words, boolean balanced) {
+        BinarySearchTree tree = new BinarySearchTree(balanced);
+        for (String word : words) {
+            tree.insert(word);
+        }
+        return tree;
+    }
+
+    /**
+     * Random words from a vocabulary of 'vocabulary' words
+     */
+    private List<String> randomWords(Random random, int count, int vocabulary) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            words.add("w" + random.nextInt(vocabulary));
+        }
+        return words;
+    }
+
+    @Test
+    public void testMergeMatchesConcatenatedPass() {
+        Random random = new Random(15);
+        List<String> first = randomWords(random, 3000, 500);
+        List<String> second = randomWords(random, 2000, 800);
+        List<String> both = new ArrayList<>(first);
+        both.addAll(second);
+        BinarySearchTree single = count(both, true);
+
+        BinarySearchTree merged = BinarySearchTree.merge(count(first, false), count(second, true));
+        assertEquals(single.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                merged.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(single.getTotalWords(), merged.getTotalWords());
+        assertEquals(single.getUniqueWords(), merged.getUniqueWords());
+        assertEquals(single.topK(1).get(0).getValue(), merged.topK(1).get(0).getValue());
+        assertTrue(merged.isBalanced());
+        assertTrue(merged.verifyStatistics());
+        checkSubtree(merged.getRoot(), true);
+        int unique = merged.getUniqueWords();
+        assertEquals(32 - Integer.numberOfLeadingZeros(unique) - 1, merged.getTreeHeight());
+    }
+
+    @Test
+    public void testMergeKeepsFirstTreesTie() {
+        // Both words have three in total; 'b' leads the first tree
+        BinarySearchTree first = count(List.of("b", "b", "a"), false);
+        BinarySearchTree second = count(List.of("a", "a", "b"), false);
+        assertEquals("b (3 times)", BinarySearchTree.merge(first, second).getMostFrequentWord());
+        assertEquals("a (3 times)", BinarySearchTree.merge(second, first).getMostFrequentWord());
+    }
+
+    @Test
+    public void testMergeWithEmptyTree() {
+        BinarySearchTree tree = count(List.of("a", "b", "b"), true);
+        BinarySearchTree empty = new BinarySearchTree();
+        assertEquals(tree.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                BinarySearchTree.merge(empty, tree).getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(0, BinarySearchTree.merge(empty, new BinarySearchTree()).getTotalWords());
+        assertThrows(ArithmeticException.class, () -> {
+            BinarySearchTree big = new BinarySearchTree();
+            big.insert("a", Integer.MAX_VALUE);
+            BinarySearchTree.merge(big, tree);
+        });
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        BinarySearchTree tree = count(List.of("a", "b", "b", "c"), false);
+        BinarySearchTree copy = tree.copy();
+        copy.insert("a", 5);
+        copy.insert("d");
+        assertEquals(1, tree.searchWord("a"));
+        assertEquals(0, tree.searchWord("d"));
+        assertEquals("b (2 times)", tree.getMostFrequentWord());
+        assertEquals("a (6 times)", copy.getMostFrequentWord());
+    }
+
+    //fromWords() and fromSorted()
+    /**
+     * The minimum height of a tree of n words, ceil(log2(n + 1)) - 1
+     */
+    private int minimumHeight(int n) {
+        return n == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    @Test
+    public void testFromWordsMatchesInsert() {
+        // Sorted input (collapsed as it arrives) and the same words shuffled
+        Random random = new Random(19);
+        List<String> words = randomWords(random, 5000, 700);
+        List<String> sorted = new ArrayList<>(words);
+        Collections.sort(sorted);
+        for (List<String> input : List.of(sorted, words)) {
+            BinarySearchTree expected = count(input, false);
+            BinarySearchTree tree = BinarySearchTree.fromWords(input, false);
+            assertEquals(expected.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                    tree.getTraversalOutput(BinarySearchTree.IN_ORDER));
+            assertEquals(expected.getTotalWords(), tree.getTotalWords());
+            assertEquals(expected.getUniqueWords(), tree.getUniqueWords());
+            assertEquals(expected.getMostFrequentWord(), tree.getMostFrequentWord());
+            assertEquals(minimumHeight(tree.getUniqueWords()), tree.getTreeHeight());
+            assertTrue(tree.verifyStatistics());
+            checkSubtree(tree.getRoot(), false);
+        }
+    }
+
+    @Test
+    public void testFromWordsMinimumHeight() {
+        for (int n = 0; n <= 70; n++) {
+            List<String> words = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                words.add(String.format("w%03d", i));
+            }
+            BinarySearchTree tree = BinarySearchTree.fromWords(words, true);
+            assertEquals(minimumHeight(n), tree.getTreeHeight());
+            assertTrue(tree.isBalanced());
+        }
+    }
+
+    @Test
+    public void testFromWordsTieGoesToFirstToReachCount() {
+        // 'a' reaches two before 'b' does, in sorted and unsorted input
+        assertEquals("a (2 times)", BinarySearchTree.fromWords(List.of("b", "a", "a", "b"), false)
+                .getMostFrequentWord());
+        assertEquals("b (2 times)", BinarySearchTree.fromWords(List.of("a", "b", "b", "a"), false)
+                .getMostFrequentWord());
+        assertEquals("a (2 times)", BinarySearchTree.fromWords(List.of("a", "a", "b", "b"), false)
+                .getMostFrequentWord());
+        assertEquals("No words in the tree.", BinarySearchTree.fromWords(List.of(), false).getMostFrequentWord());
+    }
+
+    @Test
+    public void testFromSorted() {
+        List<Map.Entry<String, Integer>> counts = List.of(Map.entry("a", 2), Map.entry("b", 1),
+                Map.entry("b", 2), Map.entry("c", 3), Map.entry("d", 1));
+        BinarySearchTree tree = BinarySearchTree.fromSorted(counts, false);
+        assertEquals("a (2)\nb (3)\nc (3)\nd (1)\n", tree.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(9, tree.getTotalWords());
+        assertEquals(4, tree.getUniqueWords());
+        assertEquals(minimumHeight(4), tree.getTreeHeight());
+        // Equal neighbours are summed, and ties go to the alphabetically first word
+        assertEquals("b (3 times)", tree.getMostFrequentWord());
+        assertTrue(tree.verifyStatistics());
+    }
+
+    @Test
+    public void testFromSortedRejectsBadInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BinarySearchTree.fromSorted(List.of(Map.entry("b", 1), Map.entry("a", 1)), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinarySearchTree.fromSorted(List.of(Map.entry("a", 0)), false));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinarySearchTree.fromSorted(List.of(Map.entry("a", -2)), false));
+    }
+}
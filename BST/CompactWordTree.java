@@ -0,0 +1,460 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Pointer-free backend for the word frequency counter. The
+    BST is stored in parallel primitive arrays: node i has its
+    children in left[i] and right[i], its count in frequency[i],
+    and its word as UTF-8 bytes in a shared arena. There are no
+    per-word objects, so a unique word costs about 25 bytes plus
+    its letters, and full-tree walks read contiguous arrays.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+class CompactWordTree implements WordCounter, TieBreaking {
+
+    // Index used for "no node"
+    private static final int NIL = -1;
+
+    // Size of the chunks writeTraversal hands to its Writer
+    private static final int WRITE_CHUNK_CHARS = 8192;
+
+    // (1) Child indices, frequencies and AVL heights, indexed by node
+    // (2) Node i's word is arena[wordStart[i] .. wordStart[i + 1]); words are
+    // appended in node order, so the next node's start doubles as the end
+    // (3) When each node reached its current frequency (a tick of 'clock'), so
+    // ties are ordered as in the BST's frequency index
+    // (4) Number of nodes, which is also the count of unique words
+
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] frequency = new int[16];
+    private long[] reached = new long[16];
+    private byte[] height;
+    private int[] wordStart = new int[17];
+    private byte[] arena = new byte[256];
+    private int size;
+
+    // (1) Root node index
+    // (2) Total words inserted (including duplicates)
+    // (3) Node with the highest frequency
+    // (4) Height of the tree, kept up to date on every insert
+    // (5) Whether the tree rebalances itself (AVL) after each insert
+    // (6) Number of inserts so far
+
+    private int root = NIL;
+    private long totalWords;
+    private int mostFrequentNode = NIL;
+    private int treeHeight = -1;
+    private final boolean balanced;
+    private long clock;
+
+    // Reusable stack of ancestors visited by the current insert
+    private int[] path = new int[32];
+
+    // Creates a plain (unbalanced) compact BST
+    public CompactWordTree() {
+        this(false);
+    }
+
+    // Creates a compact BST, optionally self-balancing (AVL)
+    public CompactWordTree(boolean balanced) {
+        this.balanced = balanced;
+        if (balanced) {
+            height = new byte[16];
+        }
+    }
+
+    // Inserts a word into the tree
+    @Override
+    public void insert(String word) {
+        insert(word, 1);
+    }
+
+    // Inserts a word that occurred 'count' times at once
+    @Override
+    public void insert(String word, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        insertKey(key, 0, key.length, count);
+    }
+
+    // Inserts a word given as UTF-8 bytes word[from .. to), e.g. straight from
+    // WordTokenizer.tokenizeBytes(), so no String is created per word. The
+    // bytes are only copied when the word is new.
+    public void insertUtf8(byte[] word, int from, int to, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        insertKey(word, from, to, count);
+    }
+
+    // Inserts a word given as UTF-8 bytes key[from .. to)
+    private void insertKey(byte[] key, int from, int to, int count) {
+        // (1) An empty tree gets the word as its root
+        // (2) Walk down comparing bytes, remembering the path for rebalancing
+        // (3) An existing word has its frequency increased, unless it would
+        // overflow
+        // (4) Otherwise a new node is attached where the search fell off the tree
+
+        clock++;
+
+        if (root == NIL) {
+            root = createNode(key, from, to, count);
+            totalWords += count;
+            treeHeight = 0;
+            return;
+        }
+
+        int depth = 0;
+        int node = root;
+        while (true) {
+            int comparison = compare(key, from, to, node);
+
+            if (comparison == 0) {
+                frequency[node] = Math.addExact(frequency[node], count);
+                reached[node] = clock;
+                totalWords += count;
+                if (frequency[node] > frequency[mostFrequentNode]) {
+                    mostFrequentNode = node;
+                }
+                return;
+            }
+
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = node;
+
+            int child = comparison < 0 ? left[node] : right[node];
+            if (child == NIL) {
+                child = createNode(key, from, to, count);
+                if (comparison < 0) {
+                    left[node] = child;
+                } else {
+                    right[node] = child;
+                }
+                break;
+            }
+            node = child;
+        }
+        totalWords += count;
+
+        // (5) Rebalance (AVL mode) and update the tree height
+
+        if (balanced) {
+            rebalancePath(depth);
+            treeHeight = height[root];
+        } else if (depth > treeHeight) {
+            treeHeight = depth;
+        }
+    }
+
+    // Compares key[from .. to) with a node's word as unsigned bytes, which
+    // orders UTF-8 text by code point (the same order as String.compareTo for
+    // all text without supplementary characters)
+    private int compare(byte[] key, int from, int to, int node) {
+        return Arrays.compareUnsigned(key, from, to, arena, wordStart[node], wordStart[node + 1]);
+    }
+
+    // Appends a node for a new word and returns its index
+    private int createNode(byte[] key, int from, int to, int count) {
+        // (1) Grow the node arrays and the arena if needed
+        // (2) Copy the word's bytes into the arena
+        // (3) Update the most frequent node
+
+        int node = size;
+        if (node == left.length) {
+            int capacity = node * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            frequency = Arrays.copyOf(frequency, capacity);
+            reached = Arrays.copyOf(reached, capacity);
+            wordStart = Arrays.copyOf(wordStart, capacity + 1);
+            if (balanced) {
+                height = Arrays.copyOf(height, capacity);
+            }
+        }
+
+        int start = wordStart[node];
+        int length = to - from;
+        if (start + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, start + length));
+        }
+        System.arraycopy(key, from, arena, start, length);
+        wordStart[node + 1] = start + length;
+
+        left[node] = NIL;
+        right[node] = NIL;
+        frequency[node] = count;
+        reached[node] = clock;
+        size++;
+
+        if (mostFrequentNode == NIL || count > frequency[mostFrequentNode]) {
+            mostFrequentNode = node;
+        }
+        return node;
+    }
+
+    // Returns a node's word
+    private String word(int node) {
+        return new String(arena, wordStart[node], wordStart[node + 1] - wordStart[node], StandardCharsets.UTF_8);
+    }
+
+    // Returns the stored height of a node (-1 for an empty subtree)
+    private int heightOf(int node) {
+        return node == NIL ? -1 : height[node];
+    }
+
+    // Recomputes a node's height from its children
+    private void updateHeight(int node) {
+        height[node] = (byte) (Math.max(heightOf(left[node]), heightOf(right[node])) + 1);
+    }
+
+    // Rebalances the ancestors of a freshly inserted node, deepest first
+    private void rebalancePath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int before = height[node];
+            int subtree = rebalance(node);
+
+            if (i == 0) {
+                root = subtree;
+            } else if (left[path[i - 1]] == node) {
+                left[path[i - 1]] = subtree;
+            } else {
+                right[path[i - 1]] = subtree;
+            }
+
+            if (height[subtree] == before) {
+                return;
+            }
+        }
+    }
+
+    // Restores the AVL property at this node
+    private int rebalance(int node) {
+        updateHeight(node);
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+
+        if (balance > 1) {
+            if (heightOf(left[left[node]]) < heightOf(right[left[node]])) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (heightOf(right[right[node]]) < heightOf(left[right[node]])) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    // Rotates the subtree right and returns its new root
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    // Rotates the subtree left and returns its new root
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        updateHeight(node);
+        updateHeight(pivot);
+        return pivot;
+    }
+
+    // Searches for a word and returns its frequency
+    @Override
+    public int searchWord(String word) {
+        int node = findNode(word);
+        return node == NIL ? 0 : frequency[node];
+    }
+
+    // Returns the node holding a word, or NIL if it is not stored
+    private int findNode(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int node = root;
+        while (node != NIL) {
+            int comparison = compare(key, 0, key.length, node);
+            if (comparison == 0) {
+                return node;
+            }
+            node = comparison < 0 ? left[node] : right[node];
+        }
+        return NIL;
+    }
+
+    // Returns the traversal output as a string based on the selected traversal type
+    @Override
+    public String getTraversalOutput(int type) {
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            return "Error, Invalid Traversal type.";
+        }
+        StringWriter out = new StringWriter();
+        try {
+            writeTraversal(type, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // Writes the traversal output to 'out' in chunks of bounded size
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        // (1) Reject invalid traversal types
+        // (2) Walk the node indices with an int stack and append one line per node
+        // (3) Hand the buffer to the writer whenever it is full
+
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            throw new IllegalArgumentException("Error, Invalid Traversal type.");
+        }
+
+        StringBuilder chunk = new StringBuilder(WRITE_CHUNK_CHARS + 64);
+        int[] stack = new int[Math.max(16, treeHeight + 2)];
+        int top = 0;
+        int node = root;
+        int lastVisited = NIL;
+
+        if (type == BinarySearchTree.PRE_ORDER) {
+            if (root != NIL) {
+                stack[top++] = root;
+            }
+            while (top > 0) {
+                node = stack[--top];
+                appendNode(node, chunk);
+                if (right[node] != NIL) {
+                    stack[top++] = right[node];
+                }
+                if (left[node] != NIL) {
+                    stack[top++] = left[node];
+                }
+                flushIfFull(chunk, out);
+            }
+        } else {
+            while (node != NIL || top > 0) {
+                while (node != NIL) {
+                    stack[top++] = node;
+                    node = left[node];
+                }
+                int current = stack[top - 1];
+                if (type == BinarySearchTree.IN_ORDER) {
+                    top--;
+                    appendNode(current, chunk);
+                    node = right[current];
+                } else if (right[current] != NIL && right[current] != lastVisited) {
+                    node = right[current];
+                } else {
+                    top--;
+                    appendNode(current, chunk);
+                    lastVisited = current;
+                }
+                flushIfFull(chunk, out);
+            }
+        }
+        out.append(chunk);
+        out.flush();
+    }
+
+    // Writes the chunk out once it is full
+    private static void flushIfFull(StringBuilder chunk, Writer out) throws IOException {
+        if (chunk.length() >= WRITE_CHUNK_CHARS) {
+            out.append(chunk);
+            chunk.setLength(0);
+        }
+    }
+
+    // Appends one "word (frequency)" line to the traversal output
+    private void appendNode(int node, StringBuilder result) {
+        result.append(word(node)).append(" (").append(frequency[node]).append(")\n");
+    }
+
+    // Returns the total number of words, including duplicates
+    @Override
+    public long getTotalWords() {
+        return totalWords;
+    }
+
+    // Returns the count of unique words
+    @Override
+    public int getUniqueWords() {
+        return size;
+    }
+
+    // Returns the most frequent word along with its occurrence count
+    @Override
+    public String getMostFrequentWord() {
+        if (mostFrequentNode != NIL) {
+            return word(mostFrequentNode) + " (" + frequency[mostFrequentNode] + " times)";
+        } else {
+            return "No words in the tree.";
+        }
+    }
+
+    // Returns the height of the tree
+    @Override
+    public int getTreeHeight() {
+        return treeHeight;
+    }
+
+    // Returns up to k of the most frequent words. There is no frequency index in
+    // this backend, so this scans the frequency array with a bounded heap in
+    // O(n log k). Equal frequencies are ordered as in BinarySearchTree: by when
+    // the words reached them, so the first entry is the most frequent word.
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+
+        // Heap root is the weakest candidate: lowest frequency, latest to reach it
+        Comparator<Integer> weaker = (a, b) -> frequency[a] != frequency[b]
+                ? Integer.compare(frequency[a], frequency[b]) : Long.compare(reached[b], reached[a]);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, Math.min(k, size)), weaker);
+        for (int node = 0; node < size && k > 0; node++) {
+            if (heap.size() < k) {
+                heap.add(node);
+            } else if (weaker.compare(node, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(node);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            result.add(Map.entry(word(node), frequency[node]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Reports the given word as the most frequent one if it ties with the
+    // current most frequent word. The word then counts as having reached that
+    // frequency first, for topK() too.
+    @Override
+    public void preferMostFrequent(String word) {
+        int node = findNode(word);
+        if (node != NIL && node != mostFrequentNode && frequency[node] == frequency[mostFrequentNode]) {
+            reached[node] = reached[mostFrequentNode] - 1;
+            mostFrequentNode = node;
+        }
+    }
+}
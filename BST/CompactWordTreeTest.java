@@ -0,0 +1,122 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for CompactWordTree: fed the same words as a
+    BinarySearchTree, it reports the same counts, traversals and
+    top K list, ties included, and it rejects a count that
+    would overflow.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactWordTreeTest {
+
+    /**
+     * Checks that the compact tree reports the same as the BST
+     */
+    private void assertSameAsTree(BinarySearchTree expected, CompactWordTree actual) {
+        assertEquals(expected.getTotalWords(), actual.getTotalWords());
+        assertEquals(expected.getUniqueWords(), actual.getUniqueWords());
+        assertEquals(expected.getTreeHeight(), actual.getTreeHeight());
+        assertEquals(expected.getMostFrequentWord(), actual.getMostFrequentWord());
+        assertEquals(expected.topK(expected.getUniqueWords()), actual.topK(actual.getUniqueWords()));
+        for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+            assertEquals(expected.getTraversalOutput(type), actual.getTraversalOutput(type));
+        }
+    }
+
+    @Test
+    public void testRandomWordsMatchTree() {
+        // Few distinct words, so there are many ties
+        for (boolean balanced : new boolean[] { false, true }) {
+            Random random = new Random(9);
+            BinarySearchTree tree = new BinarySearchTree(balanced);
+            CompactWordTree compact = new CompactWordTree(balanced);
+            for (int i = 0; i < 3000; i++) {
+                String word = "w" + random.nextInt(200);
+                int count = random.nextInt(10) == 0 ? 1 + random.nextInt(3) : 1;
+                tree.insert(word, count);
+                compact.insert(word, count);
+                if (i % 100 == 0) {
+                    assertSameAsTree(tree, compact);
+                }
+            }
+            assertSameAsTree(tree, compact);
+        }
+    }
+
+    @Test
+    public void testTiesGoToWordThatGotThereFirst() {
+        // 'b' reaches two before 'a', although 'a' was seen first
+        CompactWordTree compact = new CompactWordTree();
+        for (String word : "a b c b a c".split(" ")) {
+            compact.insert(word);
+        }
+        assertEquals("b (2 times)", compact.getMostFrequentWord());
+        assertEquals(List.of(Map.entry("b", 2), Map.entry("a", 2), Map.entry("c", 2)), compact.topK(3));
+        assertEquals(List.of(Map.entry("b", 2)), compact.topK(1));
+    }
+
+    @Test
+    public void testPreferMostFrequentMovesWordToFront() {
+        BinarySearchTree tree = new BinarySearchTree();
+        CompactWordTree compact = new CompactWordTree();
+        for (String word : "a b c a b c".split(" ")) {
+            tree.insert(word);
+            compact.insert(word);
+        }
+        tree.preferMostFrequent("c");
+        compact.preferMostFrequent("c");
+        assertEquals("c (2 times)", compact.getMostFrequentWord());
+        assertEquals("c", compact.topK(1).get(0).getKey());
+
+        // 'a' moves on, and 'c' stays ahead of 'b' in the tie below it
+        tree.insert("a");
+        compact.insert("a");
+        assertSameAsTree(tree, compact);
+    }
+
+    @Test
+    public void testUtf8InsertMatchesStringInsert() {
+        CompactWordTree strings = new CompactWordTree(true);
+        CompactWordTree bytes = new CompactWordTree(true);
+        for (String word : "\u00E9t\u00E9 caf\u00E9 \u6771\u4EAC \u00E9t\u00E9 zebra".split(" ")) {
+            strings.insert(word);
+            byte[] utf8 = word.getBytes(StandardCharsets.UTF_8);
+            bytes.insertUtf8(utf8, 0, utf8.length, 1);
+        }
+        assertEquals(2, bytes.searchWord("\u00E9t\u00E9"));
+        assertEquals(strings.topK(5), bytes.topK(5));
+        assertEquals(strings.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                bytes.getTraversalOutput(BinarySearchTree.IN_ORDER));
+    }
+
+    @Test
+    public void testTopKBounds() {
+        CompactWordTree compact = new CompactWordTree();
+        assertEquals(List.of(), compact.topK(3));
+        compact.insert("a", 2);
+        compact.insert("b");
+        assertEquals(List.of(), compact.topK(0));
+        assertEquals(List.of(Map.entry("a", 2), Map.entry("b", 1)), compact.topK(10));
+        assertThrows(IllegalArgumentException.class, () -> compact.topK(-1));
+    }
+
+    @Test
+    public void testOverflowIsRejected() {
+        CompactWordTree compact = new CompactWordTree();
+        compact.insert("a", Integer.MAX_VALUE - 1);
+        compact.insert("b");
+        assertThrows(ArithmeticException.class, () -> compact.insert("a", 2));
+        assertEquals(Integer.MAX_VALUE - 1, compact.searchWord("a"));
+        assertEquals(Integer.MAX_VALUE, compact.getTotalWords());
+        compact.insert("a");
+        assertEquals(Integer.MAX_VALUE, compact.searchWord("a"));
+    }
+}
@@ -0,0 +1,200 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Thread-safe word frequency counter for several producers
+    (e.g. log tailers) feeding one set of counts. Words are kept
+    in a concurrent skip list ordered like the BST, each with a
+    LongAdder count, so an insert only touches its own word's
+    entry and per-thread adder cells, never a shared lock.
+    Traversals, the tree height and the top K words are read
+    from a snapshot: a BinarySearchTree built from one pass over
+    the skip list, whose statistics are computed from the counts
+    it copied, so they always agree with each other. The most
+    frequent word is tracked as words are counted, so it needs
+    no snapshot.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+class ConcurrentWordCounter implements WordCounter {
+
+    // A word with the count it had when it became the most frequent one
+    private static class Leader {
+        final String word;
+        final long count;
+
+        Leader(String word, long count) {
+            this.word = word;
+            this.count = count;
+        }
+    }
+
+    // The last snapshot and the total word count read just before it was taken
+    private static class Snapshot {
+        final long totalWords;
+        final BinarySearchTree tree;
+
+        Snapshot(long totalWords, BinarySearchTree tree) {
+            this.totalWords = totalWords;
+            this.tree = tree;
+        }
+    }
+
+    // (1) Words in String.compareTo order with their counts
+    // (2) Total words inserted (including duplicates)
+    // (3) Count of unique words
+    // (4) Most frequent word so far (null when empty); replaced only by a word
+    // with a higher count, so ties stay with the word that got there first
+    // (5) Last snapshot, reused by readers until another insert has finished
+
+    private final ConcurrentSkipListMap<String, LongAdder> counts = new ConcurrentSkipListMap<>();
+    private final LongAdder totalWords = new LongAdder();
+    private final LongAdder uniqueWords = new LongAdder();
+    private final AtomicReference<Leader> mostFrequent = new AtomicReference<>();
+    private volatile Snapshot lastSnapshot;
+
+    // Inserts one occurrence of a word; safe to call from many threads
+    @Override
+    public void insert(String word) {
+        insert(word, 1);
+    }
+
+    // Inserts a word that occurred 'count' times at once; safe to call from many
+    // threads
+    @Override
+    public void insert(String word, int count) {
+        // (1) Look up the word's counter, creating it if this is the first occurrence
+        // (2) Only the thread whose counter was installed counts a new unique word
+        // (3) Increase the word's count, then the total; a total that includes an
+        // insert therefore implies the word's count does too
+        // (4) Take over as the most frequent word if the new count is higher
+
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        LongAdder adder = counts.get(word);
+        if (adder == null) {
+            LongAdder created = new LongAdder();
+            adder = counts.putIfAbsent(word, created);
+            if (adder == null) {
+                adder = created;
+                uniqueWords.increment();
+            }
+        }
+        adder.add(count);
+        totalWords.add(count);
+        updateMostFrequent(word, adder.sum());
+    }
+
+    // Returns the current frequency of a word (0 if it was never inserted),
+    // capped at Integer.MAX_VALUE
+    @Override
+    public int searchWord(String word) {
+        LongAdder count = counts.get(word);
+        return count == null ? 0 : (int) Math.min(count.sum(), Integer.MAX_VALUE);
+    }
+
+    // Returns the total number of words inserted so far, including duplicates
+    @Override
+    public long getTotalWords() {
+        return totalWords.sum();
+    }
+
+    // Returns the number of unique words inserted so far
+    @Override
+    public int getUniqueWords() {
+        return (int) uniqueWords.sum();
+    }
+
+    // Records that a word has reached 'count'. The count read after an
+    // increment includes every increment finished before it, so the highest
+    // count read for a word is its final count.
+    private void updateMostFrequent(String word, long count) {
+        Leader current = mostFrequent.get();
+        while (current == null || count > current.count) {
+            Leader candidate = new Leader(word, count);
+            if (mostFrequent.compareAndSet(current, candidate)) {
+                return;
+            }
+            current = mostFrequent.get();
+        }
+    }
+
+    // Returns the most frequent word in the format "word (X times)"; inserts
+    // still running may not be reflected yet
+    @Override
+    public String getMostFrequentWord() {
+        Leader leader = mostFrequent.get();
+        return leader == null ? "No words in the tree." : leader.word + " (" + leader.count + " times)";
+    }
+
+    // Returns the traversal output of a snapshot
+    @Override
+    public String getTraversalOutput(int type) {
+        return snapshot().getTraversalOutput(type);
+    }
+
+    // Writes the traversal output of a snapshot to 'out'
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        snapshot().writeTraversal(type, out);
+    }
+
+    // Returns the height of a snapshot's tree, which has minimum height
+    @Override
+    public int getTreeHeight() {
+        return snapshot().getTreeHeight();
+    }
+
+    // Returns up to k of the most frequent words of a snapshot. The snapshot
+    // does not know when each word reached its count, so ties below the most
+    // frequent word are listed alphabetically.
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        return snapshot().topK(k);
+    }
+
+    // Returns a BinarySearchTree holding the counts. Writers are never blocked:
+    // each word's count is read once while they go on, and the tree's totals are
+    // computed from those counts. The tree stores int counts, so a count above
+    // Integer.MAX_VALUE is capped there. Do not modify the returned tree; it is
+    // handed to every reader until another insert has finished.
+    public BinarySearchTree snapshot() {
+        // (1) Reuse the last snapshot if no insert has finished since; an insert
+        // finished before that total was read is in the copy
+        // (2) Otherwise copy the words and counts in order, skipping words whose
+        // first insert has not added its count yet
+        // (3) Link the copy (already sorted) into a minimum-height tree in O(n),
+        // keeping the tracked word on ties
+
+        long total = totalWords.sum();
+        Snapshot last = lastSnapshot;
+        if (last != null && last.totalWords == total) {
+            return last.tree;
+        }
+
+        Leader leader = mostFrequent.get();
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                entries.add(Map.entry(entry.getKey(), (int) Math.min(count, Integer.MAX_VALUE)));
+            }
+        }
+        BinarySearchTree tree = BinarySearchTree.fromSorted(entries, true);
+        if (leader != null) {
+            tree.preferMostFrequent(leader.word);
+        }
+
+        lastSnapshot = new Snapshot(total, tree);
+        return tree;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for ConcurrentWordCounter: several producer
+    threads counting at once end with the same counts as one
+    thread, and snapshots taken while they run always hold
+    totals that agree with their own counts.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentWordCounterTest {
+
+    /**
+     * Words for one producer; all producers share most of the vocabulary, so
+     * they race on the same words
+     */
+    private String[] words(int producer, int count) {
+        Random random = new Random(producer);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            int id = random.nextInt(500);
+            words[i] = (id % 50 == 0 ? "p" + producer + "-" : "w") + id;
+        }
+        return words;
+    }
+
+    /**
+     * Runs the producers on their own threads and waits for them
+     */
+    private void runProducers(ConcurrentWordCounter counter, String[][] streams) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (String[] stream : streams) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < stream.length; i++) {
+                    if (i % 10 == 0) {
+                        counter.insert(stream[i], 2);
+                    } else {
+                        counter.insert(stream[i]);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Counts the same streams on one thread
+     */
+    private BinarySearchTree sequential(String[][] streams) {
+        BinarySearchTree tree = new BinarySearchTree(true);
+        for (String[] stream : streams) {
+            for (int i = 0; i < stream.length; i++) {
+                tree.insert(stream[i], i % 10 == 0 ? 2 : 1);
+            }
+        }
+        return tree;
+    }
+
+    @Test
+    public void testProducersMatchSingleThread() throws InterruptedException {
+        String[][] streams = new String[4][];
+        for (int producer = 0; producer < streams.length; producer++) {
+            streams[producer] = words(producer, 50_000);
+        }
+        ConcurrentWordCounter counter = new ConcurrentWordCounter();
+        runProducers(counter, streams);
+        BinarySearchTree expected = sequential(streams);
+
+        assertEquals(expected.getTotalWords(), counter.getTotalWords());
+        assertEquals(expected.getUniqueWords(), counter.getUniqueWords());
+        assertEquals(expected.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                counter.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        for (Iterator<TreeNode> nodes = expected.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            TreeNode node = nodes.next();
+            assertEquals(node.frequency, counter.searchWord(node.word), node.word);
+        }
+
+        // The most frequent word may differ on ties, which the threads race for
+        int highest = expected.topK(1).get(0).getValue();
+        String leader = counter.getMostFrequentWord();
+        assertTrue(leader.endsWith(" (" + highest + " times)"), leader);
+        assertEquals(highest, counter.topK(1).get(0).getValue());
+        assertEquals(leader, counter.topK(1).get(0).getKey() + " (" + highest + " times)");
+        assertEquals(expected.topK(20).size(), counter.topK(20).size());
+    }
+
+    @Test
+    public void testSnapshotsWhileProducing() throws InterruptedException {
+        // Each snapshot's totals agree with its own counts, and counts never go
+        // back between snapshots
+        ConcurrentWordCounter counter = new ConcurrentWordCounter();
+        String[][] streams = { words(5, 40_000), words(6, 40_000), words(7, 40_000) };
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        Thread reader = new Thread(() -> {
+            try {
+                Map<String, Integer> previous = new HashMap<>();
+                while (!done.get()) {
+                    BinarySearchTree snapshot = counter.snapshot();
+                    assertTrue(snapshot.verifyStatistics());
+                    long sum = 0;
+                    for (Iterator<TreeNode> nodes = snapshot.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+                        TreeNode node = nodes.next();
+                        sum += node.frequency;
+                        assertTrue(node.frequency >= previous.getOrDefault(node.word, 0), node.word);
+                        previous.put(node.word, node.frequency);
+                    }
+                    assertEquals(sum, snapshot.getTotalWords());
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        reader.start();
+        runProducers(counter, streams);
+        done.set(true);
+        reader.join();
+        assertEquals(List.of(), failures);
+        assertEquals(sequential(streams).getTotalWords(), counter.snapshot().getTotalWords());
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilNextInsert() {
+        ConcurrentWordCounter counter = new ConcurrentWordCounter();
+        counter.insert("a");
+        BinarySearchTree first = counter.snapshot();
+        assertSame(first, counter.snapshot());
+        counter.insert("b");
+        assertNotSame(first, counter.snapshot());
+        assertEquals(2, counter.snapshot().getUniqueWords());
+    }
+
+    @Test
+    public void testEmptyCounter() {
+        ConcurrentWordCounter counter = new ConcurrentWordCounter();
+        assertEquals("No words in the tree.", counter.getMostFrequentWord());
+        assertEquals(-1, counter.getTreeHeight());
+        assertEquals(List.of(), counter.topK(3));
+        assertEquals("", counter.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertThrows(IllegalArgumentException.class, () -> counter.insert("a", 0));
+    }
+}
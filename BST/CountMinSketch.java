@@ -0,0 +1,121 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Count-Min sketch: a fixed grid of counters that estimates
+    the frequency of any word in constant memory. Every word
+    adds its count to one counter per row; the smallest of its
+    counters is the estimate. Estimates are never too low, and
+    with probability 1 - delta they are at most epsilon * N too
+    high, where N is the total count added.
+---------------------------------------------------------
+*/
+
+class CountMinSketch {
+
+    // (1) Counters per row and number of rows
+    // (2) The counters, row after row
+
+    private final int width;
+    private final int depth;
+    private final long[] cells;
+
+    // Creates a sketch with error at most epsilon * N, with probability at
+    // least 1 - delta: e / epsilon counters per row and ln(1 / delta) rows
+    CountMinSketch(double epsilon, double delta) {
+        this(columnsFor(epsilon), rowsFor(delta));
+    }
+
+    // Creates a sketch of 'depth' rows of 'width' counters
+    CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Invalid sketch size: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.cells = new long[width * depth];
+    }
+
+    // Counters per row needed for an error of at most epsilon * N
+    static int columnsFor(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("epsilon must be between 0 and 1: " + epsilon);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(Math.E / epsilon));
+    }
+
+    // Rows needed for the error bound to hold with probability 1 - delta
+    static int rowsFor(double delta) {
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("delta must be between 0 and 1: " + delta);
+        }
+        return (int) Math.ceil(Math.log(1 / delta));
+    }
+
+    // Adds 'count' occurrences of the word with the given hash (see hash())
+    void add(long hash, long count) {
+        // Conservative update: raise each of the word's counters only as far as
+        // its new estimate, which keeps every estimate an upper bound but adds
+        // less noise to the words sharing those counters
+
+        long estimate = estimate(hash) + count;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            int cell = row * width + Math.floorMod(h1 + row * h2, width);
+            if (cells[cell] < estimate) {
+                cells[cell] = estimate;
+            }
+        }
+    }
+
+    // Returns the estimated count of the word with the given hash
+    long estimate(long hash) {
+        // Row i uses the hash h1 + i * h2, so one 64-bit hash serves every row
+
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    // Relative error bound epsilon of this sketch's size
+    double epsilon() {
+        return Math.E / width;
+    }
+
+    // Probability delta that an estimate exceeds the error bound
+    double delta() {
+        return Math.exp(-depth);
+    }
+
+    // Memory held by the counters, in bytes
+    long memoryBytes() {
+        return 8L * cells.length;
+    }
+
+    // 64-bit hash of a word: FNV-1a over its chars, then the MurmurHash3
+    // finalizer so that both 32-bit halves are well mixed
+    static long hash(String word) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 64-bit finalizer
+    static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
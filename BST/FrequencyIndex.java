@@ -0,0 +1,320 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Frequency index for the word frequency counter. Tree nodes
+    are grouped into buckets of equal frequency, and the buckets
+    form a doubly linked list sorted by frequency. Raising a
+    word's count by one moves its node to the next bucket in
+    O(1) (lowering it, when words expire, moves it down), and
+    the top K words are read from the highest buckets
+    in O(K) without walking the tree. Larger jumps (merged or
+    bulk-loaded counts) find their bucket through a sorted map
+    in amortized O(log B) for B distinct frequencies.
+---------------------------------------------------------
+*/
+
+import java.util.*;
+
+class FrequencyIndex {
+
+    // All nodes that currently have the same frequency, in the order in which
+    // they reached it
+    static class Bucket {
+        // (1) Frequency shared by every node in this bucket
+        // (2) First and last node of the bucket's node list
+        // (3) Neighbouring buckets with the next lower and next higher frequency
+        // (4) Whether the bucket is in the sorted map of buckets
+
+        final int frequency;
+        TreeNode first;
+        TreeNode last;
+        Bucket lower;
+        Bucket higher;
+        boolean mapped;
+
+        Bucket(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    // (1) Lowest and highest non-empty buckets
+    // (2) Buckets that a lookup has created or walked past, by frequency. The
+    // steps by one (every insert) never touch the map, and a bucket leaves it
+    // once it is empty, so every mapped bucket is in the list.
+
+    private Bucket lowest;
+    private Bucket highest;
+    private final TreeMap<Integer, Bucket> mapped = new TreeMap<>();
+
+    // Adds a new node with its initial frequency
+    void add(TreeNode node) {
+        // (1) New words almost always land in the lowest bucket (frequency 1)
+        // (2) Otherwise look the bucket up
+        // (3) Append the node to it
+
+        Bucket bucket;
+        if (lowest == null || node.frequency < lowest.frequency) {
+            bucket = insertBucketAbove(null, node.frequency);
+        } else if (node.frequency == lowest.frequency) {
+            bucket = lowest;
+        } else {
+            bucket = bucketFor(node.frequency);
+        }
+        append(bucket, node);
+    }
+
+    // Adds nodes that are not in the index yet, in O(n + B) for n nodes and B
+    // buckets instead of one lookup per node; nodes with equal frequency keep
+    // their order in the array
+    void addAll(TreeNode[] nodes, int from, int to) {
+        // (1) Group the nodes by frequency into detached buckets
+        // (2) Sort the distinct frequencies with a radix sort
+        // (3) Walk up the bucket list once, moving each group into the bucket with
+        // its frequency or a new one
+
+        HashMap<Integer, Bucket> groups = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            append(groups.computeIfAbsent(nodes[i].frequency, Bucket::new), nodes[i]);
+        }
+
+        int[] frequencies = new int[groups.size()];
+        int count = 0;
+        for (Integer frequency : groups.keySet()) {
+            frequencies[count++] = frequency;
+        }
+        radixSort(frequencies);
+
+        Bucket below = null;
+        Bucket next = lowest;
+        for (int frequency : frequencies) {
+            while (next != null && next.frequency <= frequency) {
+                below = next;
+                next = next.higher;
+            }
+            if (below == null || below.frequency != frequency) {
+                below = insertBucketAbove(below, frequency);
+            }
+            TreeNode node = groups.get(frequency).first;
+            while (node != null) {
+                TreeNode following = node.nextSameFrequency;
+                append(below, node);
+                node = following;
+            }
+        }
+    }
+
+    // Sorts non-negative values in O(n), one byte per pass
+    private static void radixSort(int[] values) {
+        int[] buffer = new int[values.length];
+        for (int shift = 0; shift < 32; shift += 8) {
+            int[] starts = new int[257];
+            for (int value : values) {
+                starts[((value >>> shift) & 0xFF) + 1]++;
+            }
+            for (int digit = 0; digit < 256; digit++) {
+                starts[digit + 1] += starts[digit];
+            }
+            for (int value : values) {
+                buffer[starts[(value >>> shift) & 0xFF]++] = value;
+            }
+            int[] sorted = buffer;
+            buffer = values;
+            values = sorted;
+        }
+    }
+
+    // Moves a node whose frequency has just increased to its new bucket
+    void increase(TreeNode node) {
+        // (1) An increase by one is found or created right next to the node's
+        // current bucket; larger jumps look the bucket up
+        // (2) Move the node, dropping its old bucket if that is now empty
+
+        Bucket from = node.bucket;
+        Bucket to;
+        if (from.higher == null || from.higher.frequency > node.frequency) {
+            to = insertBucketAbove(from, node.frequency);
+        } else if (from.higher.frequency == node.frequency) {
+            to = from.higher;
+        } else {
+            to = bucketFor(node.frequency);
+        }
+
+        unlink(node);
+        append(to, node);
+    }
+
+    // Moves a node whose frequency has just decreased to its new bucket
+    void decrease(TreeNode node) {
+        // (1) A decrease by one is found or created right next to the node's
+        // current bucket; larger drops look the bucket up
+        // (2) Move the node to the end of its new bucket, dropping its old bucket if
+        // that is now empty
+
+        Bucket from = node.bucket;
+        Bucket to;
+        if (from.lower == null || from.lower.frequency < node.frequency) {
+            to = insertBucketAbove(from.lower, node.frequency);
+        } else if (from.lower.frequency == node.frequency) {
+            to = from.lower;
+        } else {
+            to = bucketFor(node.frequency);
+        }
+
+        unlink(node);
+        append(to, node);
+    }
+
+    // Returns the bucket for a frequency, creating it if there is none
+    private Bucket bucketFor(int frequency) {
+        // (1) Start at the highest mapped bucket at or below the frequency
+        // (2) Walk up past the buckets created since by steps of one, mapping them;
+        // each bucket is mapped at most once, so the walks are amortized O(1)
+        // (3) Use the bucket with that frequency, or create and map one
+
+        Map.Entry<Integer, Bucket> floor = mapped.floorEntry(frequency);
+        Bucket below = floor == null ? null : floor.getValue();
+        Bucket next = below == null ? lowest : below.higher;
+        while (next != null && next.frequency <= frequency) {
+            map(next);
+            below = next;
+            next = next.higher;
+        }
+
+        if (below != null && below.frequency == frequency) {
+            return below;
+        }
+        Bucket bucket = insertBucketAbove(below, frequency);
+        map(bucket);
+        return bucket;
+    }
+
+    // Adds a bucket to the sorted map
+    private void map(Bucket bucket) {
+        mapped.put(bucket.frequency, bucket);
+        bucket.mapped = true;
+    }
+
+    // Moves a node to the front of its bucket, as if it had reached its
+    // frequency before the other nodes there
+    void moveToFront(TreeNode node) {
+        Bucket bucket = node.bucket;
+        if (bucket.first == node) {
+            return;
+        }
+        node.prevSameFrequency.nextSameFrequency = node.nextSameFrequency;
+        if (node.nextSameFrequency == null) {
+            bucket.last = node.prevSameFrequency;
+        } else {
+            node.nextSameFrequency.prevSameFrequency = node.prevSameFrequency;
+        }
+        node.prevSameFrequency = null;
+        node.nextSameFrequency = bucket.first;
+        bucket.first.prevSameFrequency = node;
+        bucket.first = node;
+    }
+
+    // Removes a node that is deleted from the tree
+    void remove(TreeNode node) {
+        unlink(node);
+    }
+
+    // Returns the node that reached the highest frequency first (null if the
+    // index is empty)
+    TreeNode mostFrequent() {
+        return highest == null ? null : highest.first;
+    }
+
+    // Returns the node that reached the lowest frequency first (null if the
+    // index is empty)
+    TreeNode leastFrequent() {
+        return lowest == null ? null : lowest.first;
+    }
+
+    // Returns up to k nodes with the highest frequencies, most frequent first.
+    // Nodes with equal frequency are listed in the order they reached it.
+    List<TreeNode> top(int k) {
+        List<TreeNode> result = new ArrayList<>(Math.min(k, 1024));
+        for (Bucket bucket = highest; bucket != null && result.size() < k; bucket = bucket.lower) {
+            for (TreeNode node = bucket.first; node != null && result.size() < k; node = node.nextSameFrequency) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    // Returns the highest frequency in the index (0 if it is empty)
+    int highestFrequency() {
+        return highest == null ? 0 : highest.frequency;
+    }
+
+    // Creates an empty bucket directly above 'below' (or as the lowest bucket)
+    private Bucket insertBucketAbove(Bucket below, int frequency) {
+        Bucket bucket = new Bucket(frequency);
+        bucket.lower = below;
+        bucket.higher = below == null ? lowest : below.higher;
+
+        if (bucket.lower == null) {
+            lowest = bucket;
+        } else {
+            bucket.lower.higher = bucket;
+        }
+        if (bucket.higher == null) {
+            highest = bucket;
+        } else {
+            bucket.higher.lower = bucket;
+        }
+        return bucket;
+    }
+
+    // Appends a node to the end of a bucket's node list
+    private static void append(Bucket bucket, TreeNode node) {
+        node.bucket = bucket;
+        node.prevSameFrequency = bucket.last;
+        node.nextSameFrequency = null;
+
+        if (bucket.last == null) {
+            bucket.first = node;
+        } else {
+            bucket.last.nextSameFrequency = node;
+        }
+        bucket.last = node;
+    }
+
+    // Removes a node from its bucket, and the bucket from the list once empty
+    private void unlink(TreeNode node) {
+        Bucket bucket = node.bucket;
+
+        if (node.prevSameFrequency == null) {
+            bucket.first = node.nextSameFrequency;
+        } else {
+            node.prevSameFrequency.nextSameFrequency = node.nextSameFrequency;
+        }
+        if (node.nextSameFrequency == null) {
+            bucket.last = node.prevSameFrequency;
+        } else {
+            node.nextSameFrequency.prevSameFrequency = node.prevSameFrequency;
+        }
+        node.bucket = null;
+        node.prevSameFrequency = null;
+        node.nextSameFrequency = null;
+
+        if (bucket.first == null) {
+            if (bucket.mapped) {
+                mapped.remove(bucket.frequency);
+            }
+            if (bucket.lower == null) {
+                lowest = bucket.higher;
+            } else {
+                bucket.lower.higher = bucket.higher;
+            }
+            if (bucket.higher == null) {
+                highest = bucket.lower;
+            } else {
+                bucket.higher.lower = bucket.lower;
+            }
+        }
+    }
+}
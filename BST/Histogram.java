@@ -0,0 +1,119 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Lock-free histogram of non-negative values, e.g. request
+    durations in nanoseconds or comparisons per insert, for
+    percentiles such as p50 and p99. Every power of two is split
+    into 16 buckets, so a percentile is accurate to about 6%
+    over the whole range, in a fixed amount of memory. Many
+    threads can record at once.
+---------------------------------------------------------
+*/
+
+import java.util.concurrent.atomic.LongAdder;
+
+class Histogram {
+
+    // Values below 2^SUB_BITS get a bucket each; above that, every power of two
+    // is split into 2^SUB_BITS buckets of equal width
+    private static final int SUB_BITS = 4;
+
+    private final LongAdder[] buckets = new LongAdder[(64 - SUB_BITS + 1) << SUB_BITS];
+    private final LongAdder sum = new LongAdder();
+
+    Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // Records one value (negative values count as 0)
+    void record(long value) {
+        value = Math.max(0, value);
+        buckets[bucket(value)].increment();
+        sum.add(value);
+    }
+
+    // Number of values recorded
+    long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    // Exact mean of the values recorded (0 when nothing was recorded)
+    double mean() {
+        long count = count();
+        return count == 0 ? 0 : sum.sum() / (double) count;
+    }
+
+    // Returns the value that a fraction p (e.g. 0.99) of the recorded values do
+    // not exceed, rounded up to its bucket's upper end (0 when
+    // nothing was recorded)
+    long percentile(double p) {
+        // (1) Copy the bucket counts once, so concurrent records cannot move the
+        // total while walking
+        // (2) Walk up to the bucket holding the requested rank
+
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    // Largest value recorded, rounded up to its bucket's upper end (0 when
+    // nothing was recorded)
+    long max() {
+        for (int i = buckets.length - 1; i >= 0; i--) {
+            if (buckets[i].sum() > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    // Returns "count, p50, p99" of durations in nanoseconds, in microseconds,
+    // for reports
+    String latencySummary() {
+        return String.format("%,d requests, p50 %.1f us, p99 %.1f us", count(), percentile(0.50) / 1000.0,
+                percentile(0.99) / 1000.0);
+    }
+
+    // Bucket of a non-negative value: the value itself below 2^SUB_BITS, else
+    // its power of two and the next SUB_BITS bits below the leading one
+    static int bucket(long value) {
+        if (value < (1 << SUB_BITS)) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return ((exponent - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    // Largest value that falls into a bucket
+    static long upperBound(int bucket) {
+        if (bucket < (1 << SUB_BITS)) {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BITS) + SUB_BITS - 1;
+        long lower = (long) ((1 << SUB_BITS) + (bucket & ((1 << SUB_BITS) - 1))) << (exponent - SUB_BITS);
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
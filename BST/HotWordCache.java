@@ -0,0 +1,110 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Fixed-size open-addressing hash table that maps frequently
+    seen words straight to their tree nodes. A repeated word is
+    found with one hash and usually one equals() instead of
+    O(log n) compareTo() calls down the tree. The tree itself
+    stays the only copy of the counts and keeps the ordering.
+---------------------------------------------------------
+*/
+
+class HotWordCache {
+
+    // A word is looked for in at most this many consecutive slots (linear
+    // probing); a full window evicts its least frequent word
+    private static final int MAX_PROBES = 8;
+
+    // Marks the slot of a removed node, so the probe sequences running through
+    // it stay unbroken; put() reuses such slots
+    private static final TreeNode REMOVED = new TreeNode("");
+
+    // (1) Cached nodes, indexed by the hash of their word (null = empty slot)
+    // (2) Hash of each cached word, so most mismatching slots are skipped
+    // without touching the node or its string
+    // (3) Slot count minus one (the slot count is a power of two)
+
+    private final TreeNode[] slots;
+    private final int[] hashes;
+    private final int mask;
+
+    // Creates a cache for about 'capacity' words
+    HotWordCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBES) - 1) << 1;
+        slots = new TreeNode[size];
+        hashes = new int[size];
+        mask = size - 1;
+    }
+
+    // Returns the cached node for a word, or null if it is not cached
+    TreeNode get(String word) {
+        // (1) Start at the word's home slot
+        // (2) Stop at the first empty slot: slots are never emptied again (removed
+        // nodes leave a marker), so the word cannot be further along
+
+        int hash = word.hashCode();
+        int slot = home(hash);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            TreeNode node = slots[slot];
+            if (node == null) {
+                return null;
+            }
+            if (hashes[slot] == hash && node != REMOVED && node.word.equals(word)) {
+                return node;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    // Caches a node whose word is not cached yet
+    void put(TreeNode node) {
+        // (1) Take the first empty or removed slot in the word's probe window
+        // (2) If the window is full, replace its least frequent node, but only
+        // with a node that is at least as frequent, so the hot words stay cached
+        // while rare ones come and go
+
+        int hash = node.word.hashCode();
+        int slot = home(hash);
+        int victim = slot;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            if (slots[slot] == null || slots[slot] == REMOVED) {
+                slots[slot] = node;
+                hashes[slot] = hash;
+                return;
+            }
+            if (slots[slot].frequency < slots[victim].frequency) {
+                victim = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (slots[victim].frequency <= node.frequency) {
+            slots[victim] = node;
+            hashes[victim] = hash;
+        }
+    }
+
+    // Forgets a node that is deleted from the tree
+    void remove(TreeNode node) {
+        int slot = home(node.word.hashCode());
+        for (int i = 0; i < MAX_PROBES && slots[slot] != null; i++) {
+            if (slots[slot] == node) {
+                slots[slot] = REMOVED;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // Home slot of a word; the high bits of the hash are folded into the low
+    // ones (as java.util.HashMap does), since only the low bits pick the slot
+    private int home(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for HotWordCache: a full probe window evicts
+    its least frequent node, only for a node at least as
+    frequent, and removed nodes leave markers that keep the
+    other words reachable and are reused by later puts.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotWordCacheTest {
+
+    /**
+     * Creates a node with a given count
+     */
+    private TreeNode node(String word, int frequency) {
+        TreeNode node = new TreeNode(word);
+        node.frequency = frequency;
+        return node;
+    }
+
+    /**
+     * Fills a cache of eight slots, which is one probe window, so every word
+     * competes with every other; word i is seen i + 1 times
+     */
+    private TreeNode[] fill(HotWordCache cache) {
+        TreeNode[] nodes = new TreeNode[8];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = node("word" + i, i + 1);
+            cache.put(nodes[i]);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testGetReturnsCachedNode() {
+        HotWordCache cache = new HotWordCache(8);
+        TreeNode[] nodes = fill(cache);
+        for (TreeNode node : nodes) {
+            assertSame(node, cache.get(node.word));
+        }
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    public void testFullWindowEvictsLeastFrequent() {
+        HotWordCache cache = new HotWordCache(8);
+        TreeNode[] nodes = fill(cache);
+        TreeNode hot = node("hot", 5);
+        cache.put(hot);
+        assertSame(hot, cache.get("hot"));
+        assertNull(cache.get("word0"));
+        for (int i = 1; i < nodes.length; i++) {
+            assertSame(nodes[i], cache.get(nodes[i].word));
+        }
+    }
+
+    @Test
+    public void testRareWordDoesNotEvict() {
+        HotWordCache cache = new HotWordCache(8);
+        TreeNode[] nodes = fill(cache);
+        cache.put(node("rare", 0));
+        assertNull(cache.get("rare"));
+        for (TreeNode node : nodes) {
+            assertSame(node, cache.get(node.word));
+        }
+    }
+
+    @Test
+    public void testRemovedSlotKeepsProbesRunning() {
+        // Whichever slot is removed, the words probing past it stay reachable
+        for (int removed = 0; removed < 8; removed++) {
+            HotWordCache cache = new HotWordCache(8);
+            TreeNode[] nodes = fill(cache);
+            cache.remove(nodes[removed]);
+            assertNull(cache.get(nodes[removed].word));
+            for (int i = 0; i < nodes.length; i++) {
+                if (i != removed) {
+                    assertSame(nodes[i], cache.get(nodes[i].word), nodes[i].word);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPutReusesRemovedSlot() {
+        // A node rarer than every cached one still gets the freed slot, so nothing
+        // is evicted
+        HotWordCache cache = new HotWordCache(8);
+        TreeNode[] nodes = fill(cache);
+        cache.remove(nodes[7]);
+        TreeNode rare = node("rare", 0);
+        cache.put(rare);
+        assertSame(rare, cache.get("rare"));
+        for (int i = 0; i < 7; i++) {
+            assertSame(nodes[i], cache.get(nodes[i].word));
+        }
+    }
+
+    @Test
+    public void testRemoveUncachedNode() {
+        HotWordCache cache = new HotWordCache(8);
+        TreeNode[] nodes = fill(cache);
+        cache.remove(node("word3", 4)); // Same word, different node
+        assertSame(nodes[3], cache.get("word3"));
+    }
+
+    @Test
+    public void testTreeForgetsDeletedWord() {
+        BinarySearchTree tree = new BinarySearchTree(true, 16);
+        for (int i = 0; i < 100; i++) {
+            tree.insert("w" + i % 10);
+        }
+        tree.remove("w3", 10);
+        assertEquals(0, tree.searchWord("w3"));
+        tree.insert("w3");
+        assertEquals(1, tree.searchWord("w3"));
+        assertEquals(10, tree.searchWord("w4"));
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new HotWordCache(0));
+    }
+}
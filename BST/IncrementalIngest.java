@@ -0,0 +1,409 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Incremental, crash-safe ingest for append-only inputs such
+    as log files. A state directory remembers how many bytes of
+    each input file were already counted, so a rerun reads only
+    the newly appended bytes. A last word that no separator has
+    ended yet is kept aside and read again with the next append,
+    which may continue it; the reported counts include it, so
+    they always equal a single pass over the files as they are.
+    Every applied delta is first
+    written to a journal (write-ahead log); after a crash the
+    counts are recovered from the last checkpoint snapshot plus
+    the journal, without re-reading the inputs.
+
+    State directory layout:
+      manifest         checkpoint: sequence number, snapshot
+                       name and the progress through every file
+      counts-<n>.wfs   snapshot of the tree at checkpoint n
+      journal          deltas applied after the checkpoint
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+class IncrementalIngest {
+
+    // "WFM2" - word frequency manifest, version 2 (version 1 had no open last
+    // words)
+    private static final int MANIFEST_MAGIC = 0x57464D32;
+    private static final int MANIFEST_MAGIC_V1 = 0x57464D31;
+
+    // The journal is folded into a new checkpoint once it grows past this size
+    private static final long JOURNAL_CHECKPOINT_BYTES = 64L << 20;
+
+    // (1) State directory and its files
+    // (2) Counts so far, including every journaled delta but not the open last
+    // words
+    // (3) Progress through every input file (absolute path -> progress), in the
+    // order the files were first read
+    // (4) Sequence number of the last delta (journal entries carry it, so entries
+    // already contained in the checkpoint are skipped on replay)
+
+    private final Path stateDir;
+    private final Path manifestFile;
+    private final Path journalFile;
+    private BinarySearchTree tree;
+    private final Map<String, Progress> inputs = new LinkedHashMap<>();
+    private long sequence;
+    private long checkpointSequence;
+    private String snapshotName;
+
+    // How far one input file has been counted
+    private static class Progress {
+        // (1) Bytes counted (the file's size at the last update)
+        // (2) Start of the last word, if no separator has ended it yet (its bytes
+        // are read again by the next update); 'end' if the file ends on a
+        // separator
+        // (3) That last word, not yet in the tree; null if its bytes hold no
+        // letters
+
+        long end;
+        long tailStart;
+        String tail;
+
+        Progress(long end, long tailStart, String tail) {
+            this.end = end;
+            this.tailStart = tailStart;
+            this.tail = tail;
+        }
+    }
+
+    // Opens (or creates) a state directory and recovers the counts from the last
+    // checkpoint and the journal. 'balanced' only applies to a new state.
+    public IncrementalIngest(Path stateDir, boolean balanced) throws IOException {
+        this.stateDir = stateDir;
+        this.manifestFile = stateDir.resolve("manifest");
+        this.journalFile = stateDir.resolve("journal");
+        Files.createDirectories(stateDir);
+
+        tree = new BinarySearchTree(balanced);
+        readManifest();
+        replayJournal();
+    }
+
+    // Returns the tree holding all counts so far. If a file ends inside a word,
+    // that word is added to a copy of the tree (O(n)), as it may still grow.
+    public BinarySearchTree getTree() {
+        BinarySearchTree counts = tree;
+        for (Progress progress : inputs.values()) {
+            if (progress.tail != null) {
+                if (counts == tree) {
+                    counts = tree.copy();
+                }
+                counts.insert(progress.tail);
+            }
+        }
+        return counts;
+    }
+
+    // Counts the bytes appended to 'file' since the last run and returns how many
+    // bytes were read
+    public long update(Path file) throws IOException {
+        // (1) Nothing to do if the file has not grown
+        // (2) Otherwise start at the last word that no separator had ended, since
+        // the appended bytes may continue it; a file that shrank was rotated or
+        // truncated, so it is read from the start, and its old content keeps its
+        // counts, the open last word included
+        // (3) Count up to the last separator and keep the word after it aside
+        // (4) Decide ties for the most frequent word as a single pass over all the
+        // input would, journal the delta, then apply it
+        // (5) Fold the journal into a checkpoint once it gets large
+
+        String key = file.toAbsolutePath().normalize().toString();
+        Progress progress = inputs.get(key);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == (progress == null ? 0 : progress.end)) {
+                return 0;
+            }
+
+            boolean appended = progress != null && size > progress.end;
+            long start = appended ? progress.tailStart : 0;
+            long tailStart = lastSeparatorEnd(channel, start, size);
+            String tail = lastWord(channel, tailStart, size);
+
+            ParallelIngest.ShardCounts delta = ParallelIngest.countShard(channel, start, tailStart, false);
+            if (!appended && progress != null && progress.tail != null) {
+                ParallelIngest.ShardCounts old = new ParallelIngest.ShardCounts();
+                old.counts.put(progress.tail, new ParallelIngest.WordCount());
+                old.counts.get(progress.tail).count = 1;
+                old.tokens = 1;
+                delta = ParallelIngest.merge(old, delta);
+            }
+            String mostFrequent = ParallelIngest.tieBreak(delta, tree);
+
+            sequence++;
+            appendJournal(sequence, key, start, size, delta, mostFrequent, tailStart, tail);
+            apply(key, size, delta, mostFrequent, tailStart, tail);
+
+            if (Files.size(journalFile) > JOURNAL_CHECKPOINT_BYTES) {
+                checkpoint();
+            }
+            return size - start;
+        }
+    }
+
+    // Writes the current counts as a new checkpoint and empties the journal
+    public void checkpoint() throws IOException {
+        // (1) Write the snapshot under a name of its own
+        // (2) Atomically replace the manifest; this is the commit point
+        // (3) Only then drop the old snapshot and the journal (entries up to this
+        // sequence number would be skipped on replay anyway)
+
+        String newSnapshot = "counts-" + sequence + ".wfs";
+        tree.saveSnapshot(stateDir.resolve(newSnapshot));
+
+        String oldSnapshot = snapshotName;
+        snapshotName = newSnapshot;
+        checkpointSequence = sequence;
+        writeManifest();
+
+        if (oldSnapshot != null && !oldSnapshot.equals(newSnapshot)) {
+            Files.deleteIfExists(stateDir.resolve(oldSnapshot));
+        }
+        Files.deleteIfExists(journalFile);
+    }
+
+    // Applies a counted delta to the tree in first-occurrence order, reports the
+    // delta's tie-break word (null if the most frequent word keeps its place)
+    // and records the file's new progress
+    private void apply(String key, long end, ParallelIngest.ShardCounts delta, String mostFrequent, long tailStart,
+            String tail) {
+        for (Map.Entry<String, ParallelIngest.WordCount> entry : delta.counts.entrySet()) {
+            tree.insert(entry.getKey(), entry.getValue().count);
+        }
+        if (mostFrequent != null) {
+            tree.preferMostFrequent(mostFrequent);
+        }
+        inputs.put(key, new Progress(end, tailStart, tail));
+    }
+
+    // Returns the word in [start, end), a range without separators, or null if it
+    // holds no letters
+    private static String lastWord(FileChannel channel, long start, long end) throws IOException {
+        String[] word = new String[1];
+        WordTokenizer.tokenize(channel, start, end, w -> word[0] = w);
+        return word[0];
+    }
+
+    // Returns the position just after the last separator in [start, size), or
+    // 'start' if there is none
+    private static long lastSeparatorEnd(FileChannel channel, long start, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long end = size;
+        while (end > start) {
+            int length = (int) Math.min(buffer.capacity(), end - start);
+            buffer.clear().limit(length);
+            long position = end - length;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("File shrank while reading: " + position);
+                }
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (WordTokenizer.isSeparator(buffer.get(i))) {
+                    return position + i + 1;
+                }
+            }
+            end = position;
+        }
+        return start;
+    }
+
+    // Appends one delta to the journal and forces it to disk
+    private void appendJournal(long seq, String key, long start, long end, ParallelIngest.ShardCounts delta,
+            String mostFrequent, long tailStart, String tail) throws IOException {
+        // Entry: payload length, CRC32 of the payload, payload
+        // Payload: sequence, file, start, end, word count, (word, count) pairs in
+        // first-occurrence order, the position of the tie-break word among the
+        // pairs plus one (0 for none), then where the open last word starts and
+        // the word itself, if any
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeLong(seq);
+        payload.writeUTF(key);
+        payload.writeLong(start);
+        payload.writeLong(end);
+        WordSnapshot.writeVarInt(payload, delta.counts.size());
+        int tieBreak = 0;
+        int position = 0;
+        for (Map.Entry<String, ParallelIngest.WordCount> entry : delta.counts.entrySet()) {
+            byte[] word = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            WordSnapshot.writeVarInt(payload, word.length);
+            payload.write(word);
+            WordSnapshot.writeVarInt(payload, entry.getValue().count);
+            position++;
+            if (entry.getKey().equals(mostFrequent)) {
+                tieBreak = position;
+            }
+        }
+        WordSnapshot.writeVarInt(payload, tieBreak);
+        payload.writeLong(tailStart);
+        payload.writeBoolean(tail != null);
+        if (tail != null) {
+            payload.writeUTF(tail);
+        }
+        payload.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+
+        ByteBuffer entry = ByteBuffer.allocate(8 + bytes.size());
+        entry.putInt(bytes.size()).putInt((int) crc.getValue()).put(bytes.toByteArray()).flip();
+
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (entry.hasRemaining()) {
+                channel.write(entry);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Re-applies the journaled deltas that are newer than the checkpoint. A torn
+    // or corrupt entry at the end (crash during a write) is cut off.
+    private void replayJournal() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+
+        long journalSize = Files.size(journalFile);
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 0 || valid + 8 + length > journalSize) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+                long seq = entry.readLong();
+                String key = entry.readUTF();
+                entry.readLong(); // start offset, kept for inspection
+                long end = entry.readLong();
+                int words = readVarInt(entry);
+
+                ParallelIngest.ShardCounts delta = new ParallelIngest.ShardCounts();
+                String[] order = new String[words];
+                for (int i = 0; i < words; i++) {
+                    byte[] word = new byte[readVarInt(entry)];
+                    entry.readFully(word);
+                    order[i] = new String(word, StandardCharsets.UTF_8);
+                    ParallelIngest.WordCount wc = new ParallelIngest.WordCount();
+                    wc.count = readVarInt(entry);
+                    delta.counts.put(order[i], wc);
+                }
+                // The fields after the pairs are absent in older journals
+                int tieBreak = entry.available() > 0 ? readVarInt(entry) : 0;
+                long tailStart = entry.available() > 0 ? entry.readLong() : end;
+                String tail = entry.available() > 0 && entry.readBoolean() ? entry.readUTF() : null;
+
+                if (seq > checkpointSequence) {
+                    apply(key, end, delta, tieBreak == 0 ? null : order[tieBreak - 1], tailStart, tail);
+                    sequence = seq;
+                }
+                valid += 8 + payload.length;
+            }
+        }
+
+        if (valid < journalSize) {
+            try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(false);
+            }
+        }
+    }
+
+    // Reads an unsigned LEB128 variable-length int
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Loads the last checkpoint, if there is one
+    private void readManifest() throws IOException {
+        if (!Files.exists(manifestFile)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifestFile)))) {
+            int magic = in.readInt();
+            if (magic != MANIFEST_MAGIC && magic != MANIFEST_MAGIC_V1) {
+                throw new IOException("Not an incremental ingest manifest: " + manifestFile);
+            }
+            checkpointSequence = in.readLong();
+            sequence = checkpointSequence;
+            snapshotName = in.readUTF();
+            int files = in.readInt();
+            for (int i = 0; i < files; i++) {
+                String key = in.readUTF();
+                long end = in.readLong();
+                if (magic == MANIFEST_MAGIC_V1) {
+                    inputs.put(key, new Progress(end, end, null));
+                } else {
+                    long tailStart = in.readLong();
+                    inputs.put(key, new Progress(end, tailStart, in.readBoolean() ? in.readUTF() : null));
+                }
+            }
+        }
+        tree = BinarySearchTree.loadSnapshot(stateDir.resolve(snapshotName));
+    }
+
+    // Atomically replaces the manifest with the current checkpoint
+    private void writeManifest() throws IOException {
+        Path temp = stateDir.resolve("manifest.tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeLong(checkpointSequence);
+            out.writeUTF(snapshotName);
+            out.writeInt(inputs.size());
+            for (Map.Entry<String, Progress> entry : inputs.entrySet()) {
+                Progress progress = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(progress.end);
+                out.writeLong(progress.tailStart);
+                out.writeBoolean(progress.tail != null);
+                if (progress.tail != null) {
+                    out.writeUTF(progress.tail);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for IncrementalIngest: appended input is
+    counted once (a last word without a line break included),
+    a journal whose last entry was torn or
+    corrupted by a crash recovers the entries before it, and
+    the recovered counts (ties included) equal a single pass
+    over the whole file.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalIngestTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Appends text to the log file
+     */
+    private void append(Path log, String text) throws IOException {
+        Files.writeString(log, text, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Counts the log file in one pass, as Main does without --incremental
+     */
+    private BinarySearchTree singlePass(Path log) throws IOException {
+        BinarySearchTree tree = new BinarySearchTree();
+        WordTokenizer.tokenize(log.toString(), tree::insert);
+        return tree;
+    }
+
+    /**
+     * Checks that two trees hold the same words, counts and most frequent word
+     */
+    private void assertSameCounts(BinarySearchTree expected, BinarySearchTree actual) {
+        assertEquals(expected.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                actual.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(expected.getTotalWords(), actual.getTotalWords());
+        assertEquals(expected.getUniqueWords(), actual.getUniqueWords());
+        assertEquals(expected.getMostFrequentWord(), actual.getMostFrequentWord());
+    }
+
+    @Test
+    public void testOnlyAppendedBytesAreCounted() throws IOException {
+        Path log = dir.resolve("app.log");
+        IncrementalIngest ingest = new IncrementalIngest(dir.resolve("state"), false);
+        append(log, "error disk full\n");
+        assertEquals(16, ingest.update(log));
+        append(log, "error network down\n");
+        assertEquals(19, ingest.update(log));
+        assertEquals(0, ingest.update(log));
+        assertEquals(2, ingest.getTree().searchWord("error"));
+        assertSameCounts(singlePass(log), ingest.getTree());
+    }
+
+    @Test
+    public void testUnfinishedLineIsReadAgain() throws IOException {
+        Path log = dir.resolve("app.log");
+        IncrementalIngest ingest = new IncrementalIngest(dir.resolve("state"), false);
+        append(log, "error disk\nfu");
+        assertEquals(13, ingest.update(log));
+        assertEquals(1, ingest.getTree().searchWord("fu"));
+        append(log, "ll\n");
+        assertEquals(5, ingest.update(log));
+        assertEquals(0, ingest.getTree().searchWord("fu"));
+        assertEquals(1, ingest.getTree().searchWord("full"));
+        assertSameCounts(singlePass(log), ingest.getTree());
+    }
+
+    @Test
+    public void testLastWordWithoutNewline() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "error disk full");
+        ingest.update(log);
+        assertEquals(1, ingest.getTree().searchWord("full"));
+        assertSameCounts(singlePass(log), ingest.getTree());
+
+        // The append continues the open word, which is counted again as a whole
+        append(log, "er disk");
+        ingest.update(log);
+        assertEquals(0, ingest.getTree().searchWord("full"));
+        assertEquals(1, ingest.getTree().searchWord("fuller"));
+        assertSameCounts(singlePass(log), ingest.getTree());
+
+        IncrementalIngest recovered = new IncrementalIngest(state, false);
+        assertSameCounts(singlePass(log), recovered.getTree());
+        recovered.checkpoint();
+        append(log, "s\n");
+        recovered.update(log);
+        assertEquals(1, recovered.getTree().searchWord("disks"));
+        assertSameCounts(singlePass(log), recovered.getTree());
+        assertSameCounts(singlePass(log), new IncrementalIngest(state, false).getTree());
+    }
+
+    @Test
+    public void testRotatedFileKeepsItsLastWord() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "error disk full");
+        ingest.update(log);
+        Files.writeString(log, "ok\n");
+        ingest.update(log);
+        assertEquals(4, ingest.getTree().getTotalWords());
+        assertEquals(1, ingest.getTree().searchWord("full"));
+        assertSameCounts(ingest.getTree(), new IncrementalIngest(state, false).getTree());
+    }
+
+    @Test
+    public void testExampleFiles() throws IOException {
+        // Some of them do not end with a line break
+        for (int i = 1; i <= 6; i++) {
+            Path file = Paths.get(String.format("example%02d.txt", i));
+            if (Files.exists(file)) {
+                IncrementalIngest ingest = new IncrementalIngest(dir.resolve("state" + i), false);
+                ingest.update(file);
+                assertSameCounts(singlePass(file), ingest.getTree());
+            }
+        }
+    }
+
+    @Test
+    public void testAppendsCutAnywhere() throws IOException {
+        // Appends split words, lines and punctuation at random bytes, with restarts
+        // and checkpoints in between
+        Random random = new Random(12);
+        String[] pieces = { "a", "b", "ab", "c", " ", " ", "\n", ".", "'" };
+        for (int round = 0; round < 100; round++) {
+            Path log = dir.resolve("app" + round + ".log");
+            Path state = dir.resolve("state" + round);
+            IncrementalIngest ingest = new IncrementalIngest(state, false);
+            for (int update = 0; update < 6; update++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(8); i > 0; i--) {
+                    text.append(pieces[random.nextInt(pieces.length)]);
+                }
+                append(log, text.toString());
+                if (random.nextInt(3) == 0) {
+                    ingest = new IncrementalIngest(state, false);
+                }
+                ingest.update(log);
+                if (random.nextInt(4) == 0) {
+                    ingest.checkpoint();
+                }
+                assertSameCounts(singlePass(log), ingest.getTree());
+            }
+            assertSameCounts(singlePass(log), new IncrementalIngest(state, false).getTree());
+        }
+    }
+
+    @Test
+    public void testRecoversFromJournalAfterRestart() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        IncrementalIngest ingest = new IncrementalIngest(state, true);
+        append(log, "a b c\n");
+        ingest.update(log);
+        ingest.checkpoint();
+        append(log, "c b\n");
+        ingest.update(log);
+        append(log, "a d\n");
+        ingest.update(log);
+
+        IncrementalIngest recovered = new IncrementalIngest(state, true);
+        assertSameCounts(ingest.getTree(), recovered.getTree());
+        assertEquals(0, recovered.update(log));
+        assertSameCounts(singlePass(log), recovered.getTree());
+    }
+
+    @Test
+    public void testTornLastEntryIsCutOff() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        Path journal = state.resolve("journal");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "alpha beta alpha\n");
+        ingest.update(log);
+        long firstEntry = Files.size(journal);
+        append(log, "gamma beta gamma gamma\n");
+        ingest.update(log);
+
+        // Crash halfway through writing the second entry
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(firstEntry + (Files.size(journal) - firstEntry) / 2);
+        }
+
+        IncrementalIngest recovered = new IncrementalIngest(state, false);
+        assertEquals(firstEntry, Files.size(journal));
+        assertEquals(2, recovered.getTree().searchWord("alpha"));
+        assertEquals(0, recovered.getTree().searchWord("gamma"));
+
+        // The lost delta is read again from the input
+        recovered.update(log);
+        assertSameCounts(singlePass(log), recovered.getTree());
+        assertSameCounts(recovered.getTree(), new IncrementalIngest(state, false).getTree());
+    }
+
+    @Test
+    public void testTornEntryHeaderIsCutOff() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        Path journal = state.resolve("journal");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "alpha beta\n");
+        ingest.update(log);
+        long size = Files.size(journal);
+        Files.write(journal, new byte[] { 0, 0, 1 }, StandardOpenOption.APPEND);
+
+        IncrementalIngest recovered = new IncrementalIngest(state, false);
+        assertEquals(size, Files.size(journal));
+        assertSameCounts(singlePass(log), recovered.getTree());
+    }
+
+    @Test
+    public void testCorruptLastEntryIsCutOff() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        Path journal = state.resolve("journal");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "alpha beta\n");
+        ingest.update(log);
+        long firstEntry = Files.size(journal);
+        append(log, "beta gamma\n");
+        ingest.update(log);
+
+        // Flip a bit in the last byte, which the checksum covers
+        byte[] bytes = Files.readAllBytes(journal);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(journal, bytes);
+
+        IncrementalIngest recovered = new IncrementalIngest(state, false);
+        assertEquals(firstEntry, Files.size(journal));
+        assertEquals(1, recovered.getTree().searchWord("beta"));
+        recovered.update(log);
+        assertSameCounts(singlePass(log), recovered.getTree());
+    }
+
+    @Test
+    public void testTiesBreakLikeSinglePass() throws IOException {
+        // 'b' reaches two first in the second delta, then 'a' catches up; a single
+        // pass keeps 'b' as the most frequent word
+        Path log = dir.resolve("app.log");
+        Path state = dir.resolve("state");
+        IncrementalIngest ingest = new IncrementalIngest(state, false);
+        append(log, "a b\n");
+        ingest.update(log);
+        append(log, "b a\n");
+        ingest.update(log);
+
+        assertEquals("b (2 times)", singlePass(log).getMostFrequentWord());
+        assertEquals("b (2 times)", ingest.getTree().getMostFrequentWord());
+        assertEquals("b (2 times)", new IncrementalIngest(state, false).getTree().getMostFrequentWord());
+    }
+}
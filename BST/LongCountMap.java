@@ -0,0 +1,107 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Hash map from long keys to int counts, stored in two
+    primitive arrays with open addressing (linear probing). An
+    entry costs 12 bytes plus free slots, with no boxing or
+    per-entry objects. Key 0 marks an empty slot, so keys must
+    be non-zero. Used by NGramCounter for packed n-grams.
+---------------------------------------------------------
+*/
+
+class LongCountMap {
+
+    // Receives the entries of forEach()
+    interface Visitor {
+        void visit(long key, int count);
+    }
+
+    // (1) Keys and their counts; key 0 marks an empty slot
+    // (2) Number of keys stored
+    // (3) Slot count minus one (the slot count is a power of two)
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+    private int mask;
+
+    // Creates a map with room for about 'expected' keys before it grows
+    LongCountMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 3 / 2) - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // Adds 'count' to a key's count
+    void add(long key, int count) {
+        // (1) Find the key's slot, or the empty slot where it belongs
+        // (2) A new key may push the load above 2/3, which doubles the table
+
+        if (key == 0) {
+            throw new IllegalArgumentException("key must not be 0");
+        }
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            counts[slot] = Math.addExact(counts[slot], count);
+            return;
+        }
+        keys[slot] = key;
+        counts[slot] = count;
+        if (++size * 3 > keys.length * 2) {
+            grow();
+        }
+    }
+
+    // Returns a key's count (0 if it was never added)
+    int get(long key) {
+        return key == 0 ? 0 : counts[slot(key)];
+    }
+
+    // Number of keys stored
+    int size() {
+        return size;
+    }
+
+    // Hands every (key, count) entry to the visitor, in no particular order
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    // Memory held by the table, in bytes
+    long memoryBytes() {
+        return 12L * keys.length;
+    }
+
+    // Returns the slot holding 'key', or the empty slot where it would go
+    private int slot(long key) {
+        int slot = (int) CountMinSketch.mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Doubles the table and re-inserts every entry
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
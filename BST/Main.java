@@ -12,332 +12,207 @@ Description:
 
 
 import java.io.*; // Import for file handling
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*; // Import for utility classes like Scanner
 
-// TODO #1
-// Represents a node in the Binary Search Tree (BST)
-class TreeNode {
-    // (1) The word stored in this node
-    // (2) Count of occurrences of the word
-    // (3) Pointers to left and right children
-
-    String word;
-
-    int frequency;
-
-    TreeNode left;
-    TreeNode right;
-
-    // Constructor initializes a new node with the given word
-    public TreeNode(String word) {
-        // (1) Assigns the input word to the node
-        // (2) New word starts with frequency of 1
-        // (3) Initially, no children
-
-        this.word = word;
-        this.frequency = 1;
-
-        this.left = null;
-        this.right = null;
-
-    }
-}
-
-// TODO #2
-// Binary Search Tree implementation for storing and analyzing words
-class BinarySearchTree {
-    // (1) Root of the BST
-    // (2) Total words inserted (including duplicates)
-    // (3) Count of unique words
-    // (4) Stores the node with the highest frequency
-
-    private TreeNode root;
-    private int totalWords;
-    private int uniqueWords;
-    private TreeNode mostFrequentNode;
-
-    // Inserts a word into the Binary Search Tree (BST)
-    public void insert(String word) {
-        // (1) Calls the recursive function to insert the word, starting from the root
-        // node
-
-        root = insertRecursive(root, word);
-
-    }
-
-    // TODO #3
-    // Helper function to recursively insert a word into the BST
-    private TreeNode insertRecursive(TreeNode node, String word) {
-        // **BST Property**: Smaller words go to the left subtree, larger words go to
-        // the right.
-
-        // (1) If the current node is null, insert a new node with the word
-        // (2) Increase the unique word count
-        // (3) Return the updated node
-
-        if (node == null) {
-            uniqueWords++;
-            totalWords++;
-            TreeNode newNode = new TreeNode(word);
-
-            if (mostFrequentNode == null) {
-                mostFrequentNode = newNode;
-            }
-
-            return newNode;
-        }
-
-        int comparison = word.compareTo(node.word);
-
-        // (4) If word is smaller, insert into left subtree
-        // (5) Else if word is larger, insert into right subtree
-        // (6) Else the word already exists, so increase its frequency
-
-        if (comparison < 0) {
-            node.left = insertRecursive(node.left, word);
-        } else if (comparison > 0) {
-            node.right = insertRecursive(node.right, word);
-        } else {
-            node.frequency++;
-            totalWords++;
-        }
-
-        // (7) Update most frequent word tracking
-        // (8) Return the updated node
-
-        if (node.frequency > mostFrequentNode.frequency) {
-            mostFrequentNode = node;
-        }
-        return node;
-    }
-
-    // TODO #4
-    // Returns the traversal output as a string based on the selected traversal type
-    public String getTraversalOutput(int type) {
-        // (1) Creates a StringBuilder to store the traversal result
-        // (2) Checks the value of 'type' to determine which traversal to perform
-        // (3) If type is 1, perform in-order traversal
-        // (4) If type is 2, perform pre-order traversal
-        // (5) If type is 3, perform post-order traversal
-        // (6) If input is invalid, return an error message
-
-        StringBuilder result = new StringBuilder();
-
-        switch (type) {
-            case 1:
-                traverseInOrder(root, result);
-                break;
-
-            case 2:
-                traversePreOrder(root, result);
-                break;
-
-            case 3:
-                traversePostOrder(root, result);
-                break;
-
-            default:
-                return "Error, Invalid Traversal type.";
-
-        }
-        return result.toString();
-    }
-
-    // TODO #5
-    // Performs in-order traversal (Left, Root, Right)
-    private void traverseInOrder(TreeNode node, StringBuilder result) {
-        // (1) Check if the current node is not null before processing
-        // (2) Recursively traverse the left subtree (Left)
-        // (3) Append the current node's word to the result (Root)
-        // (4) Recursively traverse the right subtree (Right)
-
-        if (node != null) {
-            traverseInOrder(node.left, result);
-            result.append(node.word).append(" (").append(node.frequency).append(")\n"); // I used the AI tool Chat GPT
-                                                                                        // to clarify the syntax for
-                                                                                        // apppending formatted strings
-                                                                                        // in Java
-            traverseInOrder(node.right, result);
-        }
-    }
-
-    // TODO #6
-    // Performs pre-order traversal (Root, Left, Right)
-    private void traversePreOrder(TreeNode node, StringBuilder result) {
-        // (1) Check if the current node is not null before processing
-        // (2) Append the current node's word to the result (Root)
-        // (3) Recursively traverse the left subtree (Left)
-        // (4) Recursively traverse the right subtree (Right)
-
-        if (node != null) {
-            result.append(node.word).append(" (").append(node.frequency).append(")\n"); // I used the AI tool Chat GPT
-                                                                                        // to clarify the syntax for
-                                                                                        // apppending formatted strings
-                                                                                        // in Java
-            traverseInOrder(node.right, result);
-            traversePreOrder(node.left, result);
-            traversePreOrder(node.right, result);
-        }
-    }
+public class Main {
 
-    // TODO #7
-    // Performs post-order traversal (Left, Right, Root)
-    private void traversePostOrder(TreeNode node, StringBuilder result) {
-        // (1) Check if the current node is not null before processing
-        // (2) Recursively traverse the left subtree (Left)
-        // (3) Recursively traverse the right subtree (Right)
-        // (4) Append the current node's word to the result (Root)
+    // Words counted between two snapshots published by --serve
+    private static final int PUBLISH_EVERY = 1 << 20;
 
-        if (node != null) {
-            traversePostOrder(node.left, result);
-            traversePostOrder(node.right, result);
-            result.append(node.word).append(" (").append(node.frequency).append(")\n"); // I used the AI tool Chat GPT
-                                                                                        // to clarify the syntax for
-                                                                                        // apppending formatted strings
-                                                                                        // in Java
-            traverseInOrder(node.right, result);
+    // Words counted between two ingest samples taken by --metrics
+    private static final int METRICS_SAMPLE_EVERY = 1 << 16;
 
+    public static void main(String[] args) {
+        // Optional flags: --balanced keeps the tree height logarithmic on sorted
+        // input, --parallel ingests the file on all cores, --compact stores the
+        // tree in primitive arrays instead of node objects, --save <file> writes a
+        // snapshot after reading the text, --load <file> opens a saved snapshot
+        // instead of reading any text (--load a.wfs,b.wfs,... merges several into
+        // one, written to the --save file if given), --incremental <dir> counts only what was
+        // appended to the file since the last run, keeping its state in <dir>,
+        // --cache puts a hash cache of the hottest words in front of the tree,
+        // --unicode counts words in any script instead of only a-z, --window
+        // <seconds> only counts the words read during the last <seconds> seconds,
+        // --approximate estimates the counts in fixed memory (sketches), --bulk
+        // collects all words first and builds a minimum-height tree from them,
+        // --index reads every file of a directory and also reports which files
+        // contain a searched word, --serve <port> answers queries over TCP on
+        // the loopback address while the file is being counted, --metrics <file>
+        // writes comparison counts, cache hits and ingest throughput as JSON,
+        // --radix stores the words in a radix tree (compressed trie) instead,
+        // --ngrams <n> also counts runs of n words (2 = bigrams, 3 = trigrams)
+        boolean balanced = Arrays.asList(args).contains("--balanced");
+        boolean parallel = Arrays.asList(args).contains("--parallel");
+        boolean compact = Arrays.asList(args).contains("--compact");
+        boolean cached = Arrays.asList(args).contains("--cache");
+        boolean unicode = Arrays.asList(args).contains("--unicode");
+        String saveFile = optionValue(args, "--save");
+        String loadFile = optionValue(args, "--load");
+        String stateDir = optionValue(args, "--incremental");
+        String windowSeconds = optionValue(args, "--window");
+        boolean approximate = Arrays.asList(args).contains("--approximate");
+        boolean bulk = Arrays.asList(args).contains("--bulk");
+        boolean indexed = Arrays.asList(args).contains("--index");
+        String servePort = optionValue(args, "--serve");
+        String metricsFile = optionValue(args, "--metrics");
+        boolean radix = Arrays.asList(args).contains("--radix");
+        String ngramSize = optionValue(args, "--ngrams");
+
+        if (stateDir != null && (compact || cached || radix || approximate || bulk || parallel || unicode
+                || windowSeconds != null || indexed || ngramSize != null || loadFile != null || servePort != null
+                || metricsFile != null)) {
+            // The saved state belongs to one default tree and the a-z tokenizer, and
+            // is fed from one file read by the default path
+            System.out.println("--incremental counts one file into its own default tree; it cannot be combined with "
+                    + "--compact, --cache, --radix, --approximate, --bulk, --parallel, --unicode, --window, "
+                    + "--index, --ngrams, --load, --serve or --metrics.");
+            return;
         }
-    }
-
-    // TODO #8
-    // Computes and returns the total number of words in the BST, including
-    // duplicates
-    public int getTotalWords() {
-        // (1) Reset the total word count to 0 before recalculating
-        // (2) Call the helper function to count word occurrences
-        // (3) Return the computed total number of words
-
-        totalWords = 0;
-        countWords(root);
-        return totalWords;
-    }
-
-    // TODO #9
-    // Helper function to count words recursively in the BST
-    private void countWords(TreeNode node) {
-        // (1) Check if the current node is not null before processing
-        // (2) Add the frequency of the current node's word to the total count
-        // (3) Recursively traverse left subtree
-        // (4) Recursively traverse right subtree
-
-        if (node != null) {
-            totalWords += node.frequency;
-            countWords(node.left);
-            countWords(node.right);
+        if (radix && (compact || cached || approximate)) {
+            // Each of them picks a different counter; the radix tree has no word cache
+            System.out.println("--radix cannot be combined with --compact, --cache or --approximate.");
+            return;
         }
-    }
-
-    // TODO #10
-    // Returns the count of unique words stored in the BST
-    public int getUniqueWords() {
-        // (1) Return the total number of unique words
-
-        return uniqueWords;
-    }
-
-    // TODO #11
-    // Returns the most frequent word along with its occurrence count
-    public String getMostFrequentWord() {
-        // (1) Retrieve the word stored in mostFrequentNode
-        // (2) Append the frequency count in the format "word (X times)"
-
-        if (mostFrequentNode != null) {
-            return mostFrequentNode.word + " (" + mostFrequentNode.frequency + " times)";
-        } else {
-            return "No words in the tree."; // If no most frequent word is found (i.e., tree is empty), return a default
-                                            // message
-
+        if (windowSeconds != null && (compact || cached || radix || approximate)) {
+            // The window counts into a tree of its own, which removes expired words
+            System.out.println("--window cannot be combined with --compact, --cache, --radix or --approximate.");
+            return;
         }
-    }
-
-    // TODO #12
-    // Computes and returns the height of the BST
-    public int getTreeHeight() {
-        // (1) Calls the helper function getHeight() starting from the root
-        return getHeight(root);
-    }
-
-    // TODO #13
-    // Helper function to calculate the height of the BST recursively
-    private int getHeight(TreeNode node) {
-        // **Clarification**: Height is measured in edges, not nodes.
-        // ** As per lecture slides: 'Trees - (3) Binary (Part 1) - Levels & Heights'
-        // This means:
-        // - An empty tree has height -1 (since there are no edges).
-        // - A tree with a single node has height 0.
-
-        // (1) Base case: If the tree is empty (null node), return height -1.
-        // (2) Get the height of the left subtree.
-        // (3) Get the height of the right subtree.
-        // (4) Return the maximum height between left and right subtrees + 1.
-
-        if (node == null) {
-            return -1;
+        if (metricsFile != null && (parallel || bulk || compact || radix || approximate || windowSeconds != null
+                || indexed || ngramSize != null || loadFile != null || servePort != null)) {
+            // Only the default tree, fed one word at a time, collects metrics
+            System.out.println("--metrics only measures the default tree; it cannot be combined with --parallel, "
+                    + "--bulk, --compact, --radix, --approximate, --window, --index, --ngrams, --load or --serve.");
+            return;
         }
 
-        int leftHeight = getHeight(node.left);
-        int rightHeight = getHeight(node.right);
-
-        if (leftHeight > rightHeight) {
-            return leftHeight + 1;
+        Scanner scanner = new Scanner(System.in);
+        WordCounts bst;
+        NGramCounter ngrams = null;
+
+        if (loadFile != null) {
+            try {
+                String[] parts = loadFile.split(",");
+                Path snapshot = Paths.get(parts[0]);
+                if (parts.length > 1) {
+                    // Reduce partial counts into one snapshot, then open that
+                    List<Path> inputs = new ArrayList<>();
+                    for (String part : parts) {
+                        inputs.add(Paths.get(part));
+                    }
+                    if (saveFile != null) {
+                        snapshot = Paths.get(saveFile);
+                    } else {
+                        snapshot = Files.createTempFile("merged", ".wfs");
+                        snapshot.toFile().deleteOnExit();
+                    }
+                    WordSnapshot.merge(inputs, snapshot);
+                }
+                bst = WordSnapshot.open(snapshot); // Memory-map the saved tree
+            } catch (IOException e) {
+                System.out.println("Error reading snapshot: " + e.getMessage());
+                return;
+            }
         } else {
-            return rightHeight + 1;
-        }
-    }
-
-    // TODO #14
-    // Searches for a word in the BST and returns its frequency
-    public int searchWord(String word) {
-        // (1) Calls the recursive helper function, starting from the root
-        return searchWordRecursive(root, word);
-    }
-
-    // TODO #15
-    // Helper function to recursively search for a word in the BST
-    private int searchWordRecursive(TreeNode node, String word) {
-        // (1) Base case: If node is null, the word is not in the BST
-        // (2) If word matches current node, return its frequency
-        // (3) If word is smaller, search left subtree
-        // (4) If word is larger, search right subtree
+            System.out.print(indexed ? "Enter input directory: " : "Enter input file name: ");
+            String filename = scanner.nextLine(); // Read file name from user input
 
-        if (node == null) {
-            return 0;
-        }
-
-        if (node.word.compareTo(word) == 0) {
-            return node.frequency;
-        }
-
-        if (word.compareTo(node.word) < 0) {
-            return searchWordRecursive(node.left, word);
-        }
-
-        return searchWordRecursive(node.right, word);
-    }
-}
+            if (servePort != null) {
+                serve(filename, servePort, balanced, unicode, scanner);
+                return;
+            }
 
-public class Main {
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter input file name: ");
-        String filename = scanner.nextLine(); // Read file name from user input
+            // Create BST instance
+            WordCounter counter = compact ? new CompactWordTree(balanced) : new BinarySearchTree(balanced, cached ? 16384 : 0);
+            if (radix) {
+                counter = new RadixWordTree(); // Shared prefixes are stored and compared once
+            }
+            if (approximate) {
+                // Error at most 0.001% of all words (99% of the time), 1000 top words kept
+                counter = new ApproximateWordCounter(1e-5, 0.01, 1000);
+            } else if (windowSeconds != null) {
+                // Count over a sliding window, expired in one-second slices (coarser
+                // ones for windows over an hour)
+                try {
+                    long seconds = Long.parseLong(windowSeconds);
+                    counter = new WindowedWordCounter(seconds * 1000, (int) Math.min(seconds, 3600), balanced);
+                } catch (IllegalArgumentException e) { // also covers NumberFormatException
+                    System.out.println("Invalid window: " + windowSeconds + " (expected a positive number of seconds)");
+                    return;
+                }
+            }
+            bst = counter;
+            try {
+                if (indexed) {
+                    // Count every file of the directory in parallel, with per-file postings
+                    bst = WordIndex.build(Paths.get(filename), unicode);
+                } else if (ngramSize != null) {
+                    // Count the words, then the n-grams of their IDs in a second pass
+                    try {
+                        ngrams = NGramCounter.count(filename, Integer.parseInt(ngramSize), unicode, balanced);
+                    } catch (IllegalArgumentException e) { // also covers NumberFormatException
+                        System.out.println("Invalid n-gram size: " + ngramSize + " (" + e.getMessage() + ")");
+                        return;
+                    }
+                    bst = ngrams.getUnigrams();
+                } else if (stateDir != null) {
+                    // Recover the saved counts and read only the newly appended bytes
+                    IncrementalIngest ingest = new IncrementalIngest(Paths.get(stateDir), balanced);
+                    long read = ingest.update(Paths.get(filename));
+                    System.out.println("Bytes read: " + read);
+                    bst = ingest.getTree();
+                } else if (parallel) {
+                    ParallelIngest.ingest(filename, unicode, counter); // Count shards on a fork-join pool
+                } else if (bulk && counter instanceof BinarySearchTree) {
+                    // Count the distinct words as they stream in, then sort and link them
+                    // in one go; sorted input no longer turns the tree into a list
+                    BinarySearchTree.BulkLoader loader = new BinarySearchTree.BulkLoader();
+                    WordTokenizer.tokenize(filename, unicode, loader::add);
+                    bst = loader.build(balanced);
+                } else if (counter instanceof CompactWordTree) {
+                    // Hand the words to the compact tree as UTF-8 bytes, without creating
+                    // a String per word
+                    CompactWordTree tree = (CompactWordTree) counter;
+                    WordTokenizer.tokenizeBytes(filename, unicode, (word, length) -> tree.insertUtf8(word, 0, length, 1));
+                } else if (metricsFile != null && counter instanceof BinarySearchTree) {
+                    // Count with metrics on, sampling the ingest every METRICS_SAMPLE_EVERY words
+                    BinarySearchTree tree = (BinarySearchTree) counter;
+                    TreeMetrics metrics = new TreeMetrics();
+                    tree.setMetrics(metrics);
+                    WordTokenizer.tokenize(filename, unicode, word -> {
+                        tree.insert(word);
+                        if (tree.getTotalWords() % METRICS_SAMPLE_EVERY == 0) {
+                            metrics.ingestProgress(tree.getTotalWords(), tree);
+                        }
+                    });
+                    metrics.ingestFinished(tree.getTotalWords(), Files.size(Paths.get(filename)), tree);
+                } else {
+                    // Memory-map the file, lower-case it and strip non-letters, and insert
+                    // each word into BST
+                    WordTokenizer.tokenize(filename, unicode, counter::insert);
+                }
+            } catch (IOException e) {
+                System.out.println("Error reading file: " + e.getMessage()); // Handle file errors
+                return;
+            }
 
-        BinarySearchTree bst = new BinarySearchTree(); // Create BST instance
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) { // Read file line by line
-                // Convert to lowercase, remove non-letter characters, and split into words
-                String[] words = line.toLowerCase().replaceAll("[^a-zA-Z ]", "").split("\\s+");
-                for (String word : words) {
-                    if (!word.isEmpty()) { // Ensure word is not empty
-                        bst.insert(word); // Insert word into BST
+            if (saveFile != null) {
+                if (bst instanceof BinarySearchTree) {
+                    try {
+                        ((BinarySearchTree) bst).saveSnapshot(Paths.get(saveFile));
+                    } catch (IOException e) {
+                        System.out.println("Error writing snapshot: " + e.getMessage());
                     }
+                } else {
+                    System.out.println("Snapshots can only be saved from the default tree.");
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Error reading file: " + e.getMessage()); // Handle file errors
-            return;
+            if (metricsFile != null) {
+                writeMetrics(bst, metricsFile);
+            }
         }
 
         // Display statistics
@@ -345,9 +220,19 @@ public class Main {
         System.out.println("Unique words: " + bst.getUniqueWords());
         System.out.println("Most frequent word: " + bst.getMostFrequentWord());
         System.out.println("Tree height: " + bst.getTreeHeight());
+        if (ngrams != null) {
+            System.out.println("Total " + ngrams.getN() + "-grams: " + ngrams.getTotalNGrams());
+            System.out.println("Unique " + ngrams.getN() + "-grams: " + ngrams.getUniqueNGrams() + " ("
+                    + ngrams.memoryBytes() / 1024 + " KB)");
+            for (Map.Entry<String, Integer> entry : ngrams.topK(10)) {
+                System.out.println("  " + entry.getKey() + " (" + entry.getValue() + " times)");
+            }
+            System.out.println("Enter " + ngrams.getN() + " words separated by spaces to search for an n-gram.");
+        }
 
         while (true) {
-            System.out.println("Enter a word to search (or type 'traverse' to display tree, 'exit' to quit): ");
+            System.out.println(
+                    "Enter a word to search (or type 'traverse' to display tree, 'top' for the most frequent words, 'exit' to quit): ");
             String input = scanner.nextLine().toLowerCase();
 
             if (input.equals("exit"))
@@ -357,22 +242,116 @@ public class Main {
                 String choice = scanner.nextLine();
                 try {
                     int traversalType = Integer.parseInt(choice);
-                    System.out.println(bst.getTraversalOutput(traversalType));
+                    // Stream the traversal to the console instead of building one big string
+                    bst.writeTraversal(traversalType, new OutputStreamWriter(System.out));
+                    System.out.println();
                 } catch (NumberFormatException e) {
                     System.out.println("Invalid input. Please enter 1, 2, or 3.");
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                } catch (IOException e) {
+                    System.out.println("Error writing traversal: " + e.getMessage());
+                }
+                continue;
+            }
+            if (input.equals("top")) {
+                System.out.println("How many words?");
+                try {
+                    int k = Integer.parseInt(scanner.nextLine().trim());
+                    for (Map.Entry<String, Integer> entry : bst.topK(k)) {
+                        System.out.println(entry.getKey() + " (" + entry.getValue() + " times)");
+                    }
+                } catch (IllegalArgumentException e) { // also covers NumberFormatException
+                    System.out.println("Invalid input. Please enter a non-negative number.");
                 }
                 continue;
             }
 
             if (input.trim().isEmpty()) {
                 System.out.println("Please enter a valid word."); // to handle edge case for empty input
+            } else if (ngrams != null && input.trim().contains(" ")) {
+                String[] words = input.trim().split("\\s+");
+                try {
+                    System.out.println("'" + String.join(" ", words) + "' appears " + ngrams.count(words)
+                            + " time(s) in the text.");
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                }
             } else {
 
                 int frequency = bst.searchWord(input);
                 System.out.println("Word '" + input + "' appears " + frequency + " time(s) in the text.");
+                if (bst instanceof WordIndex) {
+                    WordIndex index = (WordIndex) bst;
+                    System.out.println("Found in " + index.documentFrequency(input) + " of " + index.getDocumentCount()
+                            + " file(s):");
+                    for (Map.Entry<String, Integer> document : index.documents(input).entrySet()) {
+                        System.out.println("  " + document.getKey() + " (" + document.getValue() + " times)");
+                    }
+                }
+            }
+        }
+
+        if (metricsFile != null) {
+            writeMetrics(bst, metricsFile); // Now including the searches
+        }
+    }
+
+    // Writes the tree's metrics as JSON to 'file' (only the default tree
+    // collects them)
+    static void writeMetrics(WordCounts bst, String file) {
+        TreeMetrics metrics = bst instanceof BinarySearchTree ? ((BinarySearchTree) bst).getMetrics() : null;
+        if (metrics == null) {
+            System.out.println("Metrics are only collected by the default tree.");
+            return;
+        }
+        try {
+            Files.writeString(Paths.get(file), metrics.toJson());
+        } catch (IOException e) {
+            System.out.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+
+    // Serves queries on a loopback port (WordQueryServer) while the file is being
+    // counted: a copy of the counting tree is published every PUBLISH_EVERY
+    // words, and the finished tree at the end. Runs until 'exit' is typed, then
+    // prints the request latencies.
+    static void serve(String filename, String port, boolean balanced, boolean unicode, Scanner scanner) {
+        try (WordQueryServer server = new WordQueryServer(Integer.parseInt(port), new BinarySearchTree(balanced))) {
+            server.start();
+            System.out.println("Serving on 127.0.0.1:" + server.getPort()
+                    + " (search <word>, top <k>, stats, traverse <1-3>, latency, quit)");
+
+            BinarySearchTree tree = new BinarySearchTree(balanced);
+            WordTokenizer.tokenize(filename, unicode, word -> {
+                tree.insert(word);
+                if (tree.getTotalWords() % PUBLISH_EVERY == 0) {
+                    server.publish(tree.copy());
+                }
+            });
+            server.publish(tree); // No more inserts, so the tree itself is the last snapshot
+            System.out.println("Counted " + tree.getTotalWords() + " words. Type 'exit' to stop the server.");
+
+            while (scanner.hasNextLine() && !scanner.nextLine().trim().equalsIgnoreCase("exit")) {
+                // Keep serving
             }
+            System.out.println("Served " + server.getLatencies().latencySummary());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid port: " + port);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
         }
+    }
 
+    // Returns the value following an option such as "--save <file>", or null if
+    // the option is not given
+    static String optionValue(String[] args, String option) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(option)) {
+                return args[i + 1];
+            }
+        }
+        return null;
     }
 
 }
@@ -0,0 +1,190 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Counts n-grams (runs of n consecutive words, e.g. bigrams
+    and trigrams) of a text. Every word gets an ID from the
+    unigram tree: its alphabetical rank, so select() turns an ID
+    back into the word. An n-gram is packed into one long, 64 / n
+    bits per word ID (32 for bigrams, 21 for trigrams, enough for
+    about two million words), and counted in a primitive
+    long-keyed hash map, which costs a fraction of the memory of
+    one String per n-gram. Longer n-grams are not supported: at
+    16 bits or fewer per ID they would only fit tiny vocabularies.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+
+class NGramCounter {
+
+    // (1) Words per n-gram, and bits per word ID in a packed n-gram
+    // (2) Counts of the single words; the IDs are their ranks in this tree
+    // (3) Word ID + 1 of every word (so that no packed n-gram is 0), for fast
+    // lookups while counting
+    // (4) Counts of the packed n-grams
+    // (5) Last n word IDs + 1, packed, and how many words the window holds
+    // (6) Number of n-grams counted, including duplicates
+
+    private final int n;
+    private final int bitsPerWord;
+    private final BinarySearchTree unigrams;
+    private final HashMap<String, Integer> ids;
+    private final LongCountMap counts;
+    private long window;
+    private int windowWords;
+    private long totalNGrams;
+
+    // Creates an n-gram counter over the words of 'unigrams', which must not
+    // change afterwards (its ranks are the word IDs)
+    NGramCounter(int n, BinarySearchTree unigrams) {
+        // (1) An n-gram must fit in 64 bits with every word ID + 1 non-zero;
+        // only bigrams and trigrams leave room for a real vocabulary
+        // (2) Number the words in alphabetical order
+
+        if (n < 2 || n > 3) {
+            throw new IllegalArgumentException("n must be 2 or 3: " + n);
+        }
+        this.n = n;
+        this.bitsPerWord = 64 / n;
+        if (unigrams.getUniqueWords() >= (1L << bitsPerWord)) {
+            throw new IllegalArgumentException(unigrams.getUniqueWords() + " unique words do not fit in "
+                    + bitsPerWord + "-bit IDs for " + n + "-grams");
+        }
+        this.unigrams = unigrams;
+        this.ids = new HashMap<>(unigrams.getUniqueWords() * 4 / 3 + 1);
+        for (Iterator<TreeNode> nodes = unigrams.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            ids.put(nodes.next().word, ids.size() + 1);
+        }
+        this.counts = new LongCountMap(unigrams.getUniqueWords());
+    }
+
+    // Counts the n-grams of a text file: one pass to count the words and
+    // number them, and a second pass to count the n-grams
+    static NGramCounter count(String filename, int n, boolean unicode, boolean balanced) throws IOException {
+        BinarySearchTree unigrams = new BinarySearchTree(balanced);
+        WordTokenizer.tokenize(filename, unicode, unigrams::insert);
+        NGramCounter counter = new NGramCounter(n, unigrams);
+        WordTokenizer.tokenize(filename, unicode, counter::add);
+        return counter;
+    }
+
+    // Takes the next word of the text; once n words have been seen, each word
+    // completes one n-gram
+    void add(String word) {
+        // Shift the word's ID into the window; the oldest ID falls off the top
+
+        Integer id = ids.get(word);
+        if (id == null) {
+            throw new IllegalArgumentException("'" + word + "' is not in the unigram tree");
+        }
+        window = (window << bitsPerWord | id) & windowMask();
+        if (windowWords < n) {
+            windowWords++;
+        }
+        if (windowWords == n) {
+            counts.add(window, 1);
+            totalNGrams++;
+        }
+    }
+
+    // Ends the current text, so no n-gram spans into the next one
+    void endText() {
+        window = 0;
+        windowWords = 0;
+    }
+
+    // Bits of the window that hold the last n word IDs
+    private long windowMask() {
+        return n * bitsPerWord == 64 ? -1L : (1L << (n * bitsPerWord)) - 1;
+    }
+
+    // Returns how often the n words occurred in a row (0 if never)
+    public int count(String... words) {
+        if (words.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " words, got " + words.length);
+        }
+        long key = 0;
+        for (String word : words) {
+            Integer id = ids.get(word);
+            if (id == null) {
+                return 0;
+            }
+            key = key << bitsPerWord | id;
+        }
+        return counts.get(key);
+    }
+
+    // Returns up to k of the most frequent n-grams (words joined by spaces) with
+    // their counts, most frequent first; ties in alphabetical order
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        // (1) Keep the k best packed n-grams in a heap whose root is the weakest:
+        // lowest count, then the alphabetically last (the largest key, since IDs
+        // are alphabetical ranks)
+        // (2) Turn only the winners back into words
+
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        PriorityQueue<long[]> heap = new PriorityQueue<>(Math.max(1, Math.min(k, counts.size())),
+                (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compareUnsigned(b[0], a[0]));
+        if (k > 0) {
+            counts.forEach((key, count) -> {
+                if (heap.size() < k) {
+                    heap.add(new long[] { key, count });
+                } else if (count > heap.peek()[1]
+                        || (count == heap.peek()[1] && Long.compareUnsigned(key, heap.peek()[0]) < 0)) {
+                    heap.poll();
+                    heap.add(new long[] { key, count });
+                }
+            });
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            long[] entry = heap.poll();
+            result.add(Map.entry(words(entry[0]), (int) entry[1]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Unpacks an n-gram into its words, joined by spaces
+    private String words(long key) {
+        StringBuilder words = new StringBuilder();
+        long idMask = (1L << bitsPerWord) - 1;
+        for (int i = n - 1; i >= 0; i--) {
+            int id = (int) ((key >>> (i * bitsPerWord)) & idMask);
+            words.append(unigrams.select(id - 1)).append(i > 0 ? " " : "");
+        }
+        return words.toString();
+    }
+
+    // Number of words per n-gram
+    public int getN() {
+        return n;
+    }
+
+    // Number of n-grams counted, including duplicates
+    public long getTotalNGrams() {
+        return totalNGrams;
+    }
+
+    // Number of distinct n-grams
+    public int getUniqueNGrams() {
+        return counts.size();
+    }
+
+    // The single-word counts the IDs come from
+    public BinarySearchTree getUnigrams() {
+        return unigrams;
+    }
+
+    // Memory held by the n-gram table, in bytes
+    public long memoryBytes() {
+        return counts.memoryBytes();
+    }
+}
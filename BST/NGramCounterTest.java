@@ -0,0 +1,132 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for NGramCounter: the bigram and trigram
+    counts of a file, its totals and its top n-grams (ties in
+    alphabetical order) equal a count of the joined words in a
+    map, and n-grams never span two texts.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NGramCounterTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes random text over a small vocabulary, so many n-grams repeat
+     */
+    private Path randomText(int words, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int id = (int) Math.pow(random.nextInt(1 << 8), 2) >> 10;
+            text.append(random.nextInt(8) == 0 ? "Word" : "word").append(id);
+            text.append(random.nextInt(10) == 0 ? ".\n" : " ");
+        }
+        Path file = dir.resolve("text" + seed + ".txt");
+        Files.writeString(file, text);
+        return file;
+    }
+
+    /**
+     * Counts the n-grams of a file as words joined by spaces
+     */
+    private Map<String, Integer> joinedCounts(Path file, int n) throws IOException {
+        List<String> words = new ArrayList<>();
+        WordTokenizer.tokenize(file.toString(), words::add);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i + n <= words.size(); i++) {
+            counts.merge(String.join(" ", words.subList(i, i + n)), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testMatchesJoinedWords() throws IOException {
+        Path file = randomText(20_000, 25);
+        for (int n = 2; n <= 3; n++) {
+            NGramCounter counter = NGramCounter.count(file.toString(), n, false, true);
+            Map<String, Integer> expected = joinedCounts(file, n);
+            assertEquals(n, counter.getN());
+            assertEquals(20_000 - n + 1, counter.getTotalNGrams());
+            assertEquals(expected.size(), counter.getUniqueNGrams());
+            for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), counter.count(entry.getKey().split(" ")), entry.getKey());
+            }
+            assertEquals(20_000, counter.getUnigrams().getTotalWords());
+        }
+    }
+
+    @Test
+    public void testTopKMatchesJoinedWords() throws IOException {
+        Path file = randomText(5000, 26);
+        for (int n = 2; n <= 3; n++) {
+            NGramCounter counter = NGramCounter.count(file.toString(), n, false, false);
+            List<Map.Entry<String, Integer>> expected = new ArrayList<>(joinedCounts(file, n).entrySet());
+            expected.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            for (int k : new int[] { 0, 1, 20, expected.size() + 3 }) {
+                assertEquals(expected.subList(0, Math.min(k, expected.size())), counter.topK(k));
+            }
+        }
+    }
+
+    @Test
+    public void testSmallText() throws IOException {
+        Path file = dir.resolve("small.txt");
+        Files.writeString(file, "the cat sat on the cat.\nThe cat ran");
+        NGramCounter bigrams = NGramCounter.count(file.toString(), 2, false, false);
+        assertEquals(8, bigrams.getTotalNGrams());
+        assertEquals(3, bigrams.count("the", "cat"));
+        assertEquals(1, bigrams.count("cat", "the"));
+        assertEquals(0, bigrams.count("cat", "on"));
+        assertEquals(0, bigrams.count("dog", "cat"));
+        assertEquals(List.of(Map.entry("the cat", 3), Map.entry("cat ran", 1)), bigrams.topK(2));
+
+        NGramCounter trigrams = NGramCounter.count(file.toString(), 3, false, false);
+        assertEquals(7, trigrams.getTotalNGrams());
+        assertEquals(1, trigrams.count("cat", "the", "cat"));
+        // Every trigram occurs once, so the alphabetically first one leads
+        assertEquals(List.of(Map.entry("cat sat on", 1)), trigrams.topK(1));
+        assertThrows(IllegalArgumentException.class, () -> trigrams.count("the", "cat"));
+    }
+
+    @Test
+    public void testEndTextStopsNGrams() {
+        BinarySearchTree unigrams = new BinarySearchTree();
+        for (String word : new String[] { "a", "b", "c" }) {
+            unigrams.insert(word);
+        }
+        NGramCounter counter = new NGramCounter(2, unigrams);
+        counter.add("a");
+        counter.add("b");
+        counter.endText();
+        counter.add("c");
+        counter.add("a");
+        assertEquals(2, counter.getTotalNGrams());
+        assertEquals(1, counter.count("a", "b"));
+        assertEquals(0, counter.count("b", "c"));
+        assertEquals(1, counter.count("c", "a"));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        BinarySearchTree unigrams = new BinarySearchTree();
+        unigrams.insert("a");
+        assertThrows(IllegalArgumentException.class, () -> new NGramCounter(1, unigrams));
+        assertThrows(IllegalArgumentException.class, () -> new NGramCounter(4, unigrams));
+        NGramCounter counter = new NGramCounter(2, unigrams);
+        assertThrows(IllegalArgumentException.class, () -> counter.add("b"));
+        assertThrows(IllegalArgumentException.class, () -> counter.topK(-1));
+    }
+}
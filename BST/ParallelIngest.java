@@ -0,0 +1,249 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Parallel ingest for the word frequency counter. The input
+    file is cut into byte ranges on word boundaries, each range
+    is tokenized and counted on a fork-join pool, and the shard
+    counts are merged into one word counter that reports the
+    same statistics as a sequential, word-by-word ingest.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+class ParallelIngest {
+
+    // Shards are never smaller than this, so small files stay single-threaded
+    private static final long MIN_SHARD_BYTES = 1 << 20;
+
+    // Shards are never larger than this, which bounds the memory of a shard in
+    // flight
+    private static final long MAX_SHARD_BYTES = 16 << 20;
+
+    // Per-word counts collected from one or more consecutive shards
+    static class ShardCounts {
+        // (1) Words in order of their first occurrence, with their counts
+        // (2) Number of words (including duplicates) in these shards
+
+        final LinkedHashMap<String, WordCount> counts = new LinkedHashMap<>();
+        long tokens;
+    }
+
+    // Count of one word within a shard
+    static class WordCount {
+        // (1) Occurrences of the word
+        // (2) Position of its last occurrence, counted in words from the start of
+        // the shard
+
+        int count;
+        long lastSeen;
+    }
+
+    // Reads the file in parallel and inserts all of its words into the tree
+    public static void ingest(String filename, WordCounter bst) throws IOException {
+        ingest(filename, false, bst);
+    }
+
+    // Reads the file in parallel, optionally tokenizing in Unicode mode
+    public static void ingest(String filename, boolean unicode, WordCounter bst) throws IOException {
+        // (1) Split the file into shards that start and end on a separator byte
+        // (2) Count the shards on the common fork-join pool
+        // (3) Insert the merged counts into the tree
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long[] bounds = shardBounds(channel);
+            ShardCounts merged;
+            try {
+                merged = ForkJoinPool.commonPool().invoke(new ShardTask(channel, bounds, 0, bounds.length - 1, unicode));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            insertMerged(merged, bst);
+        }
+    }
+
+    // Inserts merged shard counts so that the tree matches a sequential ingest
+    static void insertMerged(ShardCounts merged, WordCounter bst) {
+        // (1) Decide the most frequent word before the counts change
+        // (2) Insert words in order of first occurrence, which reproduces the
+        // shape the sequential insert would have built
+        // (3) Backends that track ties are told which word reached the top first
+
+        String mostFrequent = tieBreak(merged, bst);
+        for (Map.Entry<String, WordCount> entry : merged.counts.entrySet()) {
+            bst.insert(entry.getKey(), entry.getValue().count);
+        }
+        if (mostFrequent != null && bst instanceof TieBreaking) {
+            ((TieBreaking) bst).preferMostFrequent(mostFrequent);
+        }
+    }
+
+    // Returns the word a sequential ingest would report as the most frequent
+    // one once 'merged' (read after everything already counted) is added to
+    // 'counts', or null if the current most frequent word keeps its place
+    static String tieBreak(ShardCounts merged, WordCounts counts) {
+        // (1) Among the words with the highest total afterwards, the sequential
+        // ingest reports the one that reached that total first
+        // (2) A counted word that the merged counts do not touch got there before
+        // any of them, which is only possible if the highest total is unchanged
+        // (3) Otherwise it is the merged word whose last occurrence comes first
+
+        boolean empty = counts.getUniqueWords() == 0;
+        long previousMax = empty ? 0 : counts.topK(1).get(0).getValue();
+        long maxCount = 0;
+        long firstFinish = Long.MAX_VALUE;
+        String mostFrequent = null;
+
+        for (Map.Entry<String, WordCount> entry : merged.counts.entrySet()) {
+            WordCount wc = entry.getValue();
+            long total = empty ? wc.count : (long) counts.searchWord(entry.getKey()) + wc.count;
+            if (total > maxCount || (total == maxCount && wc.lastSeen < firstFinish)) {
+                maxCount = total;
+                firstFinish = wc.lastSeen;
+                mostFrequent = entry.getKey();
+            }
+        }
+        return maxCount > previousMax ? mostFrequent : null;
+    }
+
+    // Computes shard boundaries; shard i covers [bounds[i], bounds[i + 1])
+    private static long[] shardBounds(FileChannel channel) throws IOException {
+        // (1) Aim for a few shards per worker thread, within the size limits
+        // (2) Move every nominal cut forward to the next separator byte so that no
+        // word is split between two shards
+
+        long size = channel.size();
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        long shardSize = Math.max(MIN_SHARD_BYTES, Math.min(MAX_SHARD_BYTES, size / (parallelism * 4L) + 1));
+
+        ArrayList<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long cut = shardSize;
+        while (cut < size) {
+            cut = nextSeparator(channel, cut, size);
+            if (cut < size) {
+                bounds.add(cut);
+            }
+            cut += shardSize;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Returns the position of the first separator byte at or after 'position'
+    private static long nextSeparator(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (WordTokenizer.isSeparator(buffer.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Counts a range of shards, splitting it in half until one shard is left
+    private static class ShardTask extends RecursiveTask<ShardCounts> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final boolean unicode;
+
+        ShardTask(FileChannel channel, long[] bounds, int from, int to, boolean unicode) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.unicode = unicode;
+        }
+
+        @Override
+        protected ShardCounts compute() {
+            // (1) A single shard is counted directly
+            // (2) Otherwise count both halves in parallel and merge them in order
+
+            if (to - from == 1) {
+                try {
+                    return countShard(channel, bounds[from], bounds[to], unicode);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            ShardTask left = new ShardTask(channel, bounds, from, middle, unicode);
+            left.fork();
+            ShardCounts right = new ShardTask(channel, bounds, middle, to, unicode).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    // Tokenizes and counts the words of a whole file
+    static ShardCounts countFile(Path file, boolean unicode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return countShard(channel, 0, channel.size(), unicode);
+        }
+    }
+
+    // Tokenizes and counts the words of one shard
+    static ShardCounts countShard(FileChannel channel, long start, long end, boolean unicode)
+            throws IOException {
+        // (1) Map the shard's byte range (mappings of one channel can be shared)
+        // (2) Count each word and remember where it was last seen
+
+        ShardCounts shard = new ShardCounts();
+        WordTokenizer.tokenize(channel, start, end, unicode, word -> {
+            WordCount wc = shard.counts.computeIfAbsent(word, w -> new WordCount());
+            wc.count++;
+            wc.lastSeen = shard.tokens++;
+        });
+        return shard;
+    }
+
+    // Merges the counts of two adjacent shard ranges, 'left' coming first
+    static ShardCounts merge(ShardCounts left, ShardCounts right) {
+        // (1) Words new to the left side are appended, keeping first-occurrence order
+        // (2) Positions on the right side are shifted past the left side's words
+
+        for (Map.Entry<String, WordCount> entry : right.counts.entrySet()) {
+            WordCount wc = entry.getValue();
+            WordCount existing = left.counts.get(entry.getKey());
+
+            if (existing == null) {
+                wc.lastSeen += left.tokens;
+                left.counts.put(entry.getKey(), wc);
+            } else {
+                existing.count += wc.count;
+                existing.lastSeen = wc.lastSeen + left.tokens;
+            }
+        }
+        left.tokens += right.tokens;
+        return left;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for ParallelIngest: counting a file in shards
+    and merging them must leave every counter with the same
+    statistics as a sequential pass (totals, tree shape and
+    height, and the most frequent word among ties), wherever
+    the shard boundaries fall.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelIngestTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes random text with many tied counts; large enough texts are split
+     * into several shards
+     */
+    private Path randomText(String name, int words, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // Skewed towards small IDs, so a few words are frequent
+            int id = (int) Math.pow(random.nextInt(1 << 14), 2) >> 14;
+            text.append(random.nextInt(8) == 0 ? "Word" : "word").append(id);
+            text.append(random.nextInt(10) == 0 ? ".\n" : " ");
+        }
+        Path file = dir.resolve(name);
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * The counts of a top-K list. Words tied below the most frequent one may be
+     * listed in a different order, so only the counts are compared.
+     */
+    private List<Integer> counts(List<Map.Entry<String, Integer>> top) {
+        List<Integer> counts = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : top) {
+            counts.add(entry.getValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Checks that two counters report the same statistics
+     */
+    private void assertSameStatistics(WordCounts expected, WordCounts actual) {
+        assertEquals(expected.getTotalWords(), actual.getTotalWords());
+        assertEquals(expected.getUniqueWords(), actual.getUniqueWords());
+        assertEquals(expected.getTreeHeight(), actual.getTreeHeight());
+        assertEquals(expected.getMostFrequentWord(), actual.getMostFrequentWord());
+        assertEquals(counts(expected.topK(10)), counts(actual.topK(10)));
+        for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+            assertEquals(expected.getTraversalOutput(type), actual.getTraversalOutput(type));
+        }
+    }
+
+    /**
+     * Counts a file sequentially and in parallel into two fresh counters and
+     * compares them
+     */
+    private void assertParallelMatchesSequential(Path file, WordCounter sequential, WordCounter parallel)
+            throws IOException {
+        WordTokenizer.tokenize(file.toString(), sequential::insert);
+        ParallelIngest.ingest(file.toString(), parallel);
+        assertSameStatistics(sequential, parallel);
+    }
+
+    @Test
+    public void testSmallFile() throws IOException {
+        Path file = randomText("small.txt", 500, 1);
+        assertParallelMatchesSequential(file, new BinarySearchTree(), new BinarySearchTree());
+        assertParallelMatchesSequential(file, new BinarySearchTree(true), new BinarySearchTree(true));
+    }
+
+    @Test
+    public void testFileOfSeveralShards() throws IOException {
+        // Shards are at least 1 MB, so this file is split even on one core
+        Path file = randomText("large.txt", 400_000, 2);
+        assertTrue(Files.size(file) > 3 << 20);
+        assertParallelMatchesSequential(file, new BinarySearchTree(), new BinarySearchTree());
+        assertParallelMatchesSequential(file, new BinarySearchTree(true), new BinarySearchTree(true));
+        assertParallelMatchesSequential(file, new CompactWordTree(true), new CompactWordTree(true));
+        assertParallelMatchesSequential(file, new RadixWordTree(), new RadixWordTree());
+    }
+
+    @Test
+    public void testExampleFiles() throws IOException {
+        for (int i = 1; i <= 6; i++) {
+            Path file = Paths.get(String.format("example%02d.txt", i));
+            if (Files.exists(file)) {
+                assertParallelMatchesSequential(file, new BinarySearchTree(), new BinarySearchTree());
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path file = dir.resolve("empty.txt");
+        Files.createFile(file);
+        assertParallelMatchesSequential(file, new BinarySearchTree(), new BinarySearchTree());
+    }
+
+    @Test
+    public void testAnyShardBoundaries() throws IOException {
+        // Split the file at random separators, count the shards and merge them
+        // left to right, as the fork-join tasks do
+        Path file = randomText("shards.txt", 3000, 3);
+        byte[] bytes = Files.readAllBytes(file);
+        BinarySearchTree sequential = new BinarySearchTree();
+        WordTokenizer.tokenize(file.toString(), sequential::insert);
+
+        Random random = new Random(3);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int round = 0; round < 50; round++) {
+                TreeSet<Integer> cuts = new TreeSet<>();
+                int shards = 1 + random.nextInt(8);
+                while (cuts.size() < shards - 1) {
+                    int cut = random.nextInt(bytes.length);
+                    if (WordTokenizer.isSeparator(bytes[cut])) {
+                        cuts.add(cut + 1);
+                    }
+                }
+                cuts.add(bytes.length);
+
+                ParallelIngest.ShardCounts merged = new ParallelIngest.ShardCounts();
+                int start = 0;
+                for (int end : cuts) {
+                    merged = ParallelIngest.merge(merged, ParallelIngest.countShard(channel, start, end, false));
+                    start = end;
+                }
+                BinarySearchTree parallel = new BinarySearchTree();
+                ParallelIngest.insertMerged(merged, parallel);
+                assertSameStatistics(sequential, parallel);
+            }
+        }
+    }
+
+    @Test
+    public void testIngestIntoNonEmptyCounter() throws IOException {
+        // A second file added to existing counts must break ties as if both
+        // files had been read one after the other
+        Path first = randomText("first.txt", 2000, 4);
+        Path second = randomText("second.txt", 2000, 5);
+        BinarySearchTree sequential = new BinarySearchTree();
+        BinarySearchTree parallel = new BinarySearchTree();
+        WordTokenizer.tokenize(first.toString(), sequential::insert);
+        WordTokenizer.tokenize(second.toString(), sequential::insert);
+        WordTokenizer.tokenize(first.toString(), parallel::insert);
+        ParallelIngest.ingest(second.toString(), parallel);
+        assertSameStatistics(sequential, parallel);
+    }
+
+    @Test
+    public void testTieGoesToWordThatGotThereFirst() throws IOException {
+        Path file = dir.resolve("ties.txt");
+        Files.writeString(file, "b a c a b c c b a\n");
+        BinarySearchTree parallel = new BinarySearchTree();
+        ParallelIngest.ingest(file.toString(), parallel);
+        assertEquals("c (3 times)", parallel.getMostFrequentWord());
+    }
+
+    @Test
+    public void testUnicodeMode() throws IOException {
+        Path file = dir.resolve("unicode.txt");
+        Files.writeString(file, "\u00C9t\u00E9 \u00E9t\u00E9 caf\u00E9 \u6771\u4EAC\n\u00E9t\u00E9\n",
+                StandardCharsets.UTF_8);
+        BinarySearchTree sequential = new BinarySearchTree();
+        BinarySearchTree parallel = new BinarySearchTree();
+        WordTokenizer.tokenize(file.toString(), true, sequential::insert);
+        ParallelIngest.ingest(file.toString(), true, parallel);
+        assertSameStatistics(sequential, parallel);
+        assertEquals(3, parallel.searchWord("\u00E9t\u00E9"));
+    }
+}
@@ -0,0 +1,410 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Radix tree (compressed trie) backend for the word frequency
+    counter. Each edge carries a run of characters, and a node
+    whose path spells a word holds that word's count. A lookup
+    reads every character of the word once, however many words
+    share its prefix, instead of comparing the whole word again
+    at every level as the BST does. Children are kept sorted by
+    their first character, so walking the tree lists the words
+    in the same (String.compareTo) order as the BST.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+
+class RadixWordTree implements WordCounter, TieBreaking {
+
+    // Size of the chunks writeTraversal hands to its Writer
+    private static final int WRITE_CHUNK_CHARS = 8192;
+
+    private static final char[] NO_CHARS = new char[0];
+
+    private static final class Node {
+        // (1) Characters on the edge from the parent to this node
+        // (2) Occurrences of the word spelled by the path to this node (0 when the
+        // path is only a shared prefix)
+        // (3) Edges from this node down to its deepest descendant
+        // (4) Children sorted by the first character of their label; keys[i] is
+        // the first character of children[i]'s label
+
+        char[] label;
+        int frequency;
+        int height;
+        char[] keys;
+        Node[] children;
+        int childCount;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        // Position of the child whose label starts with 'c', or -(insertion
+        // point) - 1 if there is none
+        int find(char c) {
+            return childCount == 0 ? -1 : Arrays.binarySearch(keys, 0, childCount, c);
+        }
+
+        // Inserts a child at 'slot', keeping the children sorted
+        void addChild(int slot, Node child) {
+            if (childCount == 0) {
+                keys = new char[2];
+                children = new Node[2];
+            } else if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(keys, slot, keys, slot + 1, childCount - slot);
+            System.arraycopy(children, slot, children, slot + 1, childCount - slot);
+            keys[slot] = child.label[0];
+            children[slot] = child;
+            childCount++;
+            height = Math.max(height, child.height + 1);
+        }
+    }
+
+    // (1) Unlabelled root; the empty word is never stored
+    // (2) Total words inserted (including duplicates)
+    // (3) Count of unique words
+    // (4) Node of the most frequent word, and the word itself
+    // (5) Number of nodes below the root, words and shared prefixes alike
+
+    private final Node root = new Node(NO_CHARS);
+    private long totalWords;
+    private int uniqueWords;
+    private Node mostFrequentNode;
+    private String mostFrequentWord;
+    private int nodeCount;
+
+    // Reusable stack of ancestors visited by the current insert
+    private Node[] path = new Node[32];
+
+    // Inserts one occurrence of a word
+    @Override
+    public void insert(String word) {
+        insert(word, 1);
+    }
+
+    // Inserts a word that occurred 'count' times at once
+    @Override
+    public void insert(String word, int count) {
+        // (1) Follow the edges that spell the word, remembering the path
+        // (2) If the word ends at a node, count it there
+        // (3) If no edge starts with the next character, hang the rest of the word
+        // below the current node as one new edge
+        // (4) If an edge matches only partly, split it where the word leaves it;
+        // the split node either is the word or gets the rest of the word as a
+        // second child
+        // (5) Raise the heights of the ancestors of a new node
+
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        if (word.isEmpty()) {
+            return; // The tokenizer never produces empty words
+        }
+
+        Node node = root;
+        int depth = 0;
+        int i = 0;
+        while (true) {
+            if (i == word.length()) {
+                increaseFrequency(node, word, count);
+                return;
+            }
+            pushPath(depth++, node);
+
+            int slot = node.find(word.charAt(i));
+            if (slot < 0) {
+                Node leaf = new Node(word.substring(i).toCharArray());
+                node.addChild(-slot - 1, leaf);
+                nodeCount++;
+                increaseFrequency(leaf, word, count);
+                raiseHeights(depth - 1);
+                return;
+            }
+
+            Node child = node.children[slot];
+            char[] label = child.label;
+            int matched = 1;
+            while (matched < label.length && i + matched < word.length() && label[matched] == word.charAt(i + matched)) {
+                matched++;
+            }
+            if (matched == label.length) {
+                node = child;
+                i += matched;
+                continue;
+            }
+
+            Node split = new Node(Arrays.copyOf(label, matched));
+            child.label = Arrays.copyOfRange(label, matched, label.length);
+            split.addChild(0, child);
+            node.children[slot] = split;
+            nodeCount++;
+            i += matched;
+            if (i == word.length()) {
+                increaseFrequency(split, word, count);
+            } else {
+                Node leaf = new Node(word.substring(i).toCharArray());
+                split.addChild(leaf.label[0] < child.label[0] ? 0 : 1, leaf);
+                nodeCount++;
+                increaseFrequency(leaf, word, count);
+            }
+            node.height = Math.max(node.height, split.height + 1);
+            raiseHeights(depth - 1);
+            return;
+        }
+    }
+
+    // Adds 'count' to a word's node and updates the statistics; a node without
+    // a count so far becomes a new unique word
+    private void increaseFrequency(Node node, String word, int count) {
+        if (node.frequency == 0) {
+            uniqueWords++;
+        }
+        node.frequency += count;
+        totalWords += count;
+        if (mostFrequentNode == null || node.frequency > mostFrequentNode.frequency) {
+            mostFrequentNode = node;
+            mostFrequentWord = word;
+        }
+    }
+
+    // Stores a node on the reusable path stack, growing it if needed
+    private void pushPath(int depth, Node node) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth] = node;
+    }
+
+    // path[top] has grown; raise the heights of its ancestors until one is
+    // already high enough (heights never shrink, since words are never removed)
+    private void raiseHeights(int top) {
+        for (int i = top; i > 0; i--) {
+            Node parent = path[i - 1];
+            if (parent.height >= path[i].height + 1) {
+                break;
+            }
+            parent.height = path[i].height + 1;
+        }
+    }
+
+    // Returns the frequency of a word (0 if it is not stored)
+    @Override
+    public int searchWord(String word) {
+        // (1) Follow the edge starting with the next character
+        // (2) The word must match the whole label of every edge on the way
+        // (3) The node where the word ends holds its count
+
+        Node node = root;
+        int i = 0;
+        while (i < word.length()) {
+            int slot = node.find(word.charAt(i));
+            if (slot < 0) {
+                return 0;
+            }
+            node = node.children[slot];
+            char[] label = node.label;
+            if (label.length > word.length() - i) {
+                return 0;
+            }
+            for (int j = 1; j < label.length; j++) {
+                if (label[j] != word.charAt(i + j)) {
+                    return 0;
+                }
+            }
+            i += label.length;
+        }
+        return node == root ? 0 : node.frequency;
+    }
+
+    // Returns the traversal output as a string based on the selected traversal type
+    @Override
+    public String getTraversalOutput(int type) {
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            return "Error, Invalid Traversal type.";
+        }
+        StringWriter out = new StringWriter();
+        try {
+            writeTraversal(type, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // Writes the traversal output to 'out' in chunks of bounded size. In-order
+    // and pre-order list a word before the longer words it is a prefix of, which
+    // is alphabetical order; post-order lists it after them.
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        // (1) Reject invalid traversal types
+        // (2) Walk depth-first with an explicit stack of nodes and, for each, the
+        // next child to visit; 'prefix' spells the path to the top node
+        // (3) A node is listed on its first visit, or after its last child in
+        // post-order
+
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            throw new IllegalArgumentException("Error, Invalid Traversal type.");
+        }
+        boolean postOrder = type == BinarySearchTree.POST_ORDER;
+
+        StringBuilder chunk = new StringBuilder(WRITE_CHUNK_CHARS + 64);
+        StringBuilder prefix = new StringBuilder();
+        Node[] stack = new Node[root.height + 1];
+        int[] nextChild = new int[stack.length];
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0) {
+            Node node = stack[top - 1];
+            int child = nextChild[top - 1];
+            if (child == 0 && !postOrder && node.frequency > 0) {
+                appendWord(prefix, node.frequency, chunk);
+            }
+            if (child < node.childCount) {
+                nextChild[top - 1]++;
+                Node next = node.children[child];
+                prefix.append(next.label);
+                stack[top] = next;
+                nextChild[top] = 0;
+                top++;
+            } else {
+                if (postOrder && node.frequency > 0) {
+                    appendWord(prefix, node.frequency, chunk);
+                }
+                prefix.setLength(prefix.length() - node.label.length);
+                top--;
+            }
+            if (chunk.length() >= WRITE_CHUNK_CHARS) {
+                out.append(chunk);
+                chunk.setLength(0);
+            }
+        }
+        out.append(chunk);
+        out.flush();
+    }
+
+    // Appends one "word (frequency)" line to the traversal output
+    private static void appendWord(CharSequence word, int frequency, StringBuilder result) {
+        result.append(word).append(" (").append(frequency).append(")\n");
+    }
+
+    // Returns the total number of words, including duplicates
+    @Override
+    public long getTotalWords() {
+        return totalWords;
+    }
+
+    // Returns the count of unique words
+    @Override
+    public int getUniqueWords() {
+        return uniqueWords;
+    }
+
+    // Returns the most frequent word along with its occurrence count
+    @Override
+    public String getMostFrequentWord() {
+        if (mostFrequentNode != null) {
+            return mostFrequentWord + " (" + mostFrequentNode.frequency + " times)";
+        } else {
+            return "No words in the tree.";
+        }
+    }
+
+    // Returns the height in edges below the top-level nodes (the unlabelled root
+    // is not counted), so a single word has height 0 as in the BST; -1 when empty
+    @Override
+    public int getTreeHeight() {
+        return root.height - 1;
+    }
+
+    // Returns the number of nodes, i.e. words plus the shared prefixes that are
+    // not words themselves
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // Returns up to k of the most frequent words. There is no frequency index in
+    // this backend, so this walks the tree with a bounded heap in O(n log k);
+    // equal frequencies are ordered alphabetically.
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        // (1) Walk the words alphabetically (see writeTraversal)
+        // (2) Keep the k best in a heap whose root is the weakest candidate: lowest
+        // frequency, then alphabetically last; a word only replaces it with a
+        // higher frequency, so earlier words win ties
+        // (3) Empty the heap into a list, best first
+
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(Math.max(1, Math.min(k, uniqueWords)),
+                Map.Entry.<String, Integer>comparingByValue()
+                        .thenComparing(Map.Entry.<String, Integer>comparingByKey().reversed()));
+        StringBuilder prefix = new StringBuilder();
+        Node[] stack = new Node[root.height + 1];
+        int[] nextChild = new int[stack.length];
+        int top = 0;
+        stack[top++] = root;
+
+        while (top > 0 && k > 0) {
+            Node node = stack[top - 1];
+            int child = nextChild[top - 1];
+            if (child == 0 && node.frequency > 0
+                    && (heap.size() < k || node.frequency > heap.peek().getValue())) {
+                if (heap.size() == k) {
+                    heap.poll();
+                }
+                heap.add(Map.entry(prefix.toString(), node.frequency));
+            }
+            if (child < node.childCount) {
+                nextChild[top - 1]++;
+                Node next = node.children[child];
+                prefix.append(next.label);
+                stack[top] = next;
+                nextChild[top] = 0;
+                top++;
+            } else {
+                prefix.setLength(prefix.length() - node.label.length);
+                top--;
+            }
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Reports the given word as the most frequent one if it ties with the
+    // current most frequent word
+    @Override
+    public void preferMostFrequent(String word) {
+        int frequency = searchWord(word);
+        if (frequency > 0 && frequency == mostFrequentNode.frequency) {
+            mostFrequentNode = findNode(word);
+            mostFrequentWord = word;
+        }
+    }
+
+    // Returns the node where a stored word ends
+    private Node findNode(String word) {
+        Node node = root;
+        int i = 0;
+        while (i < word.length()) {
+            node = node.children[node.find(word.charAt(i))];
+            i += node.label.length;
+        }
+        return node;
+    }
+}
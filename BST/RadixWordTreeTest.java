@@ -0,0 +1,169 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for RadixWordTree: for words that share long
+    prefixes or are prefixes of each other, every count, total,
+    traversal and most frequent word equals the BST's, and the
+    edges are split and merged as a compressed trie should be.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.io.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RadixWordTreeTest {
+
+    /**
+     * Random words over a three-letter alphabet, so many of them share
+     * prefixes and many are prefixes of others
+     */
+    private List<String> randomWords(Random random, int count) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder("pre");
+            for (int length = 1 + random.nextInt(7); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(3)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * The lines of a traversal output, sorted
+     */
+    private List<String> sortedLines(String output) {
+        List<String> lines = new ArrayList<>(Arrays.asList(output.split("\n")));
+        Collections.sort(lines);
+        return lines;
+    }
+
+    @Test
+    public void testMatchesBinarySearchTree() {
+        Random random = new Random(24);
+        List<String> words = randomWords(random, 20_000);
+        RadixWordTree radix = new RadixWordTree();
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : words) {
+            int count = random.nextInt(10) == 0 ? 1 + random.nextInt(5) : 1;
+            radix.insert(word, count);
+            tree.insert(word, count);
+        }
+
+        assertEquals(tree.getTotalWords(), radix.getTotalWords());
+        assertEquals(tree.getUniqueWords(), radix.getUniqueWords());
+        assertEquals(tree.getMostFrequentWord(), radix.getMostFrequentWord());
+        String inOrder = tree.getTraversalOutput(BinarySearchTree.IN_ORDER);
+        assertEquals(inOrder, radix.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(inOrder, radix.getTraversalOutput(BinarySearchTree.PRE_ORDER));
+        assertEquals(sortedLines(inOrder), sortedLines(radix.getTraversalOutput(BinarySearchTree.POST_ORDER)));
+
+        for (String word : words) {
+            assertEquals(tree.searchWord(word), radix.searchWord(word), word);
+            for (String near : new String[] { word.substring(0, word.length() - 1), word + "a", word + "d" }) {
+                assertEquals(tree.searchWord(near), radix.searchWord(near), near);
+            }
+        }
+        assertEquals(0, radix.searchWord(""));
+    }
+
+    @Test
+    public void testTopKMatchesBinarySearchTree() {
+        // Same counts as the BST; ties are listed alphabetically
+        Random random = new Random(25);
+        RadixWordTree radix = new RadixWordTree();
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : randomWords(random, 5000)) {
+            radix.insert(word);
+            tree.insert(word);
+        }
+        List<Map.Entry<String, Integer>> expected = new ArrayList<>();
+        tree.iterator(BinarySearchTree.IN_ORDER).forEachRemaining(expected::add);
+        expected.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        for (int k : new int[] { 0, 1, 10, 100, tree.getUniqueWords() + 5 }) {
+            assertEquals(expected.subList(0, Math.min(k, expected.size())), radix.topK(k));
+        }
+        assertThrows(IllegalArgumentException.class, () -> radix.topK(-1));
+    }
+
+    @Test
+    public void testPostOrderListsLongerWordsFirst() {
+        RadixWordTree radix = new RadixWordTree();
+        for (String word : new String[] { "abc", "a", "ab", "b", "abd" }) {
+            radix.insert(word);
+        }
+        assertEquals("abc (1)\nabd (1)\nab (1)\na (1)\nb (1)\n",
+                radix.getTraversalOutput(BinarySearchTree.POST_ORDER));
+        assertEquals("Error, Invalid Traversal type.", radix.getTraversalOutput(4));
+        assertThrows(IllegalArgumentException.class, () -> radix.writeTraversal(0, new StringWriter()));
+    }
+
+    @Test
+    public void testEdgesSplitAndHeight() {
+        RadixWordTree radix = new RadixWordTree();
+        assertEquals(-1, radix.getTreeHeight());
+        radix.insert("testing");
+        assertEquals(0, radix.getTreeHeight());
+        assertEquals(1, radix.getNodeCount());
+
+        // "test" splits the edge; "team" splits it again and adds a leaf
+        radix.insert("test");
+        assertEquals(1, radix.getTreeHeight());
+        assertEquals(2, radix.getNodeCount());
+        radix.insert("team");
+        assertEquals(2, radix.getTreeHeight());
+        assertEquals(4, radix.getNodeCount());
+        assertEquals(3, radix.getUniqueWords());
+        assertEquals(0, radix.searchWord("te"));
+        assertEquals(0, radix.searchWord("tes"));
+        assertEquals(1, radix.searchWord("test"));
+
+        // "te" is already a node: it only gets a count
+        radix.insert("te", 2);
+        assertEquals(4, radix.getNodeCount());
+        assertEquals(2, radix.searchWord("te"));
+        assertEquals("te (2 times)", radix.getMostFrequentWord());
+    }
+
+    @Test
+    public void testUnicodeWords() {
+        RadixWordTree radix = new RadixWordTree();
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : new String[] { "\u00E9t\u00E9", "\u00E9t", "\u00E9", "\u6771\u4EAC", "\u6771", "ete" }) {
+            radix.insert(word);
+            tree.insert(word);
+        }
+        assertEquals(tree.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                radix.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(1, radix.searchWord("\u6771\u4EAC"));
+    }
+
+    @Test
+    public void testPreferMostFrequent() {
+        RadixWordTree radix = new RadixWordTree();
+        radix.insert("b", 2);
+        radix.insert("ab", 2);
+        radix.insert("a");
+        assertEquals("b (2 times)", radix.getMostFrequentWord());
+        radix.preferMostFrequent("ab");
+        assertEquals("ab (2 times)", radix.getMostFrequentWord());
+        radix.preferMostFrequent("a");
+        assertEquals("ab (2 times)", radix.getMostFrequentWord());
+        radix.insert("ab");
+        assertEquals("ab (3 times)", radix.getMostFrequentWord());
+    }
+
+    @Test
+    public void testInvalidInserts() {
+        RadixWordTree radix = new RadixWordTree();
+        assertThrows(IllegalArgumentException.class, () -> radix.insert("a", 0));
+        radix.insert("");
+        assertEquals(0, radix.getTotalWords());
+        assertEquals("No words in the tree.", radix.getMostFrequentWord());
+    }
+}
@@ -0,0 +1,20 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Internal hook for code that adds counts in bulk (merges,
+    parallel and incremental ingest). Those counts lose the
+    order in which words reached their frequency, so the caller
+    names the word a single pass would have reported as the
+    most frequent one. Only the exact backends implement it.
+---------------------------------------------------------
+*/
+
+interface TieBreaking {
+
+    // Reports the given word as the most frequent one if it ties with the
+    // current most frequent word
+    void preferMostFrequent(String word);
+}
@@ -0,0 +1,145 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Optional metrics for BinarySearchTree and the ingest loop:
+    comparisons per insert and per search (the depth of each
+    probe), hot word cache hits and misses, ingest throughput
+    and the tree height over time. A tree without metrics pays
+    one null check per operation. The numbers can be exported as
+    JSON, and every ingest sample is also committed as a JFR
+    event ("wordcounter.IngestSample") when a flight recording
+    is running.
+---------------------------------------------------------
+*/
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.*;
+
+class TreeMetrics {
+
+    // Progress of the ingest loop, emitted with every sample
+    @Name("wordcounter.IngestSample")
+    @Label("Word Counter Ingest Sample")
+    @Category("Word Counter")
+    static class IngestSample extends Event {
+        @Label("Words")
+        long words;
+
+        @Label("Unique Words")
+        int uniqueWords;
+
+        @Label("Tree Height")
+        int height;
+
+        @Label("Words per Second")
+        double wordsPerSecond;
+
+        @Label("Mean Comparisons per Insert")
+        double comparisonsPerInsert;
+    }
+
+    // (1) Comparisons (compareTo calls) made by each insert and each search; a
+    // word found in the hot word cache counts as 0
+    // (2) Hot word cache lookups that found or missed the word
+    // (3) Ingest: start time, words and bytes so far, and the samples of the
+    // tree height taken along the way (seconds, words, height)
+
+    private final Histogram insertComparisons = new Histogram();
+    private final Histogram searchComparisons = new Histogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private volatile long ingestedWords;
+    private volatile long ingestedBytes;
+    private volatile long ingestNanos;
+    private final List<double[]> heightSamples = new ArrayList<>();
+
+    // Records an insert that compared the word with 'comparisons' nodes
+    void insert(int comparisons) {
+        insertComparisons.record(comparisons);
+    }
+
+    // Records a search that compared the word with 'comparisons' nodes
+    void search(int comparisons) {
+        searchComparisons.record(comparisons);
+    }
+
+    // Records a hot word cache lookup
+    void cacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    // Records the ingest loop's progress: 'words' read so far into 'tree'. Adds
+    // a height sample and commits a JFR event if a recording wants one.
+    void ingestProgress(long words, BinarySearchTree tree) {
+        long nanos = System.nanoTime() - startNanos;
+        ingestedWords = words;
+        ingestNanos = nanos;
+        synchronized (heightSamples) {
+            heightSamples.add(new double[] { nanos / 1e9, words, tree.getTreeHeight() });
+        }
+
+        IngestSample event = new IngestSample();
+        if (event.shouldCommit()) {
+            event.words = words;
+            event.uniqueWords = tree.getUniqueWords();
+            event.height = tree.getTreeHeight();
+            event.wordsPerSecond = words / Math.max(1e-9, nanos / 1e9);
+            event.comparisonsPerInsert = insertComparisons.mean();
+            event.commit();
+        }
+    }
+
+    // Records the end of the ingest loop after 'words' words from 'bytes' bytes
+    void ingestFinished(long words, long bytes, BinarySearchTree tree) {
+        ingestProgress(words, tree);
+        ingestedBytes = bytes;
+    }
+
+    // Returns all metrics as a JSON object
+    String toJson() {
+        // (1) Operation counts and comparison histograms
+        // (2) Cache hit rate (0 without lookups)
+        // (3) Ingest throughput over the time from creation to the last sample
+        // (4) The height samples
+
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"insertComparisons\": ").append(histogramJson(insertComparisons)).append(",\n");
+        json.append("  \"searchComparisons\": ").append(histogramJson(searchComparisons)).append(",\n");
+
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        json.append(String.format(Locale.ROOT, "  \"cache\": {\"hits\": %d, \"misses\": %d, \"hitRate\": %.4f},%n", hits,
+                lookups - hits, lookups == 0 ? 0.0 : hits / (double) lookups));
+
+        double seconds = ingestNanos / 1e9;
+        json.append(String.format(Locale.ROOT,
+                "  \"ingest\": {\"words\": %d, \"bytes\": %d, \"seconds\": %.3f, \"wordsPerSecond\": %.1f, "
+                        + "\"bytesPerSecond\": %.1f},%n",
+                ingestedWords, ingestedBytes, seconds, seconds == 0 ? 0.0 : ingestedWords / seconds,
+                seconds == 0 ? 0.0 : ingestedBytes / seconds));
+
+        json.append("  \"heightOverTime\": [");
+        synchronized (heightSamples) {
+            for (int i = 0; i < heightSamples.size(); i++) {
+                double[] sample = heightSamples.get(i);
+                json.append(i == 0 ? "\n" : ",\n").append(String.format(Locale.ROOT,
+                        "    {\"seconds\": %.3f, \"words\": %d, \"height\": %d}", sample[0], (long) sample[1],
+                        (int) sample[2]));
+            }
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    // {"count", "mean", "p50", "p90", "p99", "max"} of a histogram
+    private static String histogramJson(Histogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\": %d, \"mean\": %.3f, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}",
+                histogram.count(), histogram.mean(), histogram.percentile(0.50), histogram.percentile(0.90),
+                histogram.percentile(0.99), histogram.max());
+    }
+}
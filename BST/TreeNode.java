@@ -0,0 +1,56 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    A node of the word frequency tree: the word, its count, the
+    child links, and the bookkeeping kept for the balanced mode,
+    rank/select and the top-K frequency index.
+---------------------------------------------------------
+*/
+
+// TODO #1
+// Represents a node in the Binary Search Tree (BST)
+class TreeNode {
+    // (1) The word stored in this node
+    // (2) Count of occurrences of the word
+    // (3) Pointers to left and right children
+
+    String word;
+
+    int frequency;
+
+    TreeNode left;
+    TreeNode right;
+
+    // (4) Height of the subtree rooted at this node, in edges (used by the
+    // self-balancing mode)
+    int height;
+
+    // (5) Number of nodes in the subtree rooted at this node (used for rank and
+    // select)
+    int size;
+
+    // (6) Frequency bucket holding this node, and its neighbours in that bucket
+    // (used by the top-K index)
+    FrequencyIndex.Bucket bucket;
+    TreeNode prevSameFrequency;
+    TreeNode nextSameFrequency;
+
+    // Constructor initializes a new node with the given word
+    public TreeNode(String word) {
+        // (1) Assigns the input word to the node
+        // (2) New word starts with frequency of 1
+        // (3) Initially, no children
+
+        this.word = word;
+        this.frequency = 1;
+
+        this.left = null;
+        this.right = null;
+        this.height = 0;
+        this.size = 1;
+
+    }
+}
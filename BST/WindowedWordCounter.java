@@ -0,0 +1,166 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Sliding-window word frequency counter for streaming input
+    such as live logs. Only the words seen during the last
+    'window' milliseconds are counted: the window is cut into
+    slices, each slice remembers the counts it added, and when a
+    slice falls out of the window its counts are removed from
+    the tree again. Words that drop to zero are deleted, so
+    memory follows recent traffic instead of growing forever,
+    and the statistics (e.g. the most frequent word) describe
+    the window only.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+class WindowedWordCounter implements WordCounter, TieBreaking {
+
+    // (1) Counts of the words inside the window
+    // (2) Length of one slice in milliseconds
+    // (3) Counts added during each slice; slice number s is kept at index
+    // s mod slices.size(), so the list is a ring covering the window
+    // (4) Number of the newest slice (time / sliceMillis)
+    // (5) Source of the current time in milliseconds
+
+    private final BinarySearchTree tree;
+    private final long sliceMillis;
+    private final List<HashMap<String, int[]>> slices;
+    private long currentSlice;
+    private final LongSupplier clock;
+
+    // Creates a counter over the last 'windowMillis' milliseconds, expiring old
+    // counts in 'sliceCount' steps (more slices make the window edge sharper
+    // but keep more per-slice counts)
+    public WindowedWordCounter(long windowMillis, int sliceCount, boolean balanced) {
+        this(windowMillis, sliceCount, balanced, System::currentTimeMillis);
+    }
+
+    // Creates a windowed counter that reads the time from 'clock'
+    WindowedWordCounter(long windowMillis, int sliceCount, boolean balanced, LongSupplier clock) {
+        if (sliceCount < 1 || windowMillis < sliceCount) {
+            throw new IllegalArgumentException(
+                    "Need at least one slice of at least 1 ms: window " + windowMillis + " ms, " + sliceCount + " slices");
+        }
+        this.tree = new BinarySearchTree(balanced);
+        this.sliceMillis = windowMillis / sliceCount;
+        this.slices = new ArrayList<>(sliceCount);
+        for (int i = 0; i < sliceCount; i++) {
+            slices.add(new HashMap<>());
+        }
+        this.clock = clock;
+        this.currentSlice = Math.floorDiv(clock.getAsLong(), sliceMillis);
+    }
+
+    // Expires the slices that have left the window since the last call
+    private void advance() {
+        // (1) Find the current slice; a clock that goes backwards keeps the
+        // current slice
+        // (2) The window now covers slices now - n + 1 .. now; remove the counts of
+        // every older slice still in the ring (at most n of them)
+        // (3) Reuse the emptied maps for the new slices
+
+        long now = Math.floorDiv(clock.getAsLong(), sliceMillis);
+        if (now <= currentSlice) {
+            return;
+        }
+
+        int n = slices.size();
+        long lastExpired = Math.min(currentSlice, now - n);
+        for (long slice = currentSlice - n + 1; slice <= lastExpired; slice++) {
+            HashMap<String, int[]> counts = slices.get(Math.floorMod(slice, n));
+            for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+                tree.remove(entry.getKey(), entry.getValue()[0]);
+            }
+            counts.clear();
+        }
+        currentSlice = now;
+    }
+
+    // Counts one occurrence of a word at the current time
+    @Override
+    public void insert(String word) {
+        insert(word, 1);
+    }
+
+    // Counts 'count' occurrences of a word at the current time
+    @Override
+    public void insert(String word, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        advance();
+        tree.insert(word, count);
+        slices.get(Math.floorMod(currentSlice, slices.size()))
+                .computeIfAbsent(word, w -> new int[1])[0] += count;
+    }
+
+    // Returns the frequency of a word within the window
+    @Override
+    public int searchWord(String word) {
+        advance();
+        return tree.searchWord(word);
+    }
+
+    // Returns the traversal output of the words within the window
+    @Override
+    public String getTraversalOutput(int type) {
+        advance();
+        return tree.getTraversalOutput(type);
+    }
+
+    // Writes the traversal output of the words within the window
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        advance();
+        tree.writeTraversal(type, out);
+    }
+
+    // Returns the number of words within the window, including duplicates
+    @Override
+    public long getTotalWords() {
+        advance();
+        return tree.getTotalWords();
+    }
+
+    // Returns the number of unique words within the window
+    @Override
+    public int getUniqueWords() {
+        advance();
+        return tree.getUniqueWords();
+    }
+
+    // Returns the most frequent word within the window
+    @Override
+    public String getMostFrequentWord() {
+        advance();
+        return tree.getMostFrequentWord();
+    }
+
+    // Returns the height of the tree holding the window's words
+    @Override
+    public int getTreeHeight() {
+        advance();
+        return tree.getTreeHeight();
+    }
+
+    // Returns up to k of the most frequent words within the window
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        advance();
+        return tree.topK(k);
+    }
+
+    // Reports the given word as the most frequent one if it ties with the
+    // current most frequent word
+    @Override
+    public void preferMostFrequent(String word) {
+        tree.preferMostFrequent(word);
+    }
+}
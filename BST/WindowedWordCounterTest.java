@@ -0,0 +1,116 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for WindowedWordCounter: counts expire slice
+    by slice as a fake clock moves past the window, and expired
+    words are removed from the tree.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WindowedWordCounterTest {
+
+    // Current time of the fake clock, in milliseconds
+    private long now;
+
+    /**
+     * Creates a counter over a 1000 ms window cut into four 250 ms slices, reading
+     * the time from the fake clock
+     */
+    private WindowedWordCounter counter() {
+        return new WindowedWordCounter(1000, 4, true, () -> now);
+    }
+
+    @Test
+    public void testCountsWithinWindow() {
+        WindowedWordCounter counter = counter();
+        counter.insert("error");
+        now = 300;
+        counter.insert("error", 2);
+        counter.insert("warn");
+        now = 999;
+        assertEquals(3, counter.searchWord("error"));
+        assertEquals(4, counter.getTotalWords());
+        assertEquals(2, counter.getUniqueWords());
+        assertEquals("error (3 times)", counter.getMostFrequentWord());
+    }
+
+    @Test
+    public void testSliceExpires() {
+        WindowedWordCounter counter = counter();
+        counter.insert("error");
+        now = 300;
+        counter.insert("warn", 2);
+        now = 1000;
+        assertEquals(0, counter.searchWord("error"));
+        assertEquals(2, counter.searchWord("warn"));
+        assertEquals(2, counter.getTotalWords());
+        assertEquals(1, counter.getUniqueWords());
+        assertEquals("warn (2 times)", counter.getMostFrequentWord());
+    }
+
+    @Test
+    public void testPartOfWordExpires() {
+        WindowedWordCounter counter = counter();
+        counter.insert("error", 5);
+        now = 500;
+        counter.insert("error", 2);
+        now = 1100;
+        assertEquals(2, counter.searchWord("error"));
+        now = 1500;
+        assertEquals(0, counter.searchWord("error"));
+        assertEquals(0, counter.getTotalWords());
+    }
+
+    @Test
+    public void testEverythingExpiresAfterLongPause() {
+        WindowedWordCounter counter = counter();
+        for (int i = 0; i < 8; i++) {
+            now = i * 125;
+            counter.insert("word" + i);
+        }
+        now = 1_000_000;
+        assertEquals(0, counter.getUniqueWords());
+        assertEquals(0, counter.getTotalWords());
+        counter.insert("fresh");
+        assertEquals(1, counter.getTotalWords());
+        assertEquals("fresh (1 times)", counter.getMostFrequentWord());
+    }
+
+    @Test
+    public void testClockGoingBackwardsExpiresNothing() {
+        WindowedWordCounter counter = counter();
+        now = 800;
+        counter.insert("error");
+        now = 100;
+        counter.insert("error");
+        assertEquals(2, counter.searchWord("error"));
+        now = 1749;
+        assertEquals(2, counter.searchWord("error"));
+        now = 1750;
+        assertEquals(0, counter.searchWord("error"));
+    }
+
+    @Test
+    public void testExpiryKeepsTreeBalanced() {
+        WindowedWordCounter counter = counter();
+        for (int i = 0; i < 4000; i++) {
+            now = i;
+            counter.insert("w" + (i % 700));
+        }
+        assertEquals(1000, counter.getTotalWords());
+        assertEquals(700, counter.getUniqueWords());
+        assertTrue(counter.getTreeHeight() <= 12, "height " + counter.getTreeHeight());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedWordCounter(1000, 0, false, () -> now));
+        assertThrows(IllegalArgumentException.class, () -> new WindowedWordCounter(3, 4, false, () -> now));
+        assertThrows(IllegalArgumentException.class, () -> counter().insert("word", 0));
+    }
+}
@@ -0,0 +1,20 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Operations shared by the word frequency counter backends,
+    so the program can pick a backend at startup: the read-only
+    queries of WordCounts plus counting new words.
+---------------------------------------------------------
+*/
+
+interface WordCounter extends WordCounts {
+
+    // Inserts one occurrence of a word
+    void insert(String word);
+
+    // Inserts a word that occurred 'count' times at once
+    void insert(String word, int count);
+}
@@ -0,0 +1,979 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Micro-benchmarks for the word frequency counter, run on
+    generated word lists so they need no input files:
+        java WordCounterBenchmark [benchmark name ...] [text file ...]
+    Each benchmark is warmed up first, then timed over several
+    iterations; the average time per operation is printed with
+    the standard deviation between iterations. The core suite
+    (insert, search, traversal, statistics, memory) covers the
+    tree backends on random, sorted and Zipfian word streams.
+    Text files given on the command line are the corpus of the
+    radix and ngrams benchmarks.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class WordCounterBenchmark {
+
+    // Warm-up and measured iterations per benchmark
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    // Results are folded into this field so the JIT cannot drop the work
+    static volatile long sink;
+
+    public static void main(String[] args) {
+        // Arguments naming existing files are corpora, the rest benchmark names
+        Set<String> selected = new HashSet<>();
+        List<String> corpora = new ArrayList<>();
+        for (String arg : args) {
+            if (new File(arg).isFile()) {
+                corpora.add(arg);
+            } else {
+                selected.add(arg);
+            }
+        }
+
+        if (selected.isEmpty() || selected.contains("insert")) {
+            insert();
+        }
+        if (selected.isEmpty() || selected.contains("search")) {
+            search();
+        }
+        if (selected.isEmpty() || selected.contains("traversal")) {
+            traversal();
+        }
+        if (selected.isEmpty() || selected.contains("statistics")) {
+            statistics();
+        }
+        if (selected.isEmpty() || selected.contains("memory")) {
+            memory();
+        }
+        if (selected.isEmpty() || selected.contains("batch-search")) {
+            batchSearch();
+        }
+        if (selected.isEmpty() || selected.contains("hot-word-cache")) {
+            hotWordCache();
+        }
+        if (selected.isEmpty() || selected.contains("utf8-keys")) {
+            utf8Keys();
+        }
+        if (selected.isEmpty() || selected.contains("windowed")) {
+            windowed();
+        }
+        if (selected.isEmpty() || selected.contains("approximate")) {
+            approximate();
+        }
+        if (selected.isEmpty() || selected.contains("merge")) {
+            merge();
+        }
+        if (selected.isEmpty() || selected.contains("bulk-load")) {
+            bulkLoad();
+        }
+        if (selected.isEmpty() || selected.contains("radix")) {
+            radix(corpora);
+        }
+        if (selected.isEmpty() || selected.contains("ngrams")) {
+            ngrams(corpora);
+        }
+        if (selected.isEmpty() || selected.contains("metrics")) {
+            metrics();
+        }
+        if (selected.isEmpty() || selected.contains("query-server")) {
+            queryServer();
+        }
+        if (selected.isEmpty() || selected.contains("concurrent")) {
+            concurrent();
+        }
+    }
+
+    // Insert throughput of every tree backend on three word streams: uniformly
+    // random words, a sorted word list and Zipf-distributed text
+    static void insert() {
+        // (1) 200,000 occurrences from a 50,000-word vocabulary for the random and
+        // Zipf streams
+        // (2) The sorted list is 2,000 words 50 times each, since sorted input
+        // makes every plain insert walk the whole tree (see bulk-load)
+        // (3) Count each stream into a fresh counter per run
+
+        String[] vocabulary = generateVocabulary(50_000, 43);
+        Map<String, String[]> streams = new LinkedHashMap<>();
+        streams.put("random", uniformStream(vocabulary, 200_000, 47));
+        streams.put("sorted", sortedStream(Arrays.copyOf(vocabulary, 2_000), 50));
+        streams.put("Zipf", zipfianStream(vocabulary, 200_000, 1.0, 53));
+
+        for (Map.Entry<String, String[]> stream : streams.entrySet()) {
+            String[] words = stream.getValue();
+            for (Map.Entry<String, Supplier<WordCounter>> backend : backends().entrySet()) {
+                measure("insert " + stream.getKey() + " (" + backend.getKey() + ")", words.length, () -> {
+                    WordCounter counter = backend.getValue().get();
+                    for (String word : words) {
+                        counter.insert(word);
+                    }
+                    sink += counter.getUniqueWords();
+                });
+            }
+        }
+    }
+
+    // searchWord() latency of every backend over 200,000 unique words: the
+    // average over many calls, and the median and 99th percentile of single
+    // calls (timed one by one, so they include the timer's own overhead)
+    static void search() {
+        // (1) Fill each backend in random order
+        // (2) Probe with 100,000 words, half of them present
+
+        String[] vocabulary = generateVocabulary(200_000, 59);
+        Random random = new Random(61);
+        String[] probes = new String[100_000];
+        for (int i = 0; i < probes.length; i++) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            probes[i] = random.nextBoolean() ? new String(word) : word + "x";
+        }
+
+        for (Map.Entry<String, Supplier<WordCounter>> backend : backends().entrySet()) {
+            WordCounter counter = backend.getValue().get();
+            for (String word : vocabulary) {
+                counter.insert(word);
+            }
+
+            measure("searchWord (" + backend.getKey() + ")", probes.length, () -> {
+                long sum = 0;
+                for (String word : probes) {
+                    sum += counter.searchWord(word);
+                }
+                sink += sum;
+            });
+
+            long[] latencies = new long[probes.length];
+            for (int i = 0; i < probes.length; i++) {
+                long start = System.nanoTime();
+                sink += counter.searchWord(probes[i]);
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-50s %12d ns p50 %8d ns p99%n", "  single calls", latencies[latencies.length / 2],
+                    latencies[latencies.length * 99 / 100]);
+        }
+    }
+
+    // Traversal throughput (ns per word written) for the three orders, plus the
+    // lazy in-order iterator, over 200,000 unique words
+    static void traversal() {
+        String[] vocabulary = generateVocabulary(200_000, 67);
+        for (Map.Entry<String, Supplier<WordCounter>> backend : backends().entrySet()) {
+            WordCounter counter = backend.getValue().get();
+            for (String word : vocabulary) {
+                counter.insert(word);
+            }
+
+            String[] orders = { "in-order", "pre-order", "post-order" };
+            for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+                int order = type;
+                measure("writeTraversal " + orders[type - 1] + " (" + backend.getKey() + ")", vocabulary.length, () -> {
+                    CountingWriter out = new CountingWriter();
+                    try {
+                        counter.writeTraversal(order, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    sink += out.characters;
+                });
+            }
+            if (counter instanceof BinarySearchTree) {
+                BinarySearchTree tree = (BinarySearchTree) counter;
+                measure("nodeIterator in-order (" + backend.getKey() + ")", vocabulary.length, () -> {
+                    long sum = 0;
+                    for (Iterator<TreeNode> nodes = tree.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+                        sum += nodes.next().frequency;
+                    }
+                    sink += sum;
+                });
+            }
+        }
+    }
+
+    // Cost of the statistics getters, which must stay O(1) however large the
+    // tree is: each loop cycles through counters of 1,000 to 1,000,000 words,
+    // which also keeps the JIT from hoisting the call out of the loop (run
+    // without -ea: assertions re-check the statistics in O(n))
+    static void statistics() {
+        String[] stream = zipfianStream(generateVocabulary(200_000, 71), 1_000_000, 1.0, 73);
+        for (Map.Entry<String, Supplier<WordCounter>> backend : backends().entrySet()) {
+            WordCounter[] counters = new WordCounter[4];
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = backend.getValue().get();
+                for (int j = 0; j < 1000 * (int) Math.pow(10, i); j++) {
+                    counters[i].insert(stream[j]);
+                }
+            }
+
+            measure("getTotalWords (" + backend.getKey() + ")", 1_000_000, () -> {
+                long sum = 0;
+                for (int i = 0; i < 1_000_000; i++) {
+                    sum += counters[i & 3].getTotalWords();
+                }
+                sink += sum;
+            });
+            measure("getUniqueWords + getTreeHeight (" + backend.getKey() + ")", 1_000_000, () -> {
+                long sum = 0;
+                for (int i = 0; i < 1_000_000; i++) {
+                    sum += counters[i & 3].getUniqueWords() + counters[i & 3].getTreeHeight();
+                }
+                sink += sum;
+            });
+            measure("getMostFrequentWord (" + backend.getKey() + ")", 100_000, () -> {
+                long sum = 0;
+                for (int i = 0; i < 100_000; i++) {
+                    sum += counters[i & 3].getMostFrequentWord().length();
+                }
+                sink += sum;
+            });
+        }
+    }
+
+    // Heap retained per unique word by every backend, including the words
+    // themselves, measured as the growth of the used heap after full GCs
+    static void memory() {
+        // Insert full copies of the words (new String(String) would share the
+        // characters), as the tokenizer hands over a new word each time
+
+        String[] vocabulary = generateVocabulary(500_000, 79);
+        for (Map.Entry<String, Supplier<WordCounter>> backend : backends().entrySet()) {
+            printMemory(backend.getKey(), () -> {
+                WordCounter counter = backend.getValue().get();
+                for (String word : vocabulary) {
+                    counter.insert(new String(word.toCharArray()));
+                }
+                return counter;
+            });
+        }
+        printMemory("bulk loaded", () -> {
+            List<String> words = new ArrayList<>();
+            for (String word : sortedStream(vocabulary, 1)) {
+                words.add(new String(word.toCharArray()));
+            }
+            return BinarySearchTree.fromWords(words, false);
+        });
+    }
+
+    // Builds a counter and prints the heap it retains per unique word. The
+    // counter is only reachable from this frame, so nothing from a previous
+    // measurement is still alive.
+    static void printMemory(String name, Supplier<WordCounter> build) {
+        long before = usedHeap();
+        WordCounter counter = build.get();
+        long after = usedHeap();
+        System.out.printf("%-50s %12.1f bytes/word%n", "memory (" + name + ")",
+                (after - before) / (double) counter.getUniqueWords());
+        sink += counter.getUniqueWords();
+    }
+
+    // Compares the radix tree with the BST backends on text: the words of the
+    // given files, or a generated Zipf stream over word families that share
+    // stems (count, counted, counter, counting, ...), as real text does
+    static void radix(List<String> corpora) {
+        // (1) Read the corpus into one word list
+        // (2) Count it, look every word up again, list the words in order, and
+        // measure the memory per unique word
+
+        String[] stream;
+        if (corpora.isEmpty()) {
+            stream = zipfianStream(wordFamilies(generateVocabulary(20_000, 103)), 2_000_000, 1.0, 107);
+        } else {
+            List<String> words = new ArrayList<>();
+            for (String corpus : corpora) {
+                try {
+                    WordTokenizer.tokenize(corpus, words::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            stream = words.toArray(new String[0]);
+        }
+        String corpus = corpora.isEmpty() ? "word families" : String.join(", ", corpora);
+        System.out.printf("radix corpus: %s, %,d words%n", corpus, stream.length);
+
+        Map<String, Supplier<WordCounter>> backends = new LinkedHashMap<>();
+        backends.put("BST balanced", () -> new BinarySearchTree(true));
+        backends.put("BST balanced, cache", () -> new BinarySearchTree(true, 16384));
+        backends.put("compact balanced", () -> new CompactWordTree(true));
+        backends.put("radix", RadixWordTree::new);
+
+        for (Map.Entry<String, Supplier<WordCounter>> backend : backends.entrySet()) {
+            measure("insert text (" + backend.getKey() + ")", stream.length, () -> {
+                WordCounter counter = backend.getValue().get();
+                for (String word : stream) {
+                    counter.insert(word);
+                }
+                sink += counter.getUniqueWords();
+            });
+
+            WordCounter counter = backend.getValue().get();
+            for (String word : stream) {
+                counter.insert(word);
+            }
+            measure("searchWord text (" + backend.getKey() + ")", stream.length, () -> {
+                long sum = 0;
+                for (String word : stream) {
+                    sum += counter.searchWord(word);
+                }
+                sink += sum;
+            });
+            measure("writeTraversal in-order (" + backend.getKey() + ")", counter.getUniqueWords(), () -> {
+                CountingWriter out = new CountingWriter();
+                try {
+                    counter.writeTraversal(BinarySearchTree.IN_ORDER, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sink += out.characters;
+            });
+            System.out.printf("%-50s %12d%n", "  height (" + backend.getKey() + ")", counter.getTreeHeight());
+
+            printMemory(backend.getKey(), () -> {
+                WordCounter copy = backend.getValue().get();
+                for (String word : stream) {
+                    copy.insert(new String(word.toCharArray()));
+                }
+                return copy;
+            });
+        }
+    }
+
+    // Derives a family of words from every stem by adding common English
+    // suffixes, in random order
+    static String[] wordFamilies(String[] stems) {
+        String[] suffixes = { "", "s", "ed", "er", "ers", "ing", "ings", "ly", "ness", "able", "ation", "ations" };
+        List<String> words = new ArrayList<>(stems.length * suffixes.length);
+        for (String stem : stems) {
+            for (String suffix : suffixes) {
+                words.add(stem + suffix);
+            }
+        }
+        Collections.shuffle(words, new Random(109));
+        return new LinkedHashSet<>(words).toArray(new String[0]);
+    }
+
+    // Cost of TreeMetrics: inserting a Zipf stream and searching a tree with
+    // metrics off and on
+    static void metrics() {
+        String[] vocabulary = generateVocabulary(50_000, 97);
+        String[] stream = zipfianStream(vocabulary, 1_000_000, 1.0, 101);
+
+        for (boolean enabled : new boolean[] { false, true }) {
+            for (int cacheCapacity : new int[] { 0, 16384 }) {
+                String mode = (enabled ? "metrics on" : "metrics off") + (cacheCapacity == 0 ? "" : ", cache");
+                measure("insert Zipf stream (balanced, " + mode + ")", stream.length, () -> {
+                    BinarySearchTree bst = new BinarySearchTree(true, cacheCapacity);
+                    bst.setMetrics(enabled ? new TreeMetrics() : null);
+                    for (String word : stream) {
+                        bst.insert(word);
+                    }
+                    sink += bst.getUniqueWords();
+                });
+
+                BinarySearchTree bst = new BinarySearchTree(true, cacheCapacity);
+                for (String word : stream) {
+                    bst.insert(word);
+                }
+                bst.setMetrics(enabled ? new TreeMetrics() : null);
+                measure("searchWord Zipf stream (balanced, " + mode + ")", stream.length, () -> {
+                    long sum = 0;
+                    for (String word : stream) {
+                        sum += bst.searchWord(word);
+                    }
+                    sink += sum;
+                });
+            }
+        }
+    }
+
+    // Load test of WordQueryServer: 1,000 concurrent connections send requests
+    // while a writer keeps counting words and publishing snapshots; prints the
+    // throughput and the client-side and server-side latency percentiles
+    static void queryServer() {
+        // (1) Publish a first tree, then keep inserting a Zipf stream into a live
+        // tree and publish a copy of it every 100,000 words
+        // (2) Open every connection first, then let each client send 200 requests at
+        // once: mostly searches, some stats and top-10 requests
+        // (3) Time each request from sending it to reading the end of the answer
+
+        int clients = 1000;
+        int requestsPerClient = 200;
+        String[] vocabulary = generateVocabulary(200_000, 83);
+        String[] stream = zipfianStream(vocabulary, 2_000_000, 1.0, 89);
+        BinarySearchTree live = new BinarySearchTree(true);
+        for (String word : vocabulary) {
+            live.insert(word);
+        }
+
+        Histogram latencies = new Histogram();
+        AtomicBoolean done = new AtomicBoolean();
+        try (WordQueryServer server = new WordQueryServer(0, live.copy())) {
+            server.start();
+            Thread writer = new Thread(() -> {
+                for (int i = 0; !done.get(); i = (i + 1) % stream.length) {
+                    live.insert(stream[i]);
+                    if (i % 100_000 == 0) {
+                        server.publish(live.copy());
+                    }
+                }
+            });
+            writer.start();
+
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(clients);
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                Socket socket = new Socket("127.0.0.1", server.getPort());
+                socket.setTcpNoDelay(true);
+                Thread client = new Thread(() -> {
+                    try (socket;
+                            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                    StandardCharsets.UTF_8));
+                            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                        started.await();
+                        Random random = new Random(seed);
+                        for (int i = 0; i < requestsPerClient; i++) {
+                            int kind = random.nextInt(100);
+                            String request = kind < 90 ? "search " + stream[random.nextInt(stream.length)]
+                                    : kind < 95 ? "stats" : "top 10";
+                            long start = System.nanoTime();
+                            out.write(request + "\n");
+                            out.flush();
+                            while (!".".equals(in.readLine())) {
+                                // Skip the answer's lines
+                            }
+                            latencies.record(System.nanoTime() - start);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+                client.start();
+            }
+
+            long start = System.nanoTime();
+            started.countDown();
+            finished.await();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            done.set(true);
+            writer.join();
+
+            System.out.printf("%-50s %12.0f requests/s%n", "query server (" + clients + " connections)",
+                    latencies.count() / seconds);
+            System.out.println("  client side: " + latencies.latencySummary());
+            System.out.println("  server side: " + server.getLatencies().latencySummary());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Fresh, empty counters of every tree backend, by name
+    static Map<String, Supplier<WordCounter>> backends() {
+        Map<String, Supplier<WordCounter>> backends = new LinkedHashMap<>();
+        backends.put("plain", BinarySearchTree::new);
+        backends.put("balanced", () -> new BinarySearchTree(true));
+        backends.put("balanced, cache", () -> new BinarySearchTree(true, 16384));
+        backends.put("compact", () -> new CompactWordTree(false));
+        backends.put("compact, balanced", () -> new CompactWordTree(true));
+        return backends;
+    }
+
+    // Used heap in bytes after the garbage collector has settled
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    // Writer that only counts the characters written to it
+    static class CountingWriter extends Writer {
+        long characters;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            characters += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            characters += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // Compares searchWords() on batches of 10,000 probes with calling
+    // searchWord() once per probe, on a random and on a balanced tree
+    static void batchSearch() {
+        // (1) Build trees over 1,000,000 unique words inserted in random order
+        // (2) Probe with batches of 10,000 words, half of them present
+
+        String[] vocabulary = generateVocabulary(1_000_000, 1);
+
+        Random random = new Random(3);
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(random.nextBoolean() ? vocabulary[random.nextInt(vocabulary.length)]
+                    : vocabulary[random.nextInt(vocabulary.length)] + "x");
+        }
+
+        for (boolean balanced : new boolean[] { false, true }) {
+            BinarySearchTree bst = new BinarySearchTree(balanced);
+            for (String word : vocabulary) {
+                bst.insert(word);
+            }
+            String mode = balanced ? "balanced" : "random-order";
+
+            measure("searchWord x10000 (" + mode + ")", batch.size(), () -> {
+                long sum = 0;
+                for (String word : batch) {
+                    sum += bst.searchWord(word);
+                }
+                sink += sum;
+            });
+            measure("searchWords batch of 10000 (" + mode + ")", batch.size(), () -> {
+                long sum = 0;
+                for (int frequency : bst.searchWords(batch)) {
+                    sum += frequency;
+                }
+                sink += sum;
+            });
+        }
+    }
+
+    // Compares counting a Zipf-distributed word stream (like real text, where a
+    // few words make up most occurrences) with and without the hot word cache
+    static void hotWordCache() {
+        // (1) Draw 2,000,000 occurrences from a 50,000-word vocabulary
+        // (2) Count them into a fresh tree per run, once per configuration
+
+        String[] stream = zipfianStream(generateVocabulary(50_000, 5), 2_000_000, 1.0, 7);
+
+        for (boolean balanced : new boolean[] { false, true }) {
+            for (int cacheCapacity : new int[] { 0, 4096, 16384 }) {
+                String name = "insert Zipf stream (" + (balanced ? "balanced" : "random-order")
+                        + (cacheCapacity == 0 ? ", no cache)" : ", cache " + cacheCapacity + ")");
+                measure(name, stream.length, () -> {
+                    BinarySearchTree bst = new BinarySearchTree(balanced, cacheCapacity);
+                    for (String word : stream) {
+                        bst.insert(word);
+                    }
+                    sink += bst.getUniqueWords();
+                });
+            }
+        }
+    }
+
+    // Compares counting words handed over as Strings with counting UTF-8 byte
+    // slices (as WordTokenizer.tokenizeBytes() delivers them) in the compact
+    // tree, for English and for Cyrillic words
+    static void utf8Keys() {
+        // (1) Draw 1,000,000 occurrences from a 50,000-word vocabulary
+        // (2) Pre-encode every occurrence, as the tokenizer's byte buffer holds it
+
+        for (boolean cyrillic : new boolean[] { false, true }) {
+            String[] vocabulary = generateVocabulary(50_000, 11);
+            if (cyrillic) {
+                for (int i = 0; i < vocabulary.length; i++) {
+                    char[] letters = vocabulary[i].toCharArray();
+                    for (int j = 0; j < letters.length; j++) {
+                        letters[j] = (char) (letters[j] - 'a' + '\u0430'); // a-z -> U+0430 .. U+0449
+                    }
+                    vocabulary[i] = new String(letters);
+                }
+            }
+            String[] stream = zipfianStream(vocabulary, 1_000_000, 1.0, 13);
+            byte[][] encoded = new byte[stream.length][];
+            for (int i = 0; i < stream.length; i++) {
+                encoded[i] = stream[i].getBytes(StandardCharsets.UTF_8);
+            }
+            String script = cyrillic ? "Cyrillic" : "English";
+
+            measure("BinarySearchTree.insert(String) (" + script + ")", stream.length, () -> {
+                BinarySearchTree bst = new BinarySearchTree();
+                for (String word : stream) {
+                    bst.insert(word);
+                }
+                sink += bst.getUniqueWords();
+            });
+            measure("CompactWordTree.insert(String) (" + script + ")", stream.length, () -> {
+                CompactWordTree tree = new CompactWordTree();
+                for (String word : stream) {
+                    tree.insert(word);
+                }
+                sink += tree.getUniqueWords();
+            });
+            measure("CompactWordTree.insertUtf8(bytes) (" + script + ")", stream.length, () -> {
+                CompactWordTree tree = new CompactWordTree();
+                for (byte[] word : encoded) {
+                    tree.insertUtf8(word, 0, word.length, 1);
+                }
+                sink += tree.getUniqueWords();
+            });
+        }
+    }
+
+    // Measures counting a Zipf-distributed stream over a sliding window, where
+    // expired slices are removed from the tree again, against counting it all
+    static void windowed() {
+        // (1) A simulated clock advances 1 ms every 100 words, so a 1-second
+        // window holds about 100,000 occurrences
+        // (2) Report the words left in the tree, which stay bounded by the window
+
+        String[] stream = zipfianStream(generateVocabulary(200_000, 17), 2_000_000, 1.0, 19);
+        int[] unique = new int[1];
+
+        measure("insert Zipf stream (all-time counts)", stream.length, () -> {
+            BinarySearchTree bst = new BinarySearchTree(true);
+            for (String word : stream) {
+                bst.insert(word);
+            }
+            unique[0] = bst.getUniqueWords();
+        });
+        System.out.println("    unique words kept: " + unique[0]);
+
+        measure("insert Zipf stream (1 s window, 10 slices)", stream.length, () -> {
+            long[] time = new long[1];
+            WindowedWordCounter counter = new WindowedWordCounter(1000, 10, true, () -> time[0] / 100);
+            for (String word : stream) {
+                counter.insert(word);
+                time[0]++;
+            }
+            unique[0] = counter.getUniqueWords();
+        });
+        System.out.println("    unique words kept: " + unique[0]);
+    }
+
+    // Several producer threads counting one Zipf-distributed stream, each a
+    // slice of it: ConcurrentWordCounter against a balanced tree behind one lock
+    static void concurrent() {
+        // (1) As many producers as cores, but at least two
+        // (2) Then time snapshots of the final counts, per unique word
+
+        String[] stream = zipfianStream(generateVocabulary(100_000, 97), 1_000_000, 1.0, 101);
+        int producers = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        measure("insert Zipf stream, " + producers + " threads (one lock)", stream.length, () -> {
+            BinarySearchTree bst = new BinarySearchTree(true);
+            produce(producers, stream, word -> {
+                synchronized (bst) {
+                    bst.insert(word);
+                }
+            });
+            sink += bst.getUniqueWords();
+        });
+
+        ConcurrentWordCounter[] counter = new ConcurrentWordCounter[1];
+        measure("insert Zipf stream, " + producers + " threads (ConcurrentWordCounter)", stream.length, () -> {
+            counter[0] = new ConcurrentWordCounter();
+            produce(producers, stream, counter[0]::insert);
+            sink += counter[0].getUniqueWords();
+        });
+        measure("ConcurrentWordCounter.snapshot (per unique word)", counter[0].getUniqueWords(), () -> {
+            counter[0].insert("snapshot"); // Invalidates the last snapshot
+            sink += counter[0].snapshot().getTreeHeight();
+        });
+    }
+
+    // Splits the stream into one slice per producer thread, inserts the slices
+    // in parallel and waits for all of them
+    static void produce(int producers, String[] stream, Consumer<String> insert) {
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int from = (int) ((long) stream.length * p / producers);
+            int to = (int) ((long) stream.length * (p + 1) / producers);
+            Thread thread = new Thread(() -> {
+                for (int i = from; i < to; i++) {
+                    insert.accept(stream[i]);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Compares counting a Zipf-distributed stream exactly with counting it in
+    // approximate mode, then reports the approximate mode's error
+    static void approximate() {
+        String[] stream = zipfianStream(generateVocabulary(500_000, 23), 2_000_000, 1.0, 29);
+
+        BinarySearchTree[] exact = new BinarySearchTree[1];
+        measure("insert Zipf stream (exact, balanced tree)", stream.length, () -> {
+            exact[0] = new BinarySearchTree(true);
+            for (String word : stream) {
+                exact[0].insert(word);
+            }
+        });
+
+        ApproximateWordCounter[] approximate = new ApproximateWordCounter[1];
+        measure("insert Zipf stream (approximate, 1 MB budget)", stream.length, () -> {
+            approximate[0] = ApproximateWordCounter.withMemoryBudget(1 << 20, 0.01, 1000);
+            for (String word : stream) {
+                approximate[0].insert(word);
+            }
+        });
+        ApproximationReport.print(exact[0], approximate[0], System.out);
+    }
+
+    // Compares merging two trees of 500,000 words each (250,000 words shared)
+    // with inserting the second tree's counts into a copy of the first
+    static void merge() {
+        String[] vocabulary = generateVocabulary(750_000, 31);
+        BinarySearchTree first = new BinarySearchTree(true);
+        BinarySearchTree second = new BinarySearchTree(true);
+        for (int i = 0; i < 500_000; i++) {
+            first.insert(vocabulary[i], 1 + i % 7);
+            second.insert(vocabulary[250_000 + i], 1 + i % 5);
+        }
+
+        measure("BinarySearchTree.merge (500k + 500k words)", 1_000_000, () -> {
+            sink += BinarySearchTree.merge(first, second).getUniqueWords();
+        });
+        measure("copy first tree, insert second one word at a time", 1_000_000, () -> {
+            BinarySearchTree copy = BinarySearchTree.merge(first, new BinarySearchTree());
+            second.stream(BinarySearchTree.IN_ORDER).forEach(entry -> copy.insert(entry.getKey(), entry.getValue()));
+            sink += copy.getUniqueWords();
+        });
+
+        // Partial counts of large inputs spread over many distinct frequencies,
+        // each of which gets its own bucket in the frequency index
+        Random random = new Random(43);
+        BinarySearchTree spreadFirst = new BinarySearchTree(true);
+        BinarySearchTree spreadSecond = new BinarySearchTree(true);
+        for (int i = 0; i < 80_000; i++) {
+            spreadFirst.insert(vocabulary[i], 1 + random.nextInt(40_000));
+            spreadSecond.insert(vocabulary[40_000 + i], 1 + random.nextInt(40_000));
+        }
+        measure("BinarySearchTree.merge (80k + 80k words, counts 1-40000)", 160_000, () -> {
+            sink += BinarySearchTree.merge(spreadFirst, spreadSecond).getUniqueWords();
+        });
+    }
+
+    // Compares building a tree from a sorted word list (every word twice) with
+    // fromWords() against inserting the words one at a time
+    static void bulkLoad() {
+        // (1) A small list, where plain inserts degenerate into a linked list
+        // (2) A large list, against the AVL tree
+
+        String[] small = sortedStream(generateVocabulary(10_000, 37), 2);
+        measure("insert sorted words (20k, plain tree)", small.length, () -> {
+            BinarySearchTree tree = new BinarySearchTree();
+            for (String word : small) {
+                tree.insert(word);
+            }
+            sink += tree.getTreeHeight();
+        });
+        measure("fromWords sorted words (20k)", small.length, () -> {
+            sink += BinarySearchTree.fromWords(Arrays.asList(small), false).getTreeHeight();
+        });
+
+        String[] large = sortedStream(generateVocabulary(500_000, 41), 2);
+        measure("insert sorted words (1M, balanced tree)", large.length, () -> {
+            BinarySearchTree tree = new BinarySearchTree(true);
+            for (String word : large) {
+                tree.insert(word);
+            }
+            sink += tree.getTreeHeight();
+        });
+        measure("fromWords sorted words (1M)", large.length, () -> {
+            sink += BinarySearchTree.fromWords(Arrays.asList(large), true).getTreeHeight();
+        });
+    }
+
+    // Compares counting bigrams and trigrams as packed word IDs (NGramCounter)
+    // with a HashMap from the joined words to their counts, in time per word
+    // and in heap per distinct n-gram, on the words of the given files or a
+    // generated Zipf stream
+    static void ngrams(List<String> corpora) {
+        // (1) Read the corpus and count its words once; both counters need the
+        // words, only the packed one needs their IDs
+        // (2) Time both counters over the whole stream
+        // (3) Measure the heap each one retains, without the word tree
+
+        String[] stream;
+        if (corpora.isEmpty()) {
+            stream = zipfianStream(generateVocabulary(20_000, 109), 1_000_000, 1.0, 113);
+        } else {
+            List<String> words = new ArrayList<>();
+            for (String corpus : corpora) {
+                try {
+                    WordTokenizer.tokenize(corpus, words::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            stream = words.toArray(new String[0]);
+        }
+        BinarySearchTree unigrams = BinarySearchTree.fromWords(Arrays.asList(stream), true);
+
+        for (int n = 2; n <= 3; n++) {
+            int size = n;
+            measure(n + "-grams, packed IDs (" + stream.length + " words)", stream.length, () -> {
+                sink += countPacked(size, unigrams, stream).getUniqueNGrams();
+            });
+            measure(n + "-grams, joined strings (" + stream.length + " words)", stream.length, () -> {
+                sink += countJoined(size, stream).size();
+            });
+
+            long before = usedHeap();
+            NGramCounter packed = countPacked(n, unigrams, stream);
+            long after = usedHeap();
+            System.out.printf("%-50s %12.1f bytes/n-gram%n", "memory (" + n + "-grams, packed IDs)",
+                    (after - before) / (double) packed.getUniqueNGrams());
+            sink += packed.getUniqueNGrams();
+            packed = null;
+
+            before = usedHeap();
+            HashMap<String, Integer> joined = countJoined(n, stream);
+            after = usedHeap();
+            System.out.printf("%-50s %12.1f bytes/n-gram%n", "memory (" + n + "-grams, joined strings)",
+                    (after - before) / (double) joined.size());
+            sink += joined.size();
+        }
+    }
+
+    // Counts the n-grams of 'stream' as packed word IDs
+    static NGramCounter countPacked(int n, BinarySearchTree unigrams, String[] stream) {
+        NGramCounter counter = new NGramCounter(n, unigrams);
+        for (String word : stream) {
+            counter.add(word);
+        }
+        return counter;
+    }
+
+    // Counts the n-grams of 'stream' as strings of the words joined by spaces
+    static HashMap<String, Integer> countJoined(int n, String[] stream) {
+        HashMap<String, Integer> counts = new HashMap<>();
+        for (int i = n; i <= stream.length; i++) {
+            counts.merge(String.join(" ", Arrays.asList(stream).subList(i - n, i)), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // Returns the words sorted, each one 'repeats' times in a row; every
+    // occurrence is a new String, as the tokenizer would produce
+    static String[] sortedStream(String[] vocabulary, int repeats) {
+        String[] sorted = vocabulary.clone();
+        Arrays.sort(sorted);
+        String[] words = new String[sorted.length * repeats];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = new String(sorted[i / repeats]);
+        }
+        return words;
+    }
+
+    // Returns 'length' words drawn uniformly from 'vocabulary'
+    static String[] uniformStream(String[] vocabulary, int length, long seed) {
+        Random random = new Random(seed);
+        String[] stream = new String[length];
+        for (int i = 0; i < length; i++) {
+            stream[i] = new String(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return stream;
+    }
+
+    // Runs 'operation' for the warm-up and measured iterations and prints the
+    // average time per operation, where one run performs 'operationsPerRun'
+    static double measure(String name, long operationsPerRun, Runnable operation) {
+        // (1) Warm up, so the timed runs use compiled code
+        // (2) Time each run on its own, for the mean and the spread between runs
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        double[] runs = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            runs[i] = (System.nanoTime() - start) / (double) operationsPerRun;
+        }
+        double nanosPerOperation = Arrays.stream(runs).average().orElse(0);
+        double variance = Arrays.stream(runs).map(run -> (run - nanosPerOperation) * (run - nanosPerOperation)).sum()
+                / Math.max(1, runs.length - 1);
+
+        System.out.printf("%-50s %12.1f ns/op +- %.1f%n", name, nanosPerOperation, Math.sqrt(variance));
+        return nanosPerOperation;
+    }
+
+    // Returns 'count' distinct lower-case words in random order, generated from
+    // a fixed seed
+    static String[] generateVocabulary(int count, long seed) {
+        Random random = new Random(seed);
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        while (words.size() < count) {
+            int length = 2 + random.nextInt(10);
+            char[] letters = new char[length];
+            for (int i = 0; i < length; i++) {
+                letters[i] = (char) ('a' + random.nextInt(26));
+            }
+            words.add(new String(letters));
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // Returns 'length' words drawn from 'vocabulary' with Zipf's law: the word
+    // of rank r is picked with probability proportional to 1 / r^exponent. Each
+    // occurrence is a new String, as the tokenizer would produce.
+    static String[] zipfianStream(String[] vocabulary, int length, double exponent, long seed) {
+        // (1) Cumulative weights of the ranks
+        // (2) Pick each occurrence by binary search on a uniform random weight
+
+        double[] cumulative = new double[vocabulary.length];
+        double total = 0;
+        for (int rank = 0; rank < vocabulary.length; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+
+        Random random = new Random(seed);
+        String[] stream = new String[length];
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            stream[i] = new String(vocabulary[Math.min(rank, vocabulary.length - 1)]);
+        }
+        return stream;
+    }
+}
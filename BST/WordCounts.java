@@ -0,0 +1,54 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Read-only queries shared by the word frequency counter
+    backends and by read-only views of counted words (saved
+    snapshots, the inverted index), so the program can answer
+    searches, traversals and statistics from any of them.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.util.*;
+
+interface WordCounts {
+
+    // Returns the frequency of a word (0 if it is not stored)
+    int searchWord(String word);
+
+    // Returns the frequencies of many words, in the order of 'words'
+    default int[] searchWords(Collection<String> words) {
+        int[] result = new int[words.size()];
+        int i = 0;
+        for (String word : words) {
+            result[i++] = searchWord(word);
+        }
+        return result;
+    }
+
+    // Returns the traversal output for type 1 (in-order), 2 (pre-order) or
+    // 3 (post-order), one "word (frequency)" line per word
+    String getTraversalOutput(int type);
+
+    // Writes the same text as getTraversalOutput(type) to 'out' in chunks
+    void writeTraversal(int type, Writer out) throws IOException;
+
+    // Returns the total number of words, including duplicates
+    long getTotalWords();
+
+    // Returns the number of unique words
+    int getUniqueWords();
+
+    // Returns the most frequent word in the format "word (X times)"
+    String getMostFrequentWord();
+
+    // Returns the height of the tree in edges (-1 when empty)
+    int getTreeHeight();
+
+    // Returns up to k of the most frequent words with their frequencies, most
+    // frequent first
+    List<Map.Entry<String, Integer>> topK(int k);
+}
@@ -0,0 +1,257 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Inverted index over a directory of text files. Every file
+    is a document, numbered in path order. Each word node of the
+    tree carries a posting list: for every document containing
+    the word, the gap to the previous document ID and the count
+    in that document, both as variable-length integers. This
+    answers "which files contain X and how often" without
+    rescanning any text, while the tree still gives the global
+    counts, traversals and statistics. The files are counted in
+    parallel; the index is read-only (WordCounts) once built, and
+    linking the sorted word nodes takes O(n).
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+class WordIndex implements WordCounts {
+
+    // Word node with the word's postings
+    private static class IndexedNode extends TreeNode {
+        // (1) Encoded postings: (document gap, count) pairs as varints, in
+        // increasing document order
+        // (2) Bytes of 'postings' in use
+        // (3) Number of documents containing the word, and the last one added
+        // (4) Position of the word's last occurrence over all documents (only
+        // used while building, to break ties for the most frequent word)
+
+        byte[] postings = NO_POSTINGS;
+        int length;
+        int documents;
+        int lastDocument;
+        long lastSeen;
+
+        IndexedNode(String word) {
+            super(word);
+            frequency = 0;
+        }
+
+        // Appends a document that is newer than every document added so far
+        void add(int document, int count) {
+            if (length + 10 > postings.length) {
+                postings = Arrays.copyOf(postings, Math.max(postings.length * 2, length + 10));
+            }
+            length = writeVarint(postings, length, document - lastDocument);
+            length = writeVarint(postings, length, count);
+            lastDocument = document;
+            documents++;
+            frequency += count;
+        }
+    }
+
+    private static final byte[] NO_POSTINGS = new byte[0];
+
+    // (1) Document names (paths relative to the indexed directory), by ID
+    // (2) The word nodes, linked into a minimum-height tree
+
+    private final List<String> documents;
+    private final BinarySearchTree tree;
+
+    private WordIndex(List<String> documents, BinarySearchTree tree) {
+        this.documents = documents;
+        this.tree = tree;
+    }
+
+    // Indexes every regular file below 'directory'
+    public static WordIndex build(Path directory, boolean unicode) throws IOException {
+        // (1) List the files sorted by path; a file's position is its document ID
+        // (2) Count the files on the fork-join pool, a few ahead of the merge so
+        // that only a bounded number of counted files wait in memory
+        // (3) Append each file's counts to the posting lists in document order, so
+        // the IDs in every list ascend and can be stored as gaps
+        // (4) Sort the words, link their nodes into a minimum-height tree and keep
+        // the single-pass answer for ties of the most frequent word: the word
+        // whose last occurrence comes first
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        HashMap<String, IndexedNode> nodes = new HashMap<>();
+        List<String> names = new ArrayList<>(files.size());
+        int window = ForkJoinPool.commonPool().getParallelism() * 2;
+        List<Future<ParallelIngest.ShardCounts>> counts = new ArrayList<>(files.size());
+        long position = 0;
+        try {
+            for (int document = 0; document < files.size(); document++) {
+                while (counts.size() < Math.min(files.size(), document + window)) {
+                    Path file = files.get(counts.size());
+                    counts.add(ForkJoinPool.commonPool().submit(() -> ParallelIngest.countFile(file, unicode)));
+                }
+
+                ParallelIngest.ShardCounts fileCounts = counts.get(document).get();
+                counts.set(document, null);
+                for (Map.Entry<String, ParallelIngest.WordCount> entry : fileCounts.counts.entrySet()) {
+                    IndexedNode node = nodes.computeIfAbsent(entry.getKey(), IndexedNode::new);
+                    node.add(document, entry.getValue().count);
+                    node.lastSeen = position + entry.getValue().lastSeen;
+                }
+                position += fileCounts.tokens;
+                names.add(directory.relativize(files.get(document)).toString());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Indexing was interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            for (Future<ParallelIngest.ShardCounts> pending : counts) {
+                if (pending != null) {
+                    pending.cancel(false);
+                }
+            }
+        }
+
+        IndexedNode[] sorted = nodes.values().toArray(new IndexedNode[0]);
+        Arrays.sort(sorted, (a, b) -> a.word.compareTo(b.word));
+        IndexedNode mostFrequent = null;
+        for (IndexedNode node : sorted) {
+            node.postings = Arrays.copyOf(node.postings, node.length);
+            if (mostFrequent == null || node.frequency > mostFrequent.frequency
+                    || (node.frequency == mostFrequent.frequency && node.lastSeen < mostFrequent.lastSeen)) {
+                mostFrequent = node;
+            }
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.linkBalanced(sorted, 0, sorted.length), true);
+        if (mostFrequent != null) {
+            tree.preferMostFrequent(mostFrequent.word);
+        }
+        return new WordIndex(names, tree);
+    }
+
+    // Number of indexed documents
+    public int getDocumentCount() {
+        return documents.size();
+    }
+
+    // Number of documents containing a word
+    public int documentFrequency(String word) {
+        IndexedNode node = (IndexedNode) tree.findNode(word);
+        return node == null ? 0 : node.documents;
+    }
+
+    // Returns the documents containing a word with the word's count in each, in
+    // document (path) order
+    public Map<String, Integer> documents(String word) {
+        // (1) Find the word's node
+        // (2) Decode its postings, adding up the document gaps
+
+        IndexedNode node = (IndexedNode) tree.findNode(word);
+        if (node == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        int[] position = { 0 };
+        int document = 0;
+        while (position[0] < node.length) {
+            document += readVarint(node.postings, position);
+            result.put(documents.get(document), readVarint(node.postings, position));
+        }
+        return result;
+    }
+
+    // Writes 'value' (not negative) to buffer[offset ..] seven bits per byte,
+    // lowest bits first, with the high bit set on every byte but the last;
+    // returns the offset after it
+    static int writeVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    // Reads a varint written by writeVarint() at buffer[position[0]] and moves
+    // position[0] past it
+    static int readVarint(byte[] buffer, int[] position) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buffer[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Bytes used by all posting lists together
+    public long postingBytes() {
+        long bytes = 0;
+        for (Iterator<TreeNode> nodes = tree.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            bytes += ((IndexedNode) nodes.next()).length;
+        }
+        return bytes;
+    }
+
+    // Returns the total frequency of a word over all documents
+    @Override
+    public int searchWord(String word) {
+        return tree.searchWord(word);
+    }
+
+    // Returns the traversal output of the words with their total counts
+    @Override
+    public String getTraversalOutput(int type) {
+        return tree.getTraversalOutput(type);
+    }
+
+    // Writes the traversal output of the words with their total counts
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        tree.writeTraversal(type, out);
+    }
+
+    // Returns the number of words in all documents, including duplicates
+    @Override
+    public long getTotalWords() {
+        return tree.getTotalWords();
+    }
+
+    // Returns the number of unique words in all documents
+    @Override
+    public int getUniqueWords() {
+        return tree.getUniqueWords();
+    }
+
+    // Returns the most frequent word over all documents
+    @Override
+    public String getMostFrequentWord() {
+        return tree.getMostFrequentWord();
+    }
+
+    // Returns the height of the word tree
+    @Override
+    public int getTreeHeight() {
+        return tree.getTreeHeight();
+    }
+
+    // Returns up to k of the most frequent words over all documents
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        return tree.topK(k);
+    }
+}
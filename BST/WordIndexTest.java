@@ -0,0 +1,146 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for WordIndex: the postings of every word
+    decode to the documents and counts of a file-by-file pass
+    (large gaps and counts included), and the global counts
+    equal a single pass over the files in path order.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordIndexTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Writes a file below the temporary directory, creating its parent
+     * directories
+     */
+    private void write(String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text);
+    }
+
+    /**
+     * Counts every file in path order: each word's documents with its count in
+     * each, in document order
+     */
+    private Map<String, Map<String, Integer>> postings() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Map<String, Map<String, Integer>> postings = new HashMap<>();
+        for (Path file : files) {
+            String name = dir.relativize(file).toString();
+            WordTokenizer.tokenize(file.toString(),
+                    word -> postings.computeIfAbsent(word, w -> new LinkedHashMap<>()).merge(name, 1, Integer::sum));
+        }
+        return postings;
+    }
+
+    /**
+     * Counts every file into one tree, one file after the other in path order
+     */
+    private BinarySearchTree singlePass() throws IOException {
+        BinarySearchTree tree = new BinarySearchTree();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path file : walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                WordTokenizer.tokenize(file.toString(), tree::insert);
+            }
+        }
+        return tree;
+    }
+
+    @Test
+    public void testPostingsRoundTrip() throws IOException {
+        // 300 documents in nested directories, so document gaps pass 127
+        Random random = new Random(21);
+        for (int i = 0; i < 300; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                int id = (int) Math.pow(random.nextInt(1 << 10), 2) >> 10;
+                text.append("word").append(id).append(random.nextInt(6) == 0 ? ".\n" : " ");
+            }
+            write(String.format("%s/doc%03d.txt", i % 3 == 0 ? "a" : "b/c", i), text.toString());
+        }
+        write("a/doc000.txt", "rare " + Files.readString(dir.resolve("a/doc000.txt")));
+        write("b/c/doc299.txt", Files.readString(dir.resolve("b/c/doc299.txt")) + " rare\n");
+
+        WordIndex index = WordIndex.build(dir, false);
+        Map<String, Map<String, Integer>> expected = postings();
+        assertEquals(300, index.getDocumentCount());
+        assertEquals(expected.size(), index.getUniqueWords());
+        for (Map.Entry<String, Map<String, Integer>> entry : expected.entrySet()) {
+            Map<String, Integer> documents = index.documents(entry.getKey());
+            assertEquals(entry.getValue(), documents);
+            assertEquals(new ArrayList<>(entry.getValue().keySet()), new ArrayList<>(documents.keySet()));
+            assertEquals(entry.getValue().size(), index.documentFrequency(entry.getKey()));
+        }
+        assertEquals(2, index.documentFrequency("rare"));
+        assertEquals(Map.of(), index.documents("missing"));
+        assertEquals(0, index.documentFrequency("missing"));
+    }
+
+    @Test
+    public void testLargeCounts() throws IOException {
+        // Counts above 16383 take three varint bytes
+        write("one.txt", "big ".repeat(20_000) + "small\n");
+        write("two.txt", "big small small\n");
+        WordIndex index = WordIndex.build(dir, false);
+        assertEquals(Map.of("one.txt", 20_000, "two.txt", 1), index.documents("big"));
+        assertEquals(20_001, index.searchWord("big"));
+        assertEquals(Map.of("one.txt", 1, "two.txt", 2), index.documents("small"));
+    }
+
+    @Test
+    public void testGlobalCountsMatchSinglePass() throws IOException {
+        // 'b' reaches two first, in the second document; a single pass keeps it
+        // as the most frequent word
+        write("1.txt", "a b c\n");
+        write("2.txt", "b a c\n");
+        write("3.txt", "d\n");
+        WordIndex index = WordIndex.build(dir, false);
+        BinarySearchTree expected = singlePass();
+        for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+            assertEquals(expected.copy().getTraversalOutput(type), index.getTraversalOutput(type));
+        }
+        assertEquals(expected.getTotalWords(), index.getTotalWords());
+        assertEquals(expected.getUniqueWords(), index.getUniqueWords());
+        assertEquals("b (2 times)", expected.getMostFrequentWord());
+        assertEquals(expected.getMostFrequentWord(), index.getMostFrequentWord());
+        assertEquals(expected.copy().getTreeHeight(), index.getTreeHeight());
+    }
+
+    @Test
+    public void testVarint() {
+        byte[] buffer = new byte[5];
+        for (int value : new int[] { 0, 1, 127, 128, 16_383, 16_384, 1 << 21, Integer.MAX_VALUE }) {
+            int length = WordIndex.writeVarint(buffer, 0, value);
+            int[] position = { 0 };
+            assertEquals(value, WordIndex.readVarint(buffer, position));
+            assertEquals(length, position[0]);
+        }
+    }
+
+    @Test
+    public void testEmptyDirectory() throws IOException {
+        WordIndex index = WordIndex.build(dir, false);
+        assertEquals(0, index.getDocumentCount());
+        assertEquals(0, index.getTotalWords());
+        assertEquals(0, index.postingBytes());
+        assertEquals("No words in the tree.", index.getMostFrequentWord());
+    }
+}
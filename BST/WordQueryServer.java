@@ -0,0 +1,191 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Local query server for the word counter. Clients connect to
+    a loopback TCP port and send one request per line:
+        search <word>      frequency of a word
+        top <k>            the k most frequent words
+        stats              totals, most frequent word, height
+        traverse <1|2|3>   in-, pre- or post-order listing
+        latency            p50 / p99 of the requests served
+        quit               close the connection
+    Every response ends with a line holding a single ".".
+    Requests are answered from an immutable snapshot that the
+    ingesting thread replaces with publish(), so readers never
+    block the writer or each other. Each connection runs on its
+    own virtual thread where the runtime has them (Java 21+),
+    otherwise on a pooled platform thread.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+class WordQueryServer implements Closeable {
+
+    // Connections that may wait to be accepted
+    private static final int BACKLOG = 4096;
+
+    // (1) Listening socket, bound to the loopback address
+    // (2) Runs one task per connection
+    // (3) Open connections, closed with the server
+    // (4) Time spent on each request, from reading it to flushing the answer
+    // (5) The snapshot requests are answered from; never modified once published
+
+    private final ServerSocket server;
+    private final ExecutorService connections;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final Histogram latencies = new Histogram();
+    private volatile WordCounts snapshot;
+
+    // Creates a server on the given loopback port (0 picks a free port) that
+    // answers from 'snapshot' until the next publish()
+    WordQueryServer(int port, WordCounts snapshot) throws IOException {
+        this.server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.connections = newConnectionExecutor();
+        this.snapshot = snapshot;
+    }
+
+    // Runs every connection on its own virtual thread if the runtime has them,
+    // otherwise on a cached pool of daemon platform threads
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "word-query-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Port the server listens on
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    // Answers all later requests from 'snapshot'; the caller must not modify it
+    // afterwards. Requests already running finish on the previous snapshot.
+    void publish(WordCounts snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    // Latency percentiles of the requests served so far
+    Histogram getLatencies() {
+        return latencies;
+    }
+
+    // Starts accepting connections on a background thread
+    void start() {
+        Thread acceptor = new Thread(this::acceptConnections, "word-query-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // Accepts connections until the server is closed
+    private void acceptConnections() {
+        while (!server.isClosed()) {
+            Socket client;
+            try {
+                client = server.accept();
+            } catch (IOException e) {
+                continue; // Closed (the loop ends) or a failed handshake
+            }
+            clients.add(client);
+            try {
+                connections.execute(() -> serve(client));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(client);
+            }
+        }
+    }
+
+    // Answers the requests of one connection until it sends 'quit' or closes
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            client.setTcpNoDelay(true);
+            String request;
+            while ((request = in.readLine()) != null) {
+                long start = System.nanoTime();
+                boolean open = answer(request.trim(), out);
+                out.write(".\n");
+                out.flush();
+                latencies.record(System.nanoTime() - start);
+                if (!open) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to answer
+        } finally {
+            clients.remove(client);
+        }
+    }
+
+    // Writes the answer to one request; returns false if the client quits
+    boolean answer(String request, Writer out) throws IOException {
+        // (1) Read the snapshot once, so the whole answer comes from one snapshot
+        // (2) Split the command from its argument
+        // (3) Bad arguments are answered with an error line
+
+        WordCounts counter = snapshot;
+        String[] parts = request.split("\\s+", 2);
+        String command = parts[0].toLowerCase();
+        String argument = parts.length > 1 ? parts[1].trim() : "";
+
+        try {
+            if (command.equals("search")) {
+                out.write(counter.searchWord(argument.toLowerCase()) + "\n");
+            } else if (command.equals("top")) {
+                for (Map.Entry<String, Integer> entry : counter.topK(Integer.parseInt(argument))) {
+                    out.write(entry.getKey() + " " + entry.getValue() + "\n");
+                }
+            } else if (command.equals("stats")) {
+                out.write("total " + counter.getTotalWords() + "\n");
+                out.write("unique " + counter.getUniqueWords() + "\n");
+                out.write("most-frequent " + counter.getMostFrequentWord() + "\n");
+                out.write("height " + counter.getTreeHeight() + "\n");
+            } else if (command.equals("traverse")) {
+                counter.writeTraversal(Integer.parseInt(argument), out);
+            } else if (command.equals("latency")) {
+                out.write(latencies.latencySummary() + "\n");
+            } else if (command.equals("quit")) {
+                return false;
+            } else {
+                out.write("error unknown command '" + command + "'\n");
+            }
+        } catch (IllegalArgumentException e) { // also covers NumberFormatException
+            out.write("error " + e.getMessage() + "\n");
+        }
+        return true;
+    }
+
+    // Stops accepting, closes every open connection and ends their threads
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+        connections.shutdownNow();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
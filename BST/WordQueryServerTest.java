@@ -0,0 +1,161 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for WordQueryServer: each request of the line
+    protocol is answered over a loopback connection with lines
+    ending in ".", bad requests get an error line and keep the
+    connection open, and publish() switches later requests to
+    the new snapshot.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordQueryServerTest {
+
+    // A client connection to the server under test
+    private static class Client implements Closeable {
+        final Socket socket;
+        final BufferedReader in;
+        final Writer out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout(10_000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Sends a request and returns the lines of its answer, without the
+         * closing "."
+         */
+        List<String> request(String request) throws IOException {
+            out.write(request + "\n");
+            out.flush();
+            List<String> lines = new ArrayList<>();
+            String line;
+            while (!(line = in.readLine()).equals(".")) {
+                lines.add(line);
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Counts the words into a new tree
+     */
+    private BinarySearchTree tree(String... words) {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : words) {
+            tree.insert(word);
+        }
+        return tree;
+    }
+
+    @Test
+    public void testRequests() throws IOException {
+        try (WordQueryServer server = new WordQueryServer(0, tree("b", "a", "c", "b", "d", "b", "a"))) {
+            server.start();
+            try (Client client = new Client(server.getPort())) {
+                assertEquals(List.of("3"), client.request("search b"));
+                assertEquals(List.of("2"), client.request("SEARCH A"));
+                assertEquals(List.of("0"), client.request("search missing"));
+                assertEquals(List.of("b 3", "a 2"), client.request("top 2"));
+                assertEquals(List.of(), client.request("top 0"));
+                assertEquals(List.of("total 7", "unique 4", "most-frequent b (3 times)", "height 2"),
+                        client.request("stats"));
+                assertEquals(List.of("a (2)", "b (3)", "c (1)", "d (1)"), client.request("traverse 1"));
+                assertEquals(List.of("b (3)", "a (2)", "c (1)", "d (1)"), client.request("traverse 2"));
+                assertEquals(List.of("a (2)", "d (1)", "c (1)", "b (3)"), client.request("traverse 3"));
+
+                List<String> latency = client.request("latency");
+                assertEquals(1, latency.size());
+                assertTrue(latency.get(0).startsWith("9 requests, p50 "), latency.get(0));
+            }
+        }
+    }
+
+    @Test
+    public void testBadRequestsKeepConnectionOpen() throws IOException {
+        try (WordQueryServer server = new WordQueryServer(0, tree("a"))) {
+            server.start();
+            try (Client client = new Client(server.getPort())) {
+                assertEquals(List.of("error unknown command 'delete'"), client.request("delete a"));
+                assertEquals(List.of("error For input string: \"x\""), client.request("top x"));
+                assertEquals(List.of("error k must not be negative: -1"), client.request("top -1"));
+                assertEquals(List.of("error Error, Invalid Traversal type."), client.request("traverse 4"));
+                assertEquals(List.of("1"), client.request("search a"));
+            }
+        }
+    }
+
+    @Test
+    public void testQuitClosesConnection() throws IOException {
+        try (WordQueryServer server = new WordQueryServer(0, tree("a"))) {
+            server.start();
+            try (Client client = new Client(server.getPort())) {
+                assertEquals(List.of(), client.request("quit"));
+                assertNull(client.in.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void testPublishReplacesSnapshot() throws IOException {
+        try (WordQueryServer server = new WordQueryServer(0, tree("a"))) {
+            server.start();
+            try (Client client = new Client(server.getPort())) {
+                assertEquals(List.of("1"), client.request("search a"));
+                server.publish(tree("a", "a", "b"));
+                assertEquals(List.of("2"), client.request("search a"));
+                assertEquals(List.of("total 3", "unique 2", "most-frequent a (2 times)", "height 1"),
+                        client.request("stats"));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        BinarySearchTree tree = tree("a", "b", "b");
+        try (WordQueryServer server = new WordQueryServer(0, tree)) {
+            server.start();
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    results.add(clients.submit(() -> {
+                        try (Client client = new Client(server.getPort())) {
+                            for (int j = 0; j < 20; j++) {
+                                if (!client.request("search b").equals(List.of("2"))) {
+                                    return false;
+                                }
+                            }
+                            return client.request("quit").isEmpty();
+                        }
+                    }));
+                }
+                for (Future<Boolean> result : results) {
+                    assertTrue(result.get());
+                }
+            } finally {
+                clients.shutdownNow();
+            }
+            // Each request is recorded after its answer, so a 'quit' may not be yet
+            assertTrue(server.getLatencies().count() >= 32 * 20);
+        }
+    }
+}
@@ -0,0 +1,764 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Binary snapshot format for the word frequency tree, so a
+    counted corpus can be reloaded without re-tokenizing the
+    text. A snapshot holds:
+      - a header with the format version, the tree statistics,
+        section offsets and a CRC32 checksum
+      - the word/frequency records in alphabetical order
+      - a sparse index pointing at every 64th record
+      - the tree shape (child record numbers of every record)
+    Opening a snapshot memory-maps it as read-only WordCounts
+    after one sequential pass that checks the section lengths,
+    every record and the checksum, so a truncated or corrupted
+    file is rejected instead of being misread; toTree()
+    rebuilds a BinarySearchTree of the same shape for further
+    inserts in O(n), without comparing any words.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+class WordSnapshot implements WordCounts {
+
+    // "WFS2" - word frequency snapshot, version 2 (version 1 had no checksum);
+    // the last byte is the version digit
+    private static final int MAGIC = 0x57465332;
+    private static final int MAGIC_V1 = 0x57465331;
+
+    // Header layout (all values big-endian)
+    private static final int HEADER_BYTES = 64;
+    private static final int FLAGS_AT = 4;
+    private static final int TOTAL_WORDS_AT = 8;
+    private static final int UNIQUE_WORDS_AT = 16;
+    private static final int TREE_HEIGHT_AT = 20;
+    private static final int ROOT_AT = 24;
+    private static final int MOST_FREQUENT_AT = 28;
+    private static final int INDEX_AT = 32;
+    private static final int SHAPE_AT = 40;
+    private static final int CHECKSUM_AT = 48;
+
+    // Header flag bits
+    private static final int FLAG_BALANCED = 1;
+
+    // One sparse index entry per this many records
+    static final int INDEX_INTERVAL = 64;
+
+    // Size of the chunks writeTraversal hands to its Writer
+    private static final int WRITE_CHUNK_CHARS = 8192;
+
+    // (1) The mapped file
+    // (2) Values read from the header
+    // (3) Position of the first record, the sparse index and the shape section
+
+    private final MappedByteBuffer buffer;
+    private final boolean balanced;
+    private final long totalWords;
+    private final int uniqueWords;
+    private final int treeHeight;
+    private final int rootRecord;
+    private final int mostFrequentRecord;
+    private final int indexStart;
+    private final int shapeStart;
+
+    private WordSnapshot(MappedByteBuffer buffer) throws IOException {
+        // (1) Check the magic number and the version
+        // (2) Check that the header values fit each other and the file size
+        // (3) Check every record and child link, then the checksum
+
+        this.buffer = buffer;
+        int magic = buffer.capacity() < HEADER_BYTES ? 0 : buffer.getInt(0);
+        if ((magic & 0xFFFFFF00) != (MAGIC & 0xFFFFFF00)) {
+            throw new IOException("Not a word frequency snapshot");
+        }
+        if (magic != MAGIC && magic != MAGIC_V1) {
+            throw new IOException("Unsupported snapshot version: " + (char) (magic & 0xFF));
+        }
+
+        balanced = (buffer.getInt(FLAGS_AT) & FLAG_BALANCED) != 0;
+        totalWords = buffer.getLong(TOTAL_WORDS_AT);
+        uniqueWords = buffer.getInt(UNIQUE_WORDS_AT);
+        treeHeight = buffer.getInt(TREE_HEIGHT_AT);
+        rootRecord = buffer.getInt(ROOT_AT);
+        mostFrequentRecord = buffer.getInt(MOST_FREQUENT_AT);
+        long index = buffer.getLong(INDEX_AT);
+        long shape = buffer.getLong(SHAPE_AT);
+
+        long blocks = ((long) uniqueWords + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+        if (uniqueWords < 0 || totalWords < uniqueWords || index < HEADER_BYTES || shape != index + blocks * 8
+                || shape + uniqueWords * 8L != buffer.capacity()) {
+            throw new IOException("Snapshot sections do not match the file size (truncated?)");
+        }
+        int lastRecord = uniqueWords - 1;
+        if (treeHeight < (uniqueWords == 0 ? -1 : 0) || treeHeight > lastRecord
+                || rootRecord < (uniqueWords == 0 ? -1 : 0) || rootRecord > lastRecord
+                || mostFrequentRecord < (uniqueWords == 0 ? -1 : 0) || mostFrequentRecord > lastRecord) {
+            throw new IOException("Snapshot header is corrupted");
+        }
+        indexStart = (int) index;
+        shapeStart = (int) shape;
+
+        checkRecords();
+        if (magic == MAGIC) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+            if (checksum(crc, buffer.slice(0, HEADER_BYTES)) != buffer.getInt(CHECKSUM_AT)) {
+                throw new IOException("Snapshot checksum mismatch (corrupted file)");
+            }
+        }
+    }
+
+    // Checks that the records fill the record section exactly, add up to the
+    // total word count and start where the sparse index says, and that every
+    // child link points at a record
+    private void checkRecords() throws IOException {
+        RecordCursor cursor = new RecordCursor(HEADER_BYTES);
+        long sum = 0;
+        for (int record = 0; record < uniqueWords; record++) {
+            if (record % INDEX_INTERVAL == 0
+                    && buffer.getLong(indexStart + record / INDEX_INTERVAL * 8) != cursor.position) {
+                throw new IOException("Snapshot index does not match record " + record);
+            }
+            if (!cursor.nextWithin(indexStart) || cursor.frequency < 1) {
+                throw new IOException("Snapshot record " + record + " is corrupted");
+            }
+            sum += cursor.frequency;
+        }
+        if (cursor.position != indexStart || sum != totalWords) {
+            throw new IOException("Snapshot records do not match the header");
+        }
+
+        for (int i = 0; i < uniqueWords * 2; i++) {
+            int child = buffer.getInt(shapeStart + i * 4);
+            if (child < -1 || child >= uniqueWords) {
+                throw new IOException("Snapshot shape is corrupted");
+            }
+        }
+    }
+
+    // Finishes a snapshot's checksum: the CRC32 of everything after the header,
+    // continued over every header byte except the checksum itself
+    private static int checksum(CRC32 body, ByteBuffer header) {
+        body.update(header.slice(0, CHECKSUM_AT));
+        body.update(header.slice(CHECKSUM_AT + 4, HEADER_BYTES - CHECKSUM_AT - 4));
+        return (int) body.getValue();
+    }
+
+    // Memory-maps a snapshot file as a read-only word counter
+    public static WordSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + file);
+            }
+            return new WordSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Writes a tree to a snapshot file. The file is written under a temporary
+    // name and moved into place, so a crash never leaves a half-written snapshot.
+    static void write(BinarySearchTree tree, Path file) throws IOException {
+        // (1) Walk the tree in order, writing one record per word
+        // (2) A node's children are found from the subtree sizes: in in-order
+        // numbering the left child is 1 + size(left.right) before the node, the
+        // right child 1 + size(right.left) after it
+        // (3) Write the sparse index and the shape after the records
+        // (4) Fill in the header last, once all offsets are known
+
+        int count = tree.getUniqueWords();
+        int[] children = new int[count * 2];
+        long[] index = new long[(count + INDEX_INTERVAL - 1) / INDEX_INTERVAL];
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long indexStart;
+        long shapeStart;
+        CRC32 crc;
+        try (CountingOutputStream counter = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)));
+                DataOutputStream out = new DataOutputStream(counter)) {
+            out.write(new byte[HEADER_BYTES]);
+            counter.crc.reset(); // The header is added to the checksum last
+            crc = counter.crc;
+
+            Iterator<TreeNode> nodes = tree.nodeIterator(BinarySearchTree.IN_ORDER);
+            for (int record = 0; nodes.hasNext(); record++) {
+                TreeNode node = nodes.next();
+                if (record % INDEX_INTERVAL == 0) {
+                    index[record / INDEX_INTERVAL] = counter.written;
+                }
+                children[record * 2] = node.left == null ? -1 : record - 1 - size(node.left.right);
+                children[record * 2 + 1] = node.right == null ? -1 : record + 1 + size(node.right.left);
+
+                byte[] word = node.word.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, node.frequency);
+                writeVarInt(out, word.length);
+                out.write(word);
+            }
+
+            indexStart = counter.written;
+            for (long offset : index) {
+                out.writeLong(offset);
+            }
+            shapeStart = counter.written;
+            for (int child : children) {
+                out.writeInt(child);
+            }
+        }
+
+        TreeNode root = tree.getRoot();
+        String mostFrequent = tree.getMostFrequentKey();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(FLAGS_AT, tree.isBalanced() ? FLAG_BALANCED : 0);
+        header.putLong(TOTAL_WORDS_AT, tree.getTotalWords());
+        header.putInt(UNIQUE_WORDS_AT, count);
+        header.putInt(TREE_HEIGHT_AT, tree.getTreeHeight());
+        header.putInt(ROOT_AT, root == null ? -1 : size(root.left));
+        header.putInt(MOST_FREQUENT_AT, mostFrequent == null ? -1 : tree.rank(mostFrequent));
+        header.putLong(INDEX_AT, indexStart);
+        header.putLong(SHAPE_AT, shapeStart);
+        commit(temp, header, crc, file);
+    }
+
+    // Merges snapshots (e.g. the partial counts of separate files or machines)
+    // into one snapshot holding the summed counts, as if all of the input had
+    // been counted in one pass. The records are already sorted, so this is a
+    // streaming k-way merge that never builds a tree; the result has a
+    // minimum-height shape, the same one BinarySearchTree.merge() builds.
+    static void merge(List<Path> inputs, Path file) throws IOException {
+        // (1) Open every input and keep a heap of their current records, ordered
+        // by word and then by input position
+        // (2) Pop all records of the smallest word, write one record with the
+        // summed frequency, and advance those inputs
+        // (3) Ties for the most frequent word go to the most frequent word of the
+        // earliest input that has one, then to the alphabetically first
+        // (4) Write the sparse index and the minimum-height shape, then the header
+
+        List<MergeInput> sources = new ArrayList<>();
+        PriorityQueue<MergeInput> heap = new PriorityQueue<>(
+                (x, y) -> x.word.equals(y.word) ? Integer.compare(x.position, y.position) : x.word.compareTo(y.word));
+        long totalWords = 0;
+        boolean balanced = false;
+        for (Path input : inputs) {
+            MergeInput source = new MergeInput(open(input), sources.size());
+            sources.add(source);
+            totalWords += source.snapshot.totalWords;
+            balanced |= source.snapshot.balanced;
+            if (source.advance()) {
+                heap.add(source);
+            }
+        }
+
+        long[] index = new long[16];
+        int count = 0;
+        int mostFrequent = -1;
+        int maxFrequency = 0;
+        int preference = Integer.MAX_VALUE;
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long indexStart;
+        long shapeStart;
+        CRC32 crc;
+        try (CountingOutputStream counter = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)));
+                DataOutputStream out = new DataOutputStream(counter)) {
+            out.write(new byte[HEADER_BYTES]);
+            counter.crc.reset(); // The header is added to the checksum last
+            crc = counter.crc;
+
+            while (!heap.isEmpty()) {
+                MergeInput source = heap.poll();
+                String word = source.word;
+                int frequency = source.cursor.frequency;
+                int rank = source.isMostFrequent() ? source.position : Integer.MAX_VALUE;
+                if (source.advance()) {
+                    heap.add(source);
+                }
+                while (!heap.isEmpty() && heap.peek().word.equals(word)) {
+                    MergeInput same = heap.poll();
+                    frequency = Math.addExact(frequency, same.cursor.frequency);
+                    if (same.isMostFrequent()) {
+                        rank = Math.min(rank, same.position);
+                    }
+                    if (same.advance()) {
+                        heap.add(same);
+                    }
+                }
+
+                if (count % INDEX_INTERVAL == 0) {
+                    if (count / INDEX_INTERVAL == index.length) {
+                        index = Arrays.copyOf(index, index.length * 2);
+                    }
+                    index[count / INDEX_INTERVAL] = counter.written;
+                }
+                byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, frequency);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+
+                if (frequency > maxFrequency || (frequency == maxFrequency && rank < preference)) {
+                    maxFrequency = frequency;
+                    preference = rank;
+                    mostFrequent = count;
+                }
+                count++;
+            }
+
+            indexStart = counter.written;
+            for (int block = 0; block < (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL; block++) {
+                out.writeLong(index[block]);
+            }
+            shapeStart = counter.written;
+            int[] children = new int[count * 2];
+            linkBalanced(children, 0, count);
+            for (int child : children) {
+                out.writeInt(child);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putInt(FLAGS_AT, balanced ? FLAG_BALANCED : 0);
+        header.putLong(TOTAL_WORDS_AT, totalWords);
+        header.putInt(UNIQUE_WORDS_AT, count);
+        header.putInt(TREE_HEIGHT_AT, count == 0 ? -1 : 31 - Integer.numberOfLeadingZeros(count));
+        header.putInt(ROOT_AT, count == 0 ? -1 : count >>> 1);
+        header.putInt(MOST_FREQUENT_AT, mostFrequent);
+        header.putLong(INDEX_AT, indexStart);
+        header.putLong(SHAPE_AT, shapeStart);
+        commit(temp, header, crc, file);
+    }
+
+    // One input of a merge: its snapshot, a cursor over its records and the word
+    // of the current record
+    private static class MergeInput {
+        final WordSnapshot snapshot;
+        final int position;
+        final RecordCursor cursor;
+        int remaining;
+        String word;
+
+        MergeInput(WordSnapshot snapshot, int position) {
+            this.snapshot = snapshot;
+            this.position = position;
+            this.cursor = snapshot.new RecordCursor(HEADER_BYTES);
+            this.remaining = snapshot.uniqueWords;
+        }
+
+        // Reads the next record; returns false when the input is exhausted
+        boolean advance() {
+            if (remaining == 0) {
+                return false;
+            }
+            cursor.next();
+            word = cursor.word();
+            remaining--;
+            return true;
+        }
+
+        // Whether the current record is this input's most frequent word
+        boolean isMostFrequent() {
+            return snapshot.uniqueWords - remaining - 1 == snapshot.mostFrequentRecord;
+        }
+    }
+
+    // Fills in the children of records [from, to) for a minimum-height shape
+    // (the middle record is the subtree root) and returns the subtree's root
+    private static int linkBalanced(int[] children, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int middle = (from + to) >>> 1;
+        children[middle * 2] = linkBalanced(children, from, middle);
+        children[middle * 2 + 1] = linkBalanced(children, middle + 1, to);
+        return middle;
+    }
+
+    // Completes the header with the checksum, writes it into the finished
+    // temporary file, forces it to disk and moves it into place
+    private static void commit(Path temp, ByteBuffer header, CRC32 crc, Path file) throws IOException {
+        header.putInt(CHECKSUM_AT, checksum(crc, header));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns the number of nodes in a subtree (0 for an empty subtree)
+    private static int size(TreeNode node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Writes an unsigned LEB128 variable-length int (7 bits per byte)
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    // Output stream that counts the bytes written through it and keeps their
+    // CRC32
+    private static class CountingOutputStream extends FilterOutputStream {
+        long written;
+        final CRC32 crc = new CRC32();
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            crc.update(b, off, len);
+            written += len;
+        }
+    }
+
+    // Reads records one after another from a position in the mapped file. Each
+    // caller gets its own cursor, so a snapshot can be read from many threads.
+    private class RecordCursor {
+        // (1) Position of the next record
+        // (2) Fields of the record read last
+
+        int position;
+        int frequency;
+        int wordStart;
+        int wordLength;
+
+        RecordCursor(int position) {
+            this.position = position;
+        }
+
+        // Reads the record at the current position and moves past it
+        void next() {
+            frequency = readVarInt();
+            wordLength = readVarInt();
+            wordStart = position;
+            position += wordLength;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        // Reads the record at the current position like next(), but returns
+        // false if it does not end by 'limit'
+        boolean nextWithin(int limit) {
+            frequency = readVarIntWithin(limit);
+            wordLength = frequency < 0 ? -1 : readVarIntWithin(limit);
+            if (wordLength < 0 || wordLength > limit - position) {
+                return false;
+            }
+            wordStart = position;
+            position += wordLength;
+            return true;
+        }
+
+        // Reads a variable-length int that must end by 'limit' and fit in 31
+        // bits; returns -1 otherwise
+        private int readVarIntWithin(int limit) {
+            int value = 0;
+            for (int shift = 0; shift < 32 && position < limit; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return shift == 28 && (b & 0x78) != 0 ? -1 : value;
+                }
+            }
+            return -1;
+        }
+
+        // Returns the word of the record read last
+        String word() {
+            byte[] bytes = new byte[wordLength];
+            buffer.get(wordStart, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Returns whether the record read last holds exactly these UTF-8 bytes
+        boolean wordEquals(byte[] key) {
+            if (key.length != wordLength) {
+                return false;
+            }
+            for (int i = 0; i < wordLength; i++) {
+                if (buffer.get(wordStart + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Returns a cursor positioned at the first record of an index block
+    private RecordCursor blockCursor(int block) {
+        return new RecordCursor((int) buffer.getLong(indexStart + block * 8));
+    }
+
+    // Returns a cursor that has just read the given record
+    private RecordCursor recordAt(int record) {
+        RecordCursor cursor = blockCursor(record / INDEX_INTERVAL);
+        for (int i = record % INDEX_INTERVAL; i >= 0; i--) {
+            cursor.next();
+        }
+        return cursor;
+    }
+
+    // Returns a word's frequency: binary search over the sparse index, then a
+    // scan of at most INDEX_INTERVAL records
+    @Override
+    public int searchWord(String word) {
+        // (1) Find the last index block whose first word is <= word
+        // (2) Scan that block for an exact match
+
+        int low = 0;
+        int high = (uniqueWords + INDEX_INTERVAL - 1) / INDEX_INTERVAL - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            RecordCursor cursor = blockCursor(middle);
+            cursor.next();
+            if (cursor.word().compareTo(word) <= 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        RecordCursor cursor = blockCursor(block);
+        int end = Math.min(uniqueWords, (block + 1) * INDEX_INTERVAL);
+        for (int record = block * INDEX_INTERVAL; record < end; record++) {
+            cursor.next();
+            if (cursor.wordEquals(key)) {
+                return cursor.frequency;
+            }
+        }
+        return 0;
+    }
+
+    // Returns the traversal output as a string based on the selected traversal type
+    @Override
+    public String getTraversalOutput(int type) {
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            return "Error, Invalid Traversal type.";
+        }
+        StringWriter out = new StringWriter();
+        try {
+            writeTraversal(type, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+
+    // Writes the traversal output to 'out' in chunks of bounded size
+    @Override
+    public void writeTraversal(int type, Writer out) throws IOException {
+        // (1) In-order is simply the records from first to last
+        // (2) Pre- and post-order walk the stored shape; record positions are
+        // collected first since records have variable length
+
+        if (type < BinarySearchTree.IN_ORDER || type > BinarySearchTree.POST_ORDER) {
+            throw new IllegalArgumentException("Error, Invalid Traversal type.");
+        }
+
+        StringBuilder chunk = new StringBuilder(WRITE_CHUNK_CHARS + 64);
+        RecordCursor cursor = new RecordCursor(HEADER_BYTES);
+
+        if (type == BinarySearchTree.IN_ORDER) {
+            for (int record = 0; record < uniqueWords; record++) {
+                cursor.next();
+                appendRecord(cursor, chunk, out);
+            }
+        } else {
+            int[] positions = new int[uniqueWords];
+            for (int record = 0; record < uniqueWords; record++) {
+                positions[record] = cursor.position;
+                cursor.next();
+            }
+
+            int[] stack = new int[Math.max(16, treeHeight + 2)];
+            int top = 0;
+            if (type == BinarySearchTree.PRE_ORDER) {
+                if (rootRecord >= 0) {
+                    stack[top++] = rootRecord;
+                }
+                while (top > 0) {
+                    int record = stack[--top];
+                    cursor.position = positions[record];
+                    cursor.next();
+                    appendRecord(cursor, chunk, out);
+                    if (rightOf(record) >= 0) {
+                        stack[top++] = rightOf(record);
+                    }
+                    if (leftOf(record) >= 0) {
+                        stack[top++] = leftOf(record);
+                    }
+                }
+            } else {
+                int record = rootRecord;
+                int lastVisited = -1;
+                while (record >= 0 || top > 0) {
+                    while (record >= 0) {
+                        stack[top++] = record;
+                        record = leftOf(record);
+                    }
+                    int current = stack[top - 1];
+                    if (rightOf(current) >= 0 && rightOf(current) != lastVisited) {
+                        record = rightOf(current);
+                    } else {
+                        top--;
+                        cursor.position = positions[current];
+                        cursor.next();
+                        appendRecord(cursor, chunk, out);
+                        lastVisited = current;
+                    }
+                }
+            }
+        }
+        out.append(chunk);
+        out.flush();
+    }
+
+    // Record number of a record's left child (-1 if none)
+    private int leftOf(int record) {
+        return buffer.getInt(shapeStart + record * 8);
+    }
+
+    // Record number of a record's right child (-1 if none)
+    private int rightOf(int record) {
+        return buffer.getInt(shapeStart + record * 8 + 4);
+    }
+
+    // Appends one "word (frequency)" line and writes the chunk out once full
+    private static void appendRecord(RecordCursor cursor, StringBuilder chunk, Writer out) throws IOException {
+        chunk.append(cursor.word()).append(" (").append(cursor.frequency).append(")\n");
+        if (chunk.length() >= WRITE_CHUNK_CHARS) {
+            out.append(chunk);
+            chunk.setLength(0);
+        }
+    }
+
+    // Returns the total number of words, including duplicates
+    @Override
+    public long getTotalWords() {
+        return totalWords;
+    }
+
+    // Returns the count of unique words
+    @Override
+    public int getUniqueWords() {
+        return uniqueWords;
+    }
+
+    // Returns the most frequent word along with its occurrence count
+    @Override
+    public String getMostFrequentWord() {
+        if (mostFrequentRecord < 0) {
+            return "No words in the tree.";
+        }
+        RecordCursor cursor = recordAt(mostFrequentRecord);
+        return cursor.word() + " (" + cursor.frequency + " times)";
+    }
+
+    // Returns the height of the tree the snapshot was taken from
+    @Override
+    public int getTreeHeight() {
+        return treeHeight;
+    }
+
+    // Returns up to k of the most frequent words by scanning the records with a
+    // bounded heap in O(n log k); equal frequencies are ordered alphabetically
+    @Override
+    public List<Map.Entry<String, Integer>> topK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+
+        // Heap root is the weakest candidate: lowest frequency, latest record
+        PriorityQueue<long[]> heap = new PriorityQueue<>(Math.max(1, Math.min(k, uniqueWords)),
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        RecordCursor cursor = new RecordCursor(HEADER_BYTES);
+        for (int record = 0; record < uniqueWords && k > 0; record++) {
+            int position = cursor.position;
+            cursor.next();
+            if (heap.size() < k) {
+                heap.add(new long[] { cursor.frequency, position });
+            } else if (cursor.frequency > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new long[] { cursor.frequency, position });
+            }
+        }
+
+        List<Map.Entry<String, Integer>> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            cursor.position = (int) heap.poll()[1];
+            cursor.next();
+            result.add(Map.entry(cursor.word(), cursor.frequency));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // Rebuilds a BinarySearchTree with exactly the shape that was saved
+    public BinarySearchTree toTree() {
+        // (1) Create one node per record, in record (alphabetical) order
+        // (2) Link the children as recorded in the shape section
+        // (3) Let the tree recompute its statistics, then restore the saved most
+        // frequent word (ties are otherwise resolved differently)
+
+        TreeNode[] nodes = new TreeNode[uniqueWords];
+        RecordCursor cursor = new RecordCursor(HEADER_BYTES);
+        for (int record = 0; record < uniqueWords; record++) {
+            cursor.next();
+            nodes[record] = new TreeNode(cursor.word());
+            nodes[record].frequency = cursor.frequency;
+        }
+        for (int record = 0; record < uniqueWords; record++) {
+            int left = leftOf(record);
+            int right = rightOf(record);
+            nodes[record].left = left < 0 ? null : nodes[left];
+            nodes[record].right = right < 0 ? null : nodes[right];
+        }
+
+        BinarySearchTree tree = new BinarySearchTree(rootRecord < 0 ? null : nodes[rootRecord], balanced);
+        if (mostFrequentRecord >= 0) {
+            tree.preferMostFrequent(nodes[mostFrequentRecord].word);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for WordSnapshot: a tree saved to a snapshot
+    and read back (as the memory-mapped view or as a rebuilt
+    tree) has the same words, counts, shape and statistics,
+    including which of several tied words is the most frequent;
+    truncated, corrupted and unknown-version files are rejected.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Builds a tree of random words, some of them non-ASCII
+     */
+    private BinarySearchTree randomTree(boolean balanced, int words, long seed) {
+        Random random = new Random(seed);
+        BinarySearchTree tree = new BinarySearchTree(balanced);
+        for (int i = 0; i < words; i++) {
+            int id = random.nextInt(words / 4 + 1);
+            tree.insert((id % 10 == 0 ? "w\u00F6rt" : "word") + id);
+        }
+        return tree;
+    }
+
+    /**
+     * The counts of a top-K list. Words tied below the most frequent one may be
+     * listed in a different order, so only the counts are compared.
+     */
+    private List<Integer> counts(List<Map.Entry<String, Integer>> top) {
+        List<Integer> counts = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : top) {
+            counts.add(entry.getValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Checks that a counter read back from a snapshot agrees with the original
+     * tree on every query of WordCounts
+     */
+    private void assertSameCounts(BinarySearchTree expected, WordCounts actual) {
+        assertEquals(expected.getTotalWords(), actual.getTotalWords());
+        assertEquals(expected.getUniqueWords(), actual.getUniqueWords());
+        assertEquals(expected.getTreeHeight(), actual.getTreeHeight());
+        assertEquals(expected.getMostFrequentWord(), actual.getMostFrequentWord());
+        assertEquals(counts(expected.topK(20)), counts(actual.topK(20)));
+        for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+            assertEquals(expected.getTraversalOutput(type), actual.getTraversalOutput(type));
+        }
+        for (Iterator<TreeNode> nodes = expected.nodeIterator(BinarySearchTree.IN_ORDER); nodes.hasNext();) {
+            TreeNode node = nodes.next();
+            assertEquals(node.frequency, actual.searchWord(node.word), node.word);
+            assertEquals(0, actual.searchWord(node.word + "x"));
+        }
+        assertEquals(0, actual.searchWord(""));
+        assertEquals(0, actual.searchWord("zzz"));
+    }
+
+    @Test
+    public void testRoundTripPlainTree() throws IOException {
+        BinarySearchTree tree = randomTree(false, 5000, 1);
+        Path file = dir.resolve("plain.wfs");
+        tree.saveSnapshot(file);
+        assertSameCounts(tree, WordSnapshot.open(file));
+        assertSameCounts(tree, BinarySearchTree.loadSnapshot(file));
+    }
+
+    @Test
+    public void testRoundTripBalancedTree() throws IOException {
+        BinarySearchTree tree = randomTree(true, 5000, 2);
+        Path file = dir.resolve("balanced.wfs");
+        tree.saveSnapshot(file);
+        assertSameCounts(tree, WordSnapshot.open(file));
+
+        BinarySearchTree loaded = BinarySearchTree.loadSnapshot(file);
+        assertSameCounts(tree, loaded);
+        assertTrue(loaded.isBalanced());
+        assertTrue(loaded.verifyStatistics());
+    }
+
+    @Test
+    public void testRoundTripEmptyTree() throws IOException {
+        BinarySearchTree tree = new BinarySearchTree();
+        Path file = dir.resolve("empty.wfs");
+        tree.saveSnapshot(file);
+        assertSameCounts(tree, WordSnapshot.open(file));
+        assertSameCounts(tree, BinarySearchTree.loadSnapshot(file));
+    }
+
+    @Test
+    public void testRoundTripKeepsTieBreak() throws IOException {
+        // 'pear' reached two first, although 'apple' sorts before it
+        BinarySearchTree tree = new BinarySearchTree();
+        for (String word : "pear pear apple apple kiwi".split(" ")) {
+            tree.insert(word);
+        }
+        Path file = dir.resolve("ties.wfs");
+        tree.saveSnapshot(file);
+        assertEquals("pear (2 times)", WordSnapshot.open(file).getMostFrequentWord());
+        assertEquals("pear (2 times)", BinarySearchTree.loadSnapshot(file).getMostFrequentWord());
+    }
+
+    @Test
+    public void testLoadedTreeKeepsCounting() throws IOException {
+        BinarySearchTree tree = randomTree(true, 2000, 3);
+        Path file = dir.resolve("counts.wfs");
+        tree.saveSnapshot(file);
+        BinarySearchTree loaded = BinarySearchTree.loadSnapshot(file);
+        for (int i = 0; i < 2000; i++) {
+            tree.insert("new" + i % 300);
+            loaded.insert("new" + i % 300);
+        }
+        String word = tree.select(tree.getUniqueWords() / 2);
+        tree.remove(word, tree.searchWord(word));
+        loaded.remove(word, loaded.searchWord(word));
+        assertSameCounts(tree, loaded);
+    }
+
+    @Test
+    public void testSnapshotOfSnapshot() throws IOException {
+        BinarySearchTree tree = randomTree(false, 3000, 4);
+        Path first = dir.resolve("first.wfs");
+        Path second = dir.resolve("second.wfs");
+        tree.saveSnapshot(first);
+        BinarySearchTree.loadSnapshot(first).saveSnapshot(second);
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+    }
+
+    @Test
+    public void testOpenRejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("text.txt");
+        Files.writeString(file, "this is not a snapshot, just a line of text that is long enough");
+        assertThrows(IOException.class, () -> WordSnapshot.open(file));
+        Path empty = dir.resolve("empty.txt");
+        Files.createFile(empty);
+        assertThrows(IOException.class, () -> WordSnapshot.open(empty));
+    }
+
+    @Test
+    public void testOpenRejectsTruncatedFile() throws IOException {
+        Path file = dir.resolve("truncated.wfs");
+        randomTree(false, 2000, 5).saveSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int length : new int[] { 0, 10, 64, bytes.length / 2, bytes.length - 1 }) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> WordSnapshot.open(file), "length " + length);
+        }
+    }
+
+    @Test
+    public void testOpenRejectsFlippedBit() throws IOException {
+        // A flipped bit anywhere, header fields included, fails the checks or the
+        // checksum
+        Path original = dir.resolve("original.wfs");
+        Path file = dir.resolve("flipped.wfs");
+        randomTree(true, 2000, 6).saveSnapshot(original);
+        byte[] bytes = Files.readAllBytes(original);
+        Random random = new Random(6);
+        for (int i = 0; i < 200; i++) {
+            byte[] flipped = bytes.clone();
+            int position = i < 64 ? i : random.nextInt(bytes.length);
+            flipped[position] ^= 1 << random.nextInt(8);
+            Files.write(file, flipped);
+            assertThrows(IOException.class, () -> WordSnapshot.open(file), "byte " + position);
+        }
+    }
+
+    @Test
+    public void testOpenRejectsUnknownVersion() throws IOException {
+        Path file = dir.resolve("future.wfs");
+        randomTree(false, 100, 7).saveSnapshot(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[3] = '9'; // "WFS9"
+        Files.write(file, bytes);
+        IOException e = assertThrows(IOException.class, () -> WordSnapshot.open(file));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+
+    @Test
+    public void testMergedSnapshotPassesChecks() throws IOException {
+        Path first = dir.resolve("first.wfs");
+        Path second = dir.resolve("second.wfs");
+        Path merged = dir.resolve("merged.wfs");
+        randomTree(false, 1000, 8).saveSnapshot(first);
+        randomTree(true, 1000, 9).saveSnapshot(second);
+        WordSnapshot.merge(List.of(first, second), merged);
+        assertEquals(2000, WordSnapshot.open(merged).getTotalWords());
+    }
+
+    @Test
+    public void testMergeMatchesConcatenatedPass() throws IOException {
+        // Three partial counts merged on disk equal one pass over all of their
+        // input, and have the shape BinarySearchTree.merge() builds
+        Random random = new Random(10);
+        BinarySearchTree single = new BinarySearchTree(true);
+        BinarySearchTree inMemory = new BinarySearchTree();
+        List<Path> parts = new ArrayList<>();
+        for (int part = 0; part < 3; part++) {
+            BinarySearchTree tree = new BinarySearchTree(part == 1);
+            for (int i = 0; i < 2000; i++) {
+                String word = "w" + random.nextInt(300 + part * 200);
+                tree.insert(word);
+                single.insert(word);
+            }
+            Path file = dir.resolve("part" + part + ".wfs");
+            tree.saveSnapshot(file);
+            parts.add(file);
+            inMemory = BinarySearchTree.merge(inMemory, tree);
+        }
+
+        Path merged = dir.resolve("merged.wfs");
+        WordSnapshot.merge(parts, merged);
+        WordSnapshot snapshot = WordSnapshot.open(merged);
+        assertEquals(single.getTraversalOutput(BinarySearchTree.IN_ORDER),
+                snapshot.getTraversalOutput(BinarySearchTree.IN_ORDER));
+        assertEquals(single.getTotalWords(), snapshot.getTotalWords());
+        assertEquals(single.getUniqueWords(), snapshot.getUniqueWords());
+        assertEquals(counts(single.topK(20)), counts(snapshot.topK(20)));
+        for (int type = BinarySearchTree.IN_ORDER; type <= BinarySearchTree.POST_ORDER; type++) {
+            assertEquals(inMemory.getTraversalOutput(type), snapshot.getTraversalOutput(type));
+        }
+        assertEquals(inMemory.getTreeHeight(), snapshot.getTreeHeight());
+        // Merged counts no longer know which tied word got there first
+        assertEquals(single.getMostFrequentWord().replaceAll(".* \\(", ""),
+                snapshot.getMostFrequentWord().replaceAll(".* \\(", ""));
+    }
+}
@@ -0,0 +1,278 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    Memory-mapped tokenizer for the word frequency counter.
+    Scans the raw UTF-8 bytes of the input file and produces
+    exactly the words of the original line-based pipeline
+        line.toLowerCase().replaceAll("[^a-zA-Z ]", "").split("\\s+")
+    without decoding lines or running a regex. In Unicode mode
+    words are made of the letters (and combining marks) of any
+    script instead, so non-English text is counted too.
+---------------------------------------------------------
+*/
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+class WordTokenizer {
+
+    // Size of each memory-mapped window (a single mapping is limited to 2 GB)
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    // Receives each word as the UTF-8 bytes word[0 .. length). The array is
+    // reused for the next word, so a sink that keeps the word must copy it.
+    interface ByteSink {
+        void accept(byte[] word, int length);
+    }
+
+    // Letters of the word being built, already lower-cased (UTF-8 encoded);
+    // reused across words
+    private byte[] word = new byte[64];
+    private int length;
+
+    // Whether words are made of letters of any script or only of a-z
+    private final boolean unicode;
+
+    private WordTokenizer(boolean unicode) {
+        this.unicode = unicode;
+    }
+
+    // Tokenizes a whole file
+    public static void tokenize(String filename, Consumer<String> sink) throws IOException {
+        tokenize(filename, false, sink);
+    }
+
+    // Tokenizes a whole file, optionally in Unicode mode
+    public static void tokenize(String filename, boolean unicode, Consumer<String> sink) throws IOException {
+        tokenizeBytes(filename, unicode, stringSink(unicode, sink));
+    }
+
+    // Tokenizes a whole file and hands each word on as UTF-8 bytes, without
+    // creating a String per word
+    public static void tokenizeBytes(String filename, boolean unicode, ByteSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            tokenizeBytes(channel, 0, channel.size(), unicode, sink);
+        }
+    }
+
+    // Tokenizes the byte range [start, end) of a file. The range must start and
+    // end on a separator byte (or the file's start/end) so no word is cut.
+    public static void tokenize(FileChannel channel, long start, long end, Consumer<String> sink) throws IOException {
+        tokenize(channel, start, end, false, sink);
+    }
+
+    // Tokenizes the byte range [start, end) of a file, optionally in Unicode mode
+    public static void tokenize(FileChannel channel, long start, long end, boolean unicode, Consumer<String> sink)
+            throws IOException {
+        tokenizeBytes(channel, start, end, unicode, stringSink(unicode, sink));
+    }
+
+    // Tokenizes the byte range [start, end) of a file into UTF-8 byte words
+    public static void tokenizeBytes(FileChannel channel, long start, long end, boolean unicode, ByteSink sink)
+            throws IOException {
+        // (1) Map the range window by window
+        // (2) Scan each window; a multi-byte character that straddles the window end
+        // is left for the next window
+        // (3) Emit the word still being built at the end of the range
+
+        WordTokenizer tokenizer = new WordTokenizer(unicode);
+        long position = start;
+        while (position < end) {
+            long size = Math.min(WINDOW_BYTES, end - position);
+            boolean last = position + size == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            position += unicode ? tokenizer.scanUnicode(buffer, (int) size, last, sink)
+                    : tokenizer.scan(buffer, (int) size, last, sink);
+        }
+        tokenizer.endWord(sink);
+    }
+
+    // Turns byte words back into Strings for sinks that want them
+    private static ByteSink stringSink(boolean unicode, Consumer<String> sink) {
+        // ASCII-mode words only contain a-z, which decode faster as ISO-8859-1
+        if (unicode) {
+            return (word, length) -> sink.accept(new String(word, 0, length, StandardCharsets.UTF_8));
+        }
+        return (word, length) -> sink.accept(new String(word, 0, length, StandardCharsets.ISO_8859_1));
+    }
+
+    // Space and line breaks end a word in both modes; in ASCII mode every other
+    // character is either part of a word or dropped. None of these bytes occur
+    // inside a multi-byte character.
+    static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\n' || b == '\r';
+    }
+
+    // Scans one window and returns how many of its bytes were consumed
+    private int scan(MappedByteBuffer buffer, int size, boolean last, ByteSink sink) {
+        // (1) ASCII letters are lower-cased and appended to the current word
+        // (2) Space, '\n' and '\r' end the current word (the original split lines
+        // first, then split on spaces)
+        // (3) Any other ASCII byte is dropped, joining the letters around it
+        // (4) Non-ASCII characters are dropped too, except the two whose lower-case
+        // form is an ASCII letter: U+0130 (C4 B0) becomes 'i' and U+212A (E2 84 AA)
+        // becomes 'k'
+
+        int stop = last ? size : size - 2;
+        int i = 0;
+        while (i < stop) {
+            byte b = buffer.get(i);
+
+            if (b >= 'a' && b <= 'z') {
+                append(b);
+            } else if (b >= 'A' && b <= 'Z') {
+                append((byte) (b + ('a' - 'A')));
+            } else if (isSeparator(b)) {
+                endWord(sink);
+            } else if (b == (byte) 0xC4 && i + 1 < size && buffer.get(i + 1) == (byte) 0xB0) {
+                append((byte) 'i');
+                i++;
+            } else if (b == (byte) 0xE2 && i + 2 < size && buffer.get(i + 1) == (byte) 0x84
+                    && buffer.get(i + 2) == (byte) 0xAA) {
+                append((byte) 'k');
+                i += 2;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // Scans one window in Unicode mode and returns how many of its bytes were
+    // consumed
+    private int scanUnicode(MappedByteBuffer buffer, int size, boolean last, ByteSink sink) {
+        // (1) Decode one character; ASCII bytes need no decoding
+        // (2) Letters and combining marks (e.g. Devanagari vowel signs) are
+        // lower-cased and appended to the current word
+        // (3) White space of any kind ends the current word
+        // (4) Anything else, including digits, punctuation and malformed bytes, is
+        // dropped, joining the letters around it as in ASCII mode
+
+        int stop = last ? size : size - 3;
+        int i = 0;
+        while (i < stop) {
+            int b = buffer.get(i);
+            int codePoint;
+            int bytes;
+
+            if (b >= 0) {
+                codePoint = b;
+                bytes = 1;
+            } else {
+                codePoint = decode(buffer, i, size);
+                bytes = codePoint < 0 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            }
+
+            if (codePoint >= 'a' && codePoint <= 'z') {
+                append((byte) codePoint);
+            } else if (codePoint >= 'A' && codePoint <= 'Z') {
+                append((byte) (codePoint + ('a' - 'A')));
+            } else if (codePoint >= 0 && isWordCharacter(codePoint)) {
+                appendUtf8(Character.toLowerCase(codePoint));
+            } else if (codePoint >= 0 && (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint))) {
+                endWord(sink);
+            }
+            i += bytes;
+        }
+        return i;
+    }
+
+    // Decodes the multi-byte UTF-8 character starting at 'i', or returns -1 if
+    // the bytes there are not a well-formed character
+    private static int decode(MappedByteBuffer buffer, int i, int size) {
+        // (1) The lead byte gives the length and the top bits of the character
+        // (2) Each continuation byte must look like 10xxxxxx
+        // (3) Reject overlong encodings, surrogates and values past U+10FFFF
+
+        int lead = buffer.get(i) & 0xFF;
+        int bytes;
+        int codePoint;
+        int min;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            bytes = 2;
+            codePoint = lead & 0x1F;
+            min = 0x80;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            bytes = 3;
+            codePoint = lead & 0x0F;
+            min = 0x800;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            bytes = 4;
+            codePoint = lead & 0x07;
+            min = 0x10000;
+        } else {
+            return -1;
+        }
+        if (i + bytes > size) {
+            return -1;
+        }
+
+        for (int k = 1; k < bytes; k++) {
+            int next = buffer.get(i + k);
+            if ((next & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return -1;
+        }
+        return codePoint;
+    }
+
+    // Letters of any script, and the combining marks that are part of written
+    // words in many scripts
+    private static boolean isWordCharacter(int codePoint) {
+        if (Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    // Appends one character to the current word as UTF-8
+    private void appendUtf8(int codePoint) {
+        if (codePoint < 0x80) {
+            append((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            append((byte) (0xC0 | (codePoint >> 6)));
+            append((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (codePoint < 0x10000) {
+            append((byte) (0xE0 | (codePoint >> 12)));
+            append((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            append((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+            append((byte) (0xF0 | (codePoint >> 18)));
+            append((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            append((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            append((byte) (0x80 | (codePoint & 0x3F)));
+        }
+    }
+
+    // Appends one letter to the current word, growing the buffer if needed
+    private void append(byte letter) {
+        if (length == word.length) {
+            word = Arrays.copyOf(word, length * 2);
+        }
+        word[length++] = letter;
+    }
+
+    // Passes the current word on (if any) and starts a new one
+    private void endWord(ByteSink sink) {
+        if (length > 0) {
+            sink.accept(word, length);
+            length = 0;
+        }
+    }
+}
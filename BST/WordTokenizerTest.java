@@ -0,0 +1,141 @@
+/*
+---------------------------------------------------------
+Project:    Binary Search Tree Word Frequency Counter
+Author:     Nethanya Dhaiphule
+Language:   Java
+Description:
+    JUnit 5 tests for WordTokenizer: in ASCII mode it must yield
+    exactly the words of the original line-by-line pipeline
+    (toLowerCase, replaceAll("[^a-zA-Z ]", ""), split("\\s+")),
+    for punctuation, digits, tabs, line breaks and non-ASCII
+    text alike.
+---------------------------------------------------------
+*/
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordTokenizerTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Splits a text into words the way Main originally did: line by line, lower
+     * case, non-letters removed, split on runs of whitespace
+     */
+    private List<String> originalPipeline(Path file) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] words = line.toLowerCase().replaceAll("[^a-zA-Z ]", "").split("\\s+");
+                for (String word : words) {
+                    if (!word.isEmpty()) {
+                        result.add(word);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes a text to a file and tokenizes it
+     */
+    private List<String> tokenize(String text) throws IOException {
+        Path file = dir.resolve("text.txt");
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+        List<String> result = new ArrayList<>();
+        WordTokenizer.tokenize(file.toString(), result::add);
+        assertEquals(originalPipeline(file), result, text);
+        return result;
+    }
+
+    @Test
+    public void testSimpleSentence() throws IOException {
+        assertEquals(List.of("the", "quick", "brown", "fox"), tokenize("The quick brown fox"));
+    }
+
+    @Test
+    public void testPunctuationAndDigitsJoinLetters() throws IOException {
+        assertEquals(List.of("dont", "stop", "email", "abc", "x"), tokenize("Don't stop! e-mail a1b2c3 ... x."));
+    }
+
+    @Test
+    public void testTabsJoinWords() throws IOException {
+        assertEquals(List.of("onetwo", "three"), tokenize("one\ttwo three"));
+    }
+
+    @Test
+    public void testLineBreaks() throws IOException {
+        assertEquals(List.of("a", "b", "c", "d", "e"), tokenize("a\nb\r\nc\rd\n\n\r\ne\n"));
+    }
+
+    @Test
+    public void testEmptyAndBlankText() throws IOException {
+        assertEquals(List.of(), tokenize(""));
+        assertEquals(List.of(), tokenize("   \n\r\n  !?  \n"));
+    }
+
+    @Test
+    public void testNonAsciiIsDropped() throws IOException {
+        assertEquals(List.of("caf", "nave", "straenbahn", "tokyo"),
+                tokenize("Caf\u00E9 na\u00EFve Stra\u00DFenbahn \u6771\u4EACtokyo"));
+    }
+
+    @Test
+    public void testLettersWhoseLowerCaseIsAscii() throws IOException {
+        // U+0130 lower-cases to 'i' plus a combining dot, U+212A (Kelvin sign) to 'k'
+        assertEquals(List.of("istanbul", "kelvin"), tokenize("\u0130stanbul \u212Aelvin"));
+    }
+
+    @Test
+    public void testRandomTextMatchesOriginalPipeline() throws IOException {
+        String alphabet = "abcXYZ  \t\n\r\n'-.,09\u00E9\u00C9\u00DF\u0130\u212A\u6771\uD83D\uDE00";
+        Random random = new Random(4);
+        for (int round = 0; round < 200; round++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(200);
+            for (int i = 0; i < length; i++) {
+                int at = random.nextInt(alphabet.length());
+                if (Character.isSurrogate(alphabet.charAt(at))) {
+                    at = alphabet.indexOf('\uD83D');
+                    text.append(alphabet, at, at + 2);
+                } else {
+                    text.append(alphabet.charAt(at));
+                }
+            }
+            tokenize(text.toString());
+        }
+    }
+
+    @Test
+    public void testByteRangeOfFile() throws IOException {
+        Path file = dir.resolve("range.txt");
+        Files.writeString(file, "skip these words\nonly these\nnot this", StandardCharsets.UTF_8);
+        List<String> result = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WordTokenizer.tokenize(channel, 17, 28, result::add);
+        }
+        assertEquals(List.of("only", "these"), result);
+    }
+
+    @Test
+    public void testExampleFilesMatchOriginalPipeline() throws IOException {
+        for (int i = 1; i <= 6; i++) {
+            Path file = Paths.get(String.format("example%02d.txt", i));
+            if (!Files.exists(file)) {
+                continue;
+            }
+            List<String> result = new ArrayList<>();
+            WordTokenizer.tokenize(file.toString(), result::add);
+            assertEquals(originalPipeline(file), result, file.toString());
+        }
+    }
+}